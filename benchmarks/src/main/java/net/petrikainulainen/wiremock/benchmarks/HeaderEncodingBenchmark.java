@@ -0,0 +1,99 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import net.petrikainulainen.wiremock.stubbing.PreEncodedHttpField;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the header work that Jetty does for every
+ * response of a stub that returns 1, 10, or 50 HTTP headers (the
+ * scenario of the <code>HttpHeaderTest</code> class).
+ *
+ * The <code>PER_RESPONSE</code> encoding adds the headers to the response
+ * in the same way as WireMock does, and Jetty encodes their names and
+ * values for every response. The <code>PRE_ENCODED</code> encoding adds
+ * the shared header fields of the stubbing example to the response, and
+ * Jetty copies their encoded bytes to the response buffer.
+ *
+ * Run this benchmark with the GC profiler (<code>-prof gc</code>) to see
+ * how many bytes are allocated per response (<code>gc.alloc.rate.norm</code>).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderEncodingBenchmark {
+
+    private static final int HEADER_BUFFER_SIZE = 64 * 1024;
+
+    public enum HeaderEncoding {
+
+        PER_RESPONSE {
+            @Override
+            void addHeaders(String[] names, String[] values, HttpField[] preEncoded, HttpFields fields) {
+                for (int i = 0; i < names.length; i++) {
+                    fields.add(names[i], values[i]);
+                }
+            }
+        },
+        PRE_ENCODED {
+            @Override
+            void addHeaders(String[] names, String[] values, HttpField[] preEncoded, HttpFields fields) {
+                for (HttpField field : preEncoded) {
+                    fields.add(field);
+                }
+            }
+        };
+
+        abstract void addHeaders(String[] names, String[] values, HttpField[] preEncoded, HttpFields fields);
+    }
+
+    @Param
+    private HeaderEncoding headerEncoding;
+
+    @Param({"1", "10", "50"})
+    private int headerCount;
+
+    private String[] names;
+    private String[] values;
+    private HttpField[] preEncoded;
+
+    private HttpFields fields;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void createHeaders() {
+        names = new String[headerCount];
+        values = new String[headerCount];
+        preEncoded = new HttpField[headerCount];
+
+        //The first header has a well-known name and the other ones are custom headers.
+        for (int i = 0; i < headerCount; i++) {
+            names[i] = i == 0 ? "Content-Type" : "X-Header-" + i;
+            values[i] = i == 0 ? "application/json;charset=UTF-8" : "Value of the header " + i;
+            preEncoded[i] = new PreEncodedHttpField(names[i], values[i]);
+        }
+
+        fields = new HttpFields();
+        buffer = ByteBuffer.allocate(HEADER_BUFFER_SIZE);
+    }
+
+    @Benchmark
+    public int encodeHeaders() {
+        fields.clear();
+        //The cast keeps the Java 8 signature of clear() when the class is compiled on a newer JDK.
+        ((Buffer) buffer).clear();
+
+        headerEncoding.addHeaders(names, values, preEncoded, fields);
+        HttpGenerator.putTo(fields, buffer);
+        return buffer.position();
+    }
+}
@@ -0,0 +1,130 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.client.BasicCredentials;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.InMemoryRequestJournal;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.verification.RequestJournal;
+import com.google.common.base.Optional;
+import net.petrikainulainen.wiremock.configuration.RingBufferRequestJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * This benchmark measures how long it takes to verify that a request
+ * was sent by using basic authentication (the scenario of the
+ * <code>BasicAuthMatchingTest</code> class) when the request journal
+ * contains 1000, 10000, 100000, or 1000000 requests.
+ *
+ * Only {@link #MATCHING_REQUEST_COUNT} journaled requests match the
+ * verified request pattern. The other requests are sent to other
+ * URL paths without credentials.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class JournalVerificationBenchmark {
+
+    private static final int MATCHING_REQUEST_COUNT = 10;
+    private static final int FILLER_PATH_COUNT = 1000;
+    private static final BasicCredentials CREDENTIALS = new BasicCredentials("username", "password");
+
+    public enum JournalType {
+
+        /**
+         * The journal is created without a maximum size because a journal
+         * that has a maximum size counts its requests every time a request
+         * is added to it. This would make the setup of the largest journal
+         * take hours. The benchmark never adds more than
+         * <code>journalSize</code> requests, so no requests are removed
+         * from a journal that has a maximum size either.
+         */
+        IN_MEMORY {
+            @Override
+            RequestJournal create(int journalSize, int requestSize) {
+                return new InMemoryRequestJournal(Optional.absent());
+            }
+        },
+        INDEXED_RING_BUFFER {
+            @Override
+            RequestJournal create(int journalSize, int requestSize) {
+                return new RingBufferRequestJournal(journalSize,
+                        journalSize * requestSize,
+                        Long.MAX_VALUE,
+                        TimeUnit.MILLISECONDS,
+                        Collections.singletonList("Authorization")
+                );
+            }
+        };
+
+        abstract RequestJournal create(int journalSize, int requestSize);
+    }
+
+    @Param
+    private JournalType journalType;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int journalSize;
+
+    private RequestJournal journal;
+    private RequestPattern requestPattern;
+
+    @Setup
+    public void receiveRequests() throws Exception {
+        ServeEvent matchingRequest = createServeEvent("/api/message?id=1",
+                new HttpHeaders(new HttpHeader("Authorization", CREDENTIALS.asAuthorizationHeaderValue()))
+        );
+        int requestSize = Json.getObjectMapper().writeValueAsBytes(matchingRequest.getRequest()).length * 2;
+        journal = journalType.create(journalSize, requestSize);
+
+        int matchingRequestInterval = journalSize / MATCHING_REQUEST_COUNT;
+        for (int index = 0; index < journalSize; index++) {
+            journal.requestReceived(index % matchingRequestInterval == 0
+                    ? matchingRequest
+                    : createServeEvent("/api/filler/" + (index % FILLER_PATH_COUNT) + "?id=1", HttpHeaders.noHeaders())
+            );
+        }
+
+        requestPattern = getRequestedFor(urlEqualTo("/api/message?id=1"))
+                .withBasicAuth(CREDENTIALS)
+                .build();
+        if (verifyRequests() != MATCHING_REQUEST_COUNT) {
+            throw new IllegalStateException("The journal doesn't contain " + MATCHING_REQUEST_COUNT + " matching requests");
+        }
+    }
+
+    @Benchmark
+    public int verifyRequests() {
+        return journal.countRequestsMatching(requestPattern);
+    }
+
+    private static ServeEvent createServeEvent(String url, HttpHeaders headers) {
+        LoggedRequest request = new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                headers,
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+        return ServeEvent.of(request, ResponseDefinition.ok());
+    }
+}
@@ -0,0 +1,98 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import net.petrikainulainen.wiremock.matching.IndexedStubMappings;
+import net.petrikainulainen.wiremock.matching.PreparsedJsonMatchers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * This benchmark measures how long it takes to find the stub that matches
+ * a JSON request body when every stub uses a <code>matchingJsonPath()</code>
+ * and an <code>equalToJson()</code> matcher (the scenario of the
+ * <code>PreparsedJsonMatchersTest</code> class). It compares WireMock's
+ * matchers, which parse the request body for every stub, with the matchers
+ * of the request matching example, which parse it once per request.
+ *
+ * The request matches only the oldest stub, and that's why every request
+ * is compared with all registered stubs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonMatchingBenchmark {
+
+    public enum JsonMatchers {
+
+        WIREMOCK {
+            @Override
+            StubMappings registerStubs(int stubCount) {
+                StubMappings stubMappings = new IndexedStubMappings();
+                for (int index = 0; index < stubCount; index++) {
+                    stubMappings.addMapping(post(urlEqualTo("/api/message"))
+                            .withRequestBody(WireMock.matchingJsonPath("$.message"))
+                            .withRequestBody(WireMock.equalToJson(expectedBody(index)))
+                            .willReturn(aResponse().withStatus(200))
+                            .build()
+                    );
+                }
+                return stubMappings;
+            }
+        },
+        PREPARSED {
+            @Override
+            StubMappings registerStubs(int stubCount) {
+                StubMappings stubMappings = new IndexedStubMappings();
+                for (int index = 0; index < stubCount; index++) {
+                    stubMappings.addMapping(post(urlEqualTo("/api/message"))
+                            .withRequestBody(PreparsedJsonMatchers.matchingJsonPath("$.message"))
+                            .withRequestBody(PreparsedJsonMatchers.equalToJson(expectedBody(index)))
+                            .willReturn(aResponse().withStatus(200))
+                            .build()
+                    );
+                }
+                return stubMappings;
+            }
+        };
+
+        abstract StubMappings registerStubs(int stubCount);
+
+        private static String expectedBody(int index) {
+            return "{\"message\": \"Hello World!\", \"id\": " + index + "}";
+        }
+    }
+
+    @Param
+    private JsonMatchers matchers;
+
+    @Param({"100", "2000"})
+    private int stubCount;
+
+    private StubMappings stubMappings;
+    private Request request;
+
+    @Setup
+    public void registerStubs() {
+        stubMappings = matchers.registerStubs(stubCount);
+        request = MatchingScenario.createPostRequest("{\"message\": \"Hello World!\", \"id\": 0}");
+        if (!serveRequest().getWasMatched()) {
+            throw new IllegalStateException("No stub matches the request");
+        }
+    }
+
+    @Benchmark
+    public ServeEvent serveRequest() {
+        return stubMappings.serveFor(request);
+    }
+}
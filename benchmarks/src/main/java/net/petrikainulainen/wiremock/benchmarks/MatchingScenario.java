@@ -0,0 +1,203 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Describes the request matchers that are used in the request
+ * matching example. Every scenario can create any number of
+ * stubs that use the same request matcher, but only the stub
+ * whose index is {@link #MATCHING_STUB_INDEX} matches the
+ * request that is created by the scenario.
+ */
+public enum MatchingScenario {
+
+    URL_EQUAL_TO {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlEqualTo("/api/message?id=" + index));
+        }
+
+        @Override
+        Request request() {
+            return createGetRequest("/api/message?id=" + MATCHING_STUB_INDEX);
+        }
+    },
+    URL_MATCHING {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlMatching("/api/([a-z]*)\\?id=" + index));
+        }
+
+        @Override
+        Request request() {
+            return createGetRequest("/api/message?id=" + MATCHING_STUB_INDEX);
+        }
+    },
+    URL_PATH_MATCHING {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlPathMatching("/api/([a-z]*)/" + index));
+        }
+
+        @Override
+        Request request() {
+            return createGetRequest("/api/message/" + MATCHING_STUB_INDEX + "?id=1");
+        }
+    },
+    EQUAL_TO_JSON {
+        @Override
+        MappingBuilder stub(int index) {
+            return post(urlEqualTo("/api/message"))
+                    .withRequestBody(equalToJson(
+                            "{\"messages\": [\"Hello World " + index + "!\", \"foobar\"]}",
+                            true,
+                            true
+                    ));
+        }
+
+        @Override
+        Request request() {
+            return createPostRequest("{\"name\": \"Petri Kainulainen\", \"messages\": [\"foobar\", \"Hello World 0!\"]}");
+        }
+    },
+    MATCHING_JSON_PATH {
+        @Override
+        MappingBuilder stub(int index) {
+            return post(urlEqualTo("/api/message"))
+                    .withRequestBody(matchingJsonPath("$.[?(@.message == 'Hello World " + index + "!')]"));
+        }
+
+        @Override
+        Request request() {
+            return createPostRequest("{\"message\": \"Hello World 0!\"}");
+        }
+    },
+    EQUAL_TO_XML {
+        @Override
+        MappingBuilder stub(int index) {
+            return post(urlEqualTo("/api/message"))
+                    .withRequestBody(equalToXml("<message>Hello World " + index + "!</message>"));
+        }
+
+        @Override
+        Request request() {
+            return createPostRequest("<message>Hello World 0!</message>");
+        }
+    },
+    MATCHING_XPATH {
+        @Override
+        MappingBuilder stub(int index) {
+            return post(urlEqualTo("/api/message"))
+                    .withRequestBody(matchingXPath("/message[text()='Hello World " + index + "!']"));
+        }
+
+        @Override
+        Request request() {
+            return createPostRequest("<message>Hello World 0!</message>");
+        }
+    },
+    WITH_COOKIE {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlEqualTo("/api/message?id=1"))
+                    .withCookie("name", equalTo("Petri Kainulainen " + index));
+        }
+
+        @Override
+        Request request() {
+            return createRequest(RequestMethod.GET,
+                    "/api/message?id=1",
+                    HttpHeaders.noHeaders(),
+                    Collections.singletonMap("name", new Cookie("Petri Kainulainen " + MATCHING_STUB_INDEX)),
+                    null
+            );
+        }
+    },
+    WITH_QUERY_PARAM {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlPathEqualTo("/api/message"))
+                    .withQueryParam("searchTerm", equalTo("foobar" + index));
+        }
+
+        @Override
+        Request request() {
+            return createGetRequest("/api/message?searchTerm=foobar" + MATCHING_STUB_INDEX);
+        }
+    },
+    WITH_BASIC_AUTH {
+        @Override
+        MappingBuilder stub(int index) {
+            return get(urlEqualTo("/api/message?id=1"))
+                    .withBasicAuth("username" + index, "password");
+        }
+
+        @Override
+        Request request() {
+            String credentials = "username" + MATCHING_STUB_INDEX + ":password";
+            String authHeader = "Basic " + Base64.getEncoder()
+                    .encodeToString(credentials.getBytes(StandardCharsets.US_ASCII));
+
+            return createRequest(RequestMethod.GET,
+                    "/api/message?id=1",
+                    new HttpHeaders(new HttpHeader("Authorization", authHeader)),
+                    Collections.emptyMap(),
+                    null
+            );
+        }
+    };
+
+    static final int MATCHING_STUB_INDEX = 0;
+
+    /**
+     * Creates a stub that uses the request matcher of this scenario.
+     * The created stub matches the request of this scenario only if
+     * the given index is {@link #MATCHING_STUB_INDEX}.
+     */
+    abstract MappingBuilder stub(int index);
+
+    /**
+     * Creates the request that is matched against the stubs.
+     */
+    abstract Request request();
+
+    private static Request createGetRequest(String url) {
+        return createRequest(RequestMethod.GET, url, HttpHeaders.noHeaders(), Collections.emptyMap(), null);
+    }
+
+    static Request createPostRequest(String body) {
+        return createRequest(RequestMethod.POST, "/api/message", HttpHeaders.noHeaders(), Collections.emptyMap(), body);
+    }
+
+    private static Request createRequest(RequestMethod method,
+                                         String url,
+                                         HttpHeaders headers,
+                                         Map<String, Cookie> cookies,
+                                         String body) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                method,
+                "127.0.0.1",
+                headers,
+                cookies,
+                false,
+                new Date(),
+                body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8),
+                null
+        );
+    }
+}
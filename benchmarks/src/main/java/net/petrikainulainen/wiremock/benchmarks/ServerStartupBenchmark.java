@@ -0,0 +1,119 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import net.petrikainulainen.wiremock.configuration.FastStartup;
+import net.petrikainulainen.wiremock.configuration.StubMappingSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * This benchmark measures how long it takes to create and start a new
+ * WireMock server that has 0, 100, or 1000 default stubs (the setup of
+ * a test that starts a new server before every test method). It compares
+ * the default configuration, which reads the stubs from the mapping
+ * files, with the fast startup mode of the configuration example, which
+ * reads the stubs from a snapshot.
+ *
+ * Every iteration starts one server, and the server is stopped after the
+ * iteration. Because the warmup iterations load the classes of WireMock,
+ * Jetty, and Jackson, the measured times don't include class loading. If
+ * we want to measure the first start of a new JVM, we must run one
+ * iteration per fork:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ServerStartupBenchmark -wi 0 -i 1 -f 20
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 100)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServerStartupBenchmark {
+
+    public enum Startup {
+
+        DEFAULT {
+            @Override
+            WireMockConfiguration configure(Path filesRoot, Path snapshotFile) {
+                return options()
+                        .dynamicPort()
+                        .usingFilesUnderDirectory(filesRoot.toString());
+            }
+        },
+        FAST {
+            @Override
+            WireMockConfiguration configure(Path filesRoot, Path snapshotFile) {
+                return FastStartup.enable(options()
+                        .dynamicPort()
+                        .usingFilesUnderDirectory(filesRoot.toString()),
+                        snapshotFile
+                );
+            }
+        };
+
+        abstract WireMockConfiguration configure(Path filesRoot, Path snapshotFile);
+    }
+
+    @Param
+    private Startup startup;
+
+    @Param({"0", "100", "1000"})
+    private int stubCount;
+
+    private Path filesRoot;
+    private WireMockConfiguration configuration;
+    private WireMockServer server;
+
+    @Setup
+    public void writeMappingFiles() throws IOException {
+        filesRoot = Files.createTempDirectory("wiremock-startup");
+        Path mappingsDirectory = Files.createDirectory(filesRoot.resolve("mappings"));
+        for (int index = 0; index < stubCount; index++) {
+            StubMapping stub = get(urlEqualTo("/api/message/" + index))
+                    .willReturn(aResponse().withStatus(200).withBody("Message " + index))
+                    .build();
+            Files.write(mappingsDirectory.resolve("message-" + index + ".json"),
+                    StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+
+        Path snapshotFile = filesRoot.resolve("mappings.snapshot");
+        StubMappingSnapshot.compile(mappingsDirectory, snapshotFile);
+        configuration = startup.configure(filesRoot, snapshotFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @TearDown
+    public void deleteMappingFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(filesRoot)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public WireMockServer startServer() {
+        server = new WireMockServer(configuration);
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,111 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import net.petrikainulainen.wiremock.matching.IndexedStubMappings;
+import net.petrikainulainen.wiremock.matching.StubImportClient;
+import net.petrikainulainen.wiremock.matching.StubImports;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * This benchmark measures how long it takes to register 1000, 10000,
+ * or 50000 stubs before the tests can be run. The stubs are registered
+ * one at a time or imported as one batch:
+ *
+ * <ul>
+ *     <li>{@link #registerToIndexedStubRegistry()} registers the stubs to
+ *     a new indexed stub registry.</li>
+ *     <li>{@link #registerToServer()} sends the stubs to a running WireMock
+ *     server by using its admin API. The server is reset before every
+ *     iteration.</li>
+ * </ul>
+ *
+ * Every iteration registers the stubs once, and that's why this benchmark
+ * measures single shot times.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class StubImportBenchmark {
+
+    public enum Registration {
+        ONE_AT_A_TIME,
+        BATCH
+    }
+
+    @Param
+    private Registration registration;
+
+    @Param({"1000", "10000", "50000"})
+    private int stubCount;
+
+    private List<StubMapping> stubs;
+    private WireMockServer server;
+    private WireMock wireMock;
+    private StubImportClient importClient;
+
+    @Setup
+    public void startServer() {
+        stubs = new ArrayList<>(stubCount);
+        for (int index = 0; index < stubCount; index++) {
+            stubs.add(get(urlEqualTo("/api/message/" + index))
+                    .willReturn(aResponse().withStatus(200).withBody("Message " + index))
+                    .build()
+            );
+        }
+
+        server = new WireMockServer(StubImports.enable(options().dynamicPort()));
+        server.start();
+        wireMock = new WireMock("localhost", server.port());
+        importClient = new StubImportClient("localhost", server.port());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetServer() {
+        wireMock.resetMappings();
+    }
+
+    @TearDown
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Benchmark
+    public IndexedStubMappings registerToIndexedStubRegistry() {
+        IndexedStubMappings stubMappings = new IndexedStubMappings();
+        if (registration == Registration.BATCH) {
+            stubMappings.importMappings(stubs);
+        }
+        else {
+            for (StubMapping stub : stubs) {
+                stubMappings.addMapping(stub);
+            }
+        }
+        return stubMappings;
+    }
+
+    @Benchmark
+    public void registerToServer() {
+        if (registration == Registration.BATCH) {
+            importClient.importStubs(stubs);
+        }
+        else {
+            for (StubMapping stub : stubs) {
+                wireMock.register(stub);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import net.petrikainulainen.wiremock.matching.IndexedStubMappings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+
+/**
+ * This benchmark measures how long it takes to find the stub that
+ * matches the request of a {@link MatchingScenario} when the stub
+ * registry contains 10, 1000, or 100000 stubs. It compares the default
+ * stub registry of WireMock with the indexed stub registry of the request
+ * matching example.
+ *
+ * WireMock evaluates the newest stub first. That's why the matching
+ * stub is registered before the other stubs, and the default stub
+ * registry has to compare every request with all registered stubs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class StubMatchingBenchmark {
+
+    public enum StubRegistry {
+
+        DEFAULT {
+            @Override
+            StubMappings create() {
+                return new InMemoryStubMappings();
+            }
+        },
+        INDEXED {
+            @Override
+            StubMappings create() {
+                return new IndexedStubMappings();
+            }
+        };
+
+        abstract StubMappings create();
+    }
+
+    @Param
+    private MatchingScenario scenario;
+
+    @Param
+    private StubRegistry registry;
+
+    @Param({"10", "1000", "100000"})
+    private int stubCount;
+
+    private StubMappings stubMappings;
+    private Request request;
+
+    @Setup
+    public void registerStubs() {
+        stubMappings = registry.create();
+        for (int index = 0; index < stubCount; index++) {
+            stubMappings.addMapping(scenario.stub(index)
+                    .willReturn(aResponse().withStatus(200))
+                    .build()
+            );
+        }
+
+        request = scenario.request();
+        if (!serveRequest().getWasMatched()) {
+            throw new IllegalStateException("No stub matches the request of the scenario: " + scenario);
+        }
+    }
+
+    @Benchmark
+    public ServeEvent serveRequest() {
+        return stubMappings.serveFor(request);
+    }
+}
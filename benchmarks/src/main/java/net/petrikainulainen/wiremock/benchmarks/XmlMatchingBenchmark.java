@@ -0,0 +1,97 @@
+package net.petrikainulainen.wiremock.benchmarks;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import net.petrikainulainen.wiremock.matching.StreamingXmlMatchers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures how long it takes to evaluate an XPath matcher
+ * against a 10 MB request body when the element is at the start or at the
+ * end of the body (the scenario of the <code>StreamingXmlMatchersTest</code>
+ * class). It compares WireMock's matcher, which builds a DOM tree, with the
+ * matcher of the request matching example, which reads the body with a
+ * StAX parser.
+ *
+ * Run this benchmark with the GC profiler (<code>-prof gc</code>) to see
+ * how many bytes are allocated per evaluation (<code>gc.alloc.rate.norm</code>).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class XmlMatchingBenchmark {
+
+    private static final int BODY_SIZE = 10 * 1024 * 1024;
+
+    public enum XmlMatchers {
+
+        DOM {
+            @Override
+            StringValuePattern create(String xpath, String expectedText) {
+                return WireMock.matchingXPath(xpath, WireMock.equalTo(expectedText));
+            }
+        },
+        STAX {
+            @Override
+            StringValuePattern create(String xpath, String expectedText) {
+                return StreamingXmlMatchers.matchingXPath(xpath, WireMock.equalTo(expectedText));
+            }
+        };
+
+        abstract StringValuePattern create(String xpath, String expectedText);
+    }
+
+    public enum ElementPosition {
+
+        START("/message/name/text()", "Petri"),
+        END("/message/signature/text()", "Signed");
+
+        private final String xpath;
+        private final String expectedText;
+
+        ElementPosition(String xpath, String expectedText) {
+            this.xpath = xpath;
+            this.expectedText = expectedText;
+        }
+    }
+
+    @Param
+    private XmlMatchers matchers;
+
+    @Param
+    private ElementPosition position;
+
+    private StringValuePattern matcher;
+    private String body;
+
+    @Setup
+    public void createMatcherAndBody() {
+        matcher = matchers.create(position.xpath, position.expectedText);
+        body = createLargeBody();
+        if (!matchBody().isExactMatch()) {
+            throw new IllegalStateException("The matcher doesn't match the body: " + position.xpath);
+        }
+    }
+
+    @Benchmark
+    public MatchResult matchBody() {
+        return matcher.match(body);
+    }
+
+    private static String createLargeBody() {
+        StringBuilder xml = new StringBuilder(BODY_SIZE + 1024);
+        xml.append("<message><name>Petri</name><items>");
+        int index = 0;
+        while (xml.length() < BODY_SIZE) {
+            xml.append("<item id=\"").append(index++).append("\">Lorem ipsum dolor sit amet</item>");
+        }
+        xml.append("</items><signature>Signed</signature></message>");
+        return xml.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Starts the wrapped context when it receives its first request instead of
+ * starting it together with the server. Requests whose target doesn't
+ * belong to the context are ignored and don't start it.
+ */
+class DeferredStartHandler extends HandlerWrapper {
+
+    private final ContextHandler context;
+    private final String contextPath;
+    private volatile boolean contextStarted;
+
+    DeferredStartHandler(ContextHandler context) {
+        this.context = context;
+        this.contextPath = context.getContextPath();
+        setServer(context.getServer());
+        setHandler(context);
+        //The server starts only the handlers which are managed by their parents.
+        unmanage(context);
+    }
+
+    @Override
+    public void handle(String target,
+                       Request baseRequest,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        if (!contextStarted && !isContextTarget(target)) {
+            return;
+        }
+
+        startContext();
+        super.handle(target, baseRequest, request, response);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        synchronized (this) {
+            if (contextStarted) {
+                context.stop();
+                contextStarted = false;
+            }
+        }
+    }
+
+    private boolean isContextTarget(String target) {
+        return target.equals(contextPath) || target.startsWith(contextPath + "/");
+    }
+
+    private void startContext() throws ServletException {
+        if (contextStarted) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!contextStarted) {
+                try {
+                    context.start();
+                }
+                catch (Exception e) {
+                    throw new ServletException("Cannot start the context: " + contextPath, e);
+                }
+                contextStarted = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.core.WireMockApp;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.jetty9.JettyHttpServer;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+
+/**
+ * Creates a Jetty server that starts the admin context, which serves the
+ * admin API and the admin UI, when the server receives its first admin
+ * request. The context that serves the stubbed responses is started
+ * together with the server.
+ */
+class FastStartHttpServerFactory implements HttpServerFactory {
+
+    @Override
+    public HttpServer buildHttpServer(Options options,
+                                      AdminRequestHandler adminRequestHandler,
+                                      StubRequestHandler stubRequestHandler) {
+        return new JettyHttpServer(options, adminRequestHandler, stubRequestHandler) {
+
+            @Override
+            protected HandlerCollection createHandler(Options options,
+                                                      AdminRequestHandler adminRequestHandler,
+                                                      StubRequestHandler stubRequestHandler) {
+                HandlerCollection handlers = super.createHandler(options, adminRequestHandler, stubRequestHandler);
+
+                Handler[] children = handlers.getHandlers().clone();
+                for (int index = 0; index < children.length; index++) {
+                    if (isAdminContext(children[index])) {
+                        children[index] = new DeferredStartHandler((ContextHandler) children[index]);
+                    }
+                }
+                handlers.setHandlers(children);
+                return handlers;
+            }
+        };
+    }
+
+    private static boolean isAdminContext(Handler handler) {
+        return handler instanceof ContextHandler
+                && WireMockApp.ADMIN_CONTEXT_ROOT.equals(((ContextHandler) handler).getContextPath());
+    }
+}
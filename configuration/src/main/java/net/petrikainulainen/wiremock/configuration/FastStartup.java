@@ -0,0 +1,84 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.standalone.MappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Configures a WireMock server to start as fast as possible. This is
+ * useful when the tests start a new server before every test method.
+ * The fast startup mode makes the following changes:
+ *
+ * <ul>
+ *     <li>The admin context, which serves the admin API and the admin UI,
+ *     is started when the server receives its first admin request.</li>
+ *     <li>The server doesn't scan the mappings directory of its file
+ *     root. If we want to load default stubs, we must compile them into
+ *     a {@link StubMappingSnapshot} and pass the snapshot file to this
+ *     class. If we don't pass a snapshot file, the server doesn't parse
+ *     JSON documents before it receives its first admin request.</li>
+ * </ul>
+ *
+ * The files of the <code>__files</code> directory are read when they are
+ * requested, and the extensions are created together with the
+ * configuration. This mode replaces the HTTP server factory and the
+ * mappings source of the configuration.
+ */
+public final class FastStartup {
+
+    private static final MappingsSource NO_MAPPINGS = new MappingsSource() {
+
+        @Override
+        public void loadMappingsInto(StubMappings stubMappings) {
+            //The server has no default stubs.
+        }
+
+        @Override
+        public void save(List<StubMapping> stubMappings) {
+            throw new UnsupportedOperationException("Cannot save stubs in the fast startup mode");
+        }
+
+        @Override
+        public void save(StubMapping stubMapping) {
+            throw new UnsupportedOperationException("Cannot save stubs in the fast startup mode");
+        }
+
+        @Override
+        public void remove(StubMapping stubMapping) {
+            //The server has no default stubs.
+        }
+
+        @Override
+        public void removeAll() {
+            //The server has no default stubs.
+        }
+    };
+
+    private FastStartup() {}
+
+    /**
+     * Enables the fast startup mode without default stubs and returns the
+     * modified configuration.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        return enable(options, NO_MAPPINGS);
+    }
+
+    /**
+     * Enables the fast startup mode, loads the default stubs from the given
+     * snapshot file, and returns the modified configuration.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options, Path snapshotFile) {
+        return enable(options, new SnapshotMappingsSource(snapshotFile));
+    }
+
+    private static WireMockConfiguration enable(WireMockConfiguration options, MappingsSource mappingsSource) {
+        return options
+                .httpServerFactory(new FastStartHttpServerFactory())
+                .mappingSource(mappingsSource);
+    }
+}
@@ -0,0 +1,60 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+
+/**
+ * Creates a server that speaks cleartext HTTP/2 (h2c) in addition to
+ * HTTP/1.1. The Jetty version that is used by WireMock doesn't support
+ * HTTP/2, and that's why the server is implemented by using Netty.
+ *
+ * We can enable this mode by passing a new factory to the
+ * <code>httpServerFactory()</code> method of the WireMock configuration.
+ * The maximum number of concurrent streams is sent to the clients when
+ * they open a new HTTP/2 connection. HTTPS isn't supported.
+ *
+ * The Netty server doesn't support every feature of the Jetty server:
+ *
+ * <ul>
+ *     <li>The body of a request, including a chunked body, is aggregated
+ *     in memory before WireMock handles the request. A body that is larger
+ *     than 64 MB is rejected with the status code 413.</li>
+ *     <li>Multipart requests aren't parsed. That's why a stub that has
+ *     multipart matchers doesn't match any request.</li>
+ *     <li>The responses are created as HTTP/1.1 responses. An HTTP/2 stream
+ *     translates them to HTTP/2 frames, but an HTTP/1.0 client gets an
+ *     HTTP/1.1 status line.</li>
+ *     <li>A response is written in one piece, so the chunked dribble delay
+ *     of a response is ignored.</li>
+ *     <li>The type of a fault is ignored. Every fault closes the connection
+ *     without writing a response, and a fault of an HTTP/2 request resets
+ *     its stream.</li>
+ * </ul>
+ */
+public class Http2CleartextHttpServerFactory implements HttpServerFactory {
+
+    public static final long DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
+    private final long maxConcurrentStreams;
+
+    public Http2CleartextHttpServerFactory() {
+        this(DEFAULT_MAX_CONCURRENT_STREAMS);
+    }
+
+    public Http2CleartextHttpServerFactory(long maxConcurrentStreams) {
+        if (maxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent streams must be positive");
+        }
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    @Override
+    public HttpServer buildHttpServer(Options options,
+                                      AdminRequestHandler adminRequestHandler,
+                                      StubRequestHandler stubRequestHandler) {
+        return new NettyHttpServer(options, adminRequestHandler, stubRequestHandler, maxConcurrentStreams);
+    }
+}
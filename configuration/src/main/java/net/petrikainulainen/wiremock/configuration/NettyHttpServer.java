@@ -0,0 +1,199 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.AsciiString;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+/**
+ * A Netty server that speaks HTTP/1.1 and cleartext HTTP/2 on the same
+ * port. A client can start an HTTP/2 connection by sending the HTTP/2
+ * connection preface (prior knowledge) or by upgrading an HTTP/1.1
+ * connection. Other clients use HTTP/1.1.
+ *
+ * The requests are handled by the threads of the thread pool that is
+ * created by the thread pool factory of the WireMock configuration. The
+ * body of a request is aggregated in memory before the request is handled,
+ * and a body that is larger than {@link #MAX_CONTENT_LENGTH} bytes is
+ * rejected.
+ */
+final class NettyHttpServer implements HttpServer {
+
+    private static final int MAX_CONTENT_LENGTH = 64 * 1024 * 1024;
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final Options options;
+    private final AdminRequestHandler adminRequestHandler;
+    private final StubRequestHandler stubRequestHandler;
+    private final long maxConcurrentStreams;
+
+    private ThreadPool threadPool;
+    private EventLoopGroup acceptorGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+
+    NettyHttpServer(Options options,
+                    AdminRequestHandler adminRequestHandler,
+                    StubRequestHandler stubRequestHandler,
+                    long maxConcurrentStreams) {
+        if (options.httpsSettings().enabled()) {
+            throw new IllegalArgumentException("HTTPS is not supported when cleartext HTTP/2 is enabled");
+        }
+        this.options = options;
+        this.adminRequestHandler = adminRequestHandler;
+        this.stubRequestHandler = stubRequestHandler;
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    @Override
+    public void start() {
+        try {
+            threadPool = options.threadPoolFactory().buildThreadPool(options);
+            if (threadPool instanceof LifeCycle) {
+                ((LifeCycle) threadPool).start();
+            }
+
+            NettyRequestDispatcher dispatcher = new NettyRequestDispatcher(adminRequestHandler,
+                    stubRequestHandler,
+                    threadPool,
+                    options.notifier()
+            );
+
+            acceptorGroup = new NioEventLoopGroup(1);
+            workerGroup = new NioEventLoopGroup();
+            ServerBootstrap bootstrap = new ServerBootstrap()
+                    .group(acceptorGroup, workerGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel channel) {
+                            configurePipeline(channel.pipeline(), dispatcher);
+                        }
+                    });
+            if (options.jettySettings().getAcceptQueueSize().isPresent()) {
+                bootstrap.option(ChannelOption.SO_BACKLOG, options.jettySettings().getAcceptQueueSize().get());
+            }
+
+            serverChannel = bootstrap.bind(options.bindAddress(), options.portNumber()).sync().channel();
+        }
+        catch (Exception e) {
+            stop();
+            throwUnchecked(e);
+        }
+    }
+
+    /**
+     * Configures the pipeline of a new connection. If the client sends the
+     * HTTP/2 connection preface or upgrades the connection to HTTP/2, the
+     * HTTP/1.1 handlers are replaced with the HTTP/2 handlers, and every
+     * stream gets its own channel whose requests are passed to the dispatcher.
+     */
+    private void configurePipeline(ChannelPipeline pipeline, NettyRequestDispatcher dispatcher) {
+        HttpServerCodec http1Codec = new HttpServerCodec();
+        HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(http1Codec,
+                protocol -> AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+                        ? new Http2ServerUpgradeCodec(createHttp2FrameCodec(), createHttp2MultiplexHandler(dispatcher))
+                        : null,
+                MAX_CONTENT_LENGTH
+        );
+        ChannelHandler priorKnowledgeHandler = new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) {
+                channel.pipeline().addLast(createHttp2FrameCodec(), createHttp2MultiplexHandler(dispatcher));
+            }
+        };
+
+        pipeline.addLast(new CleartextHttp2ServerUpgradeHandler(http1Codec, upgradeHandler, priorKnowledgeHandler));
+        pipeline.addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+        pipeline.addLast(dispatcher);
+    }
+
+    private Http2FrameCodec createHttp2FrameCodec() {
+        return Http2FrameCodecBuilder.forServer()
+                .initialSettings(Http2Settings.defaultSettings().maxConcurrentStreams(maxConcurrentStreams))
+                .build();
+    }
+
+    private static Http2MultiplexHandler createHttp2MultiplexHandler(NettyRequestDispatcher dispatcher) {
+        return new Http2MultiplexHandler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel stream) {
+                stream.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(true),
+                        new HttpObjectAggregator(MAX_CONTENT_LENGTH),
+                        dispatcher
+                );
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (serverChannel != null) {
+                serverChannel.close().sync();
+            }
+            if (acceptorGroup != null) {
+                acceptorGroup.shutdownGracefully(0, STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS).sync();
+            }
+            if (workerGroup != null) {
+                workerGroup.shutdownGracefully(0, STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS).sync();
+            }
+            if (threadPool instanceof LifeCycle) {
+                ((LifeCycle) threadPool).stop();
+            }
+        }
+        catch (Exception e) {
+            throwUnchecked(e);
+        }
+        finally {
+            serverChannel = null;
+            acceptorGroup = null;
+            workerGroup = null;
+            threadPool = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null && serverChannel.isActive();
+    }
+
+    @Override
+    public int port() {
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    @Override
+    public int httpsPort() {
+        return -1;
+    }
+}
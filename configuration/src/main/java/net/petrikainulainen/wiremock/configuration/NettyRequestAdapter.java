@@ -0,0 +1,212 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.common.Encoding;
+import com.github.tomakehurst.wiremock.common.Strings;
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.google.common.base.Optional;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adapts a Netty HTTP request to the request interface of WireMock. The
+ * content of the request is copied when the adapter is created because
+ * WireMock can read the request after Netty has released its buffers.
+ *
+ * Multipart requests aren't parsed, and that's why the parts of a
+ * request cannot be matched when the server speaks HTTP/2.
+ */
+final class NettyRequestAdapter implements Request {
+
+    private static final String SCHEME = "http";
+    private static final String HTTP2_EXTENSION_HEADER_PREFIX = "x-http2-";
+
+    private final String url;
+    private final RequestMethod method;
+    private final String clientIp;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    private Map<String, QueryParameter> queryParameters;
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param urlPrefixToRemove The prefix that is removed from the URL of the
+     *                          request before it is passed to WireMock.
+     */
+    NettyRequestAdapter(FullHttpRequest request, InetSocketAddress clientAddress, String urlPrefixToRemove) {
+        String uri = request.uri();
+        this.url = urlPrefixToRemove != null && uri.startsWith(urlPrefixToRemove)
+                ? uri.substring(urlPrefixToRemove.length())
+                : uri;
+        this.method = RequestMethod.fromString(request.method().name());
+        this.clientIp = clientAddress.getAddress().getHostAddress();
+        this.headers = copyHeaders(request.headers());
+        this.body = ByteBufUtil.getBytes(request.content());
+    }
+
+    /**
+     * Copies the HTTP headers of the request. The extension headers that Netty
+     * adds to an HTTP/2 request aren't sent by the client, and that's why
+     * they are ignored.
+     */
+    private static HttpHeaders copyHeaders(io.netty.handler.codec.http.HttpHeaders nettyHeaders) {
+        List<HttpHeader> headers = new ArrayList<>();
+        for (String name : nettyHeaders.names()) {
+            if (!name.toLowerCase(Locale.ENGLISH).startsWith(HTTP2_EXTENSION_HEADER_PREFIX)) {
+                headers.add(new HttpHeader(name, nettyHeaders.getAll(name)));
+            }
+        }
+        return new HttpHeaders(headers);
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String getAbsoluteUrl() {
+        return String.format("%s://%s%s", SCHEME, getHeader(HttpHeaderNames.HOST.toString()), url);
+    }
+
+    @Override
+    public RequestMethod getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    @Override
+    public String getHeader(String key) {
+        HttpHeader header = header(key);
+        return header.isPresent() ? header.firstValue() : null;
+    }
+
+    @Override
+    public HttpHeader header(String key) {
+        return headers.getHeader(key);
+    }
+
+    @Override
+    public ContentTypeHeader contentTypeHeader() {
+        return headers.getContentTypeHeader();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public boolean containsHeader(String key) {
+        return header(key).isPresent();
+    }
+
+    @Override
+    public Set<String> getAllHeaderKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (HttpHeader header : headers.all()) {
+            keys.add(header.key());
+        }
+        return keys;
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+        HttpHeader cookieHeader = header(HttpHeaderNames.COOKIE.toString());
+        if (!cookieHeader.isPresent()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        for (String header : cookieHeader.values()) {
+            for (io.netty.handler.codec.http.cookie.Cookie cookie : ServerCookieDecoder.LAX.decode(header)) {
+                values.computeIfAbsent(cookie.name(), name -> new ArrayList<>()).add(cookie.value());
+            }
+        }
+
+        Map<String, Cookie> cookies = new LinkedHashMap<>();
+        values.forEach((name, cookieValues) -> cookies.put(name, new Cookie(cookieValues)));
+        return cookies;
+    }
+
+    @Override
+    public QueryParameter queryParameter(String key) {
+        if (queryParameters == null) {
+            int queryStart = url.indexOf('?');
+            queryParameters = Urls.splitQuery(queryStart == -1 ? null : url.substring(queryStart + 1));
+        }
+        QueryParameter parameter = queryParameters.get(key);
+        return parameter == null ? QueryParameter.absent(key) : parameter;
+    }
+
+    @Override
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public String getBodyAsString() {
+        return Strings.stringFromBytes(body, contentTypeHeader().charset());
+    }
+
+    @Override
+    public String getBodyAsBase64() {
+        return Encoding.encodeBase64(body);
+    }
+
+    //Multipart requests aren't parsed, so multipart matchers never match.
+    @Override
+    public boolean isMultipart() {
+        return false;
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        return null;
+    }
+
+    @Override
+    public Part getPart(String name) {
+        return null;
+    }
+
+    @Override
+    public boolean isBrowserProxyRequest() {
+        return false;
+    }
+
+    @Override
+    public Optional<Request> getOriginalRequest() {
+        return Optional.absent();
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
@@ -0,0 +1,188 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.common.Notifier;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestHandler;
+import com.github.tomakehurst.wiremock.http.Response;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes the HTTP requests to the request handlers of WireMock and writes
+ * the responses of WireMock to the client. The same dispatcher is used for
+ * HTTP/1.1 connections and HTTP/2 streams.
+ *
+ * Because WireMock handles the requests by using blocking code, the request
+ * handlers are run on the server thread pool. The delays of the responses
+ * are scheduled on the event loop, and a delayed response doesn't hold a
+ * thread while it waits.
+ *
+ * A channel handles one request at a time. The HTTP codec can pass
+ * pipelined HTTP/1.1 requests to the dispatcher before the response of
+ * the current request has been written, and that's why the requests of
+ * a channel are queued and the next request is handled after the response
+ * of the previous request has been written. This keeps the responses of
+ * pipelined requests in order. HTTP/2 streams are handled concurrently
+ * because every stream has its own channel.
+ */
+@ChannelHandler.Sharable
+final class NettyRequestDispatcher extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final String ADMIN_CONTEXT_PATH = "/__admin";
+    private static final AttributeKey<Queue<Runnable>> PENDING_REQUESTS =
+            AttributeKey.valueOf(NettyRequestDispatcher.class, "pendingRequests");
+
+    private final RequestHandler adminRequestHandler;
+    private final RequestHandler stubRequestHandler;
+    private final Executor executor;
+    private final Notifier notifier;
+
+    NettyRequestDispatcher(RequestHandler adminRequestHandler,
+                           RequestHandler stubRequestHandler,
+                           Executor executor,
+                           Notifier notifier) {
+        this.adminRequestHandler = adminRequestHandler;
+        this.stubRequestHandler = stubRequestHandler;
+        this.executor = executor;
+        this.notifier = notifier;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        boolean adminRequest = isAdminRequest(request.uri());
+        Request wireMockRequest = new NettyRequestAdapter(request,
+                (InetSocketAddress) ctx.channel().remoteAddress(),
+                adminRequest ? ADMIN_CONTEXT_PATH : null
+        );
+        RequestHandler handler = adminRequest ? adminRequestHandler : stubRequestHandler;
+        boolean keepAlive = HttpUtil.isKeepAlive(request);
+        boolean head = HttpMethod.HEAD.equals(request.method());
+
+        Runnable handleRequest = () -> executor.execute(() -> {
+            try {
+                handler.handle(wireMockRequest, (served, response) -> respond(ctx, response, keepAlive, head));
+            }
+            catch (RuntimeException e) {
+                notifier.error("Cannot handle the request: " + wireMockRequest, e);
+                ctx.channel().close();
+            }
+        });
+
+        //The queue is used only by the event loop of the channel, so it doesn't have to be thread-safe.
+        Queue<Runnable> pendingRequests = pendingRequestsOf(ctx);
+        pendingRequests.add(handleRequest);
+        ctx.channel().config().setAutoRead(false);
+        if (pendingRequests.size() == 1) {
+            handleRequest.run();
+        }
+    }
+
+    private static Queue<Runnable> pendingRequestsOf(ChannelHandlerContext ctx) {
+        Attribute<Queue<Runnable>> attribute = ctx.channel().attr(PENDING_REQUESTS);
+        Queue<Runnable> pendingRequests = attribute.get();
+        if (pendingRequests == null) {
+            pendingRequests = new ArrayDeque<>();
+            attribute.set(pendingRequests);
+        }
+        return pendingRequests;
+    }
+
+    /**
+     * Removes the request whose response has been written and handles the
+     * next pending request. If no request is pending, the channel starts
+     * reading again.
+     */
+    private static void handleNextRequest(ChannelHandlerContext ctx) {
+        Queue<Runnable> pendingRequests = pendingRequestsOf(ctx);
+        pendingRequests.poll();
+        Runnable next = pendingRequests.peek();
+        if (next != null) {
+            next.run();
+        }
+        else {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    private static boolean isAdminRequest(String uri) {
+        return uri.equals(ADMIN_CONTEXT_PATH) || uri.startsWith(ADMIN_CONTEXT_PATH + "/");
+    }
+
+    private void respond(ChannelHandlerContext ctx, Response response, boolean keepAlive, boolean head) {
+        if (response.getFault() != null) {
+            //Every fault closes the connection. If the request was sent over HTTP/2, only its stream is reset.
+            ctx.channel().close();
+            return;
+        }
+
+        FullHttpResponse httpResponse = createHttpResponse(response, head);
+        long delay = response.getInitialDelay();
+        if (delay > 0) {
+            ctx.executor().schedule(() -> write(ctx, httpResponse, keepAlive), delay, TimeUnit.MILLISECONDS);
+        }
+        else {
+            write(ctx, httpResponse, keepAlive);
+        }
+    }
+
+    /**
+     * Creates the response that is written to the client. Because the
+     * responses are written in one piece, the chunked dribble delay of
+     * a response is ignored. The response is always an HTTP/1.1 response.
+     * The codec of an HTTP/2 stream ignores the version when it translates
+     * the response to HTTP/2 frames.
+     */
+    private static FullHttpResponse createHttpResponse(Response response, boolean head) {
+        HttpResponseStatus status = response.getStatusMessage() == null
+                ? HttpResponseStatus.valueOf(response.getStatus())
+                : new HttpResponseStatus(response.getStatus(), response.getStatusMessage());
+
+        byte[] body = response.getBody();
+        FullHttpResponse httpResponse = new DefaultFullHttpResponse(
+                HttpVersion.HTTP_1_1,
+                status,
+                head || body == null ? Unpooled.EMPTY_BUFFER : Unpooled.wrappedBuffer(body)
+        );
+
+        for (HttpHeader header : response.getHeaders().all()) {
+            httpResponse.headers().add(header.key(), header.values());
+        }
+        if (!httpResponse.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
+            HttpUtil.setContentLength(httpResponse, body == null ? 0 : body.length);
+        }
+        return httpResponse;
+    }
+
+    private static void write(ChannelHandlerContext ctx, FullHttpResponse httpResponse, boolean keepAlive) {
+        ctx.writeAndFlush(httpResponse).addListener(keepAlive
+                ? (ChannelFutureListener) future -> handleNextRequest(ctx)
+                : ChannelFutureListener.CLOSE
+        );
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        notifier.error("Cannot process the request", cause);
+        ctx.close();
+    }
+}
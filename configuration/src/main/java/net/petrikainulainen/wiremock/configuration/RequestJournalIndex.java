@@ -0,0 +1,204 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.client.BasicCredentials;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.EqualToPattern;
+import com.github.tomakehurst.wiremock.matching.MultiValuePattern;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the sequence numbers of journaled requests by their HTTP method,
+ * URL path, and the values of selected headers. When we look up the
+ * requests that might match a request pattern, we use the exact-value
+ * constraints of the pattern and return the intersection of the matching
+ * index entries. The returned requests must still be matched with the
+ * request pattern because the index ignores all other constraints.
+ */
+final class RequestJournalIndex {
+
+    private static final String AUTHORIZATION = "authorization";
+
+    private final Set<String> indexedHeaders;
+    private final Map<String, Set<Long>> sequencesByKey = new ConcurrentHashMap<>();
+
+    RequestJournalIndex(Collection<String> indexedHeaders) {
+        Set<String> headers = new TreeSet<>();
+        for (String header : indexedHeaders) {
+            headers.add(header.toLowerCase(Locale.ROOT));
+        }
+        this.indexedHeaders = Collections.unmodifiableSet(headers);
+    }
+
+    /**
+     * Returns the index keys of the request. The keys are stored together
+     * with the journal entry so that we can remove the entry from the index
+     * when the journal overwrites it.
+     */
+    List<String> keysOf(LoggedRequest request) {
+        List<String> keys = new ArrayList<>();
+        keys.add(methodKey(request.getMethod()));
+        keys.add(pathKey(pathOf(request.getUrl())));
+
+        for (String header : indexedHeaders) {
+            HttpHeader values = request.getHeaders().getHeader(header);
+            if (values.isPresent()) {
+                for (String value : values.values()) {
+                    keys.add(headerKey(header, value));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the sequence number to the index entries of the keys. The
+     * entries are updated with {@link ConcurrentHashMap#compute}, which
+     * locks the bin of the key. Concurrent updates of the same key wait
+     * for each other, and updates of different keys usually don't.
+     */
+    void add(long sequence, List<String> keys) {
+        for (String key : keys) {
+            sequencesByKey.compute(key, (ignored, sequences) -> {
+                Set<Long> updated = sequences == null ? ConcurrentHashMap.newKeySet() : sequences;
+                updated.add(sequence);
+                return updated;
+            });
+        }
+    }
+
+    void remove(long sequence, List<String> keys) {
+        for (String key : keys) {
+            sequencesByKey.computeIfPresent(key, (ignored, sequences) -> {
+                sequences.remove(sequence);
+                return sequences.isEmpty() ? null : sequences;
+            });
+        }
+    }
+
+    /**
+     * Returns the sequence numbers of the requests that might match the
+     * request pattern in ascending order, or <code>null</code> if the
+     * request pattern has no constraint that can be looked up from the index.
+     */
+    TreeSet<Long> findCandidates(RequestPattern pattern) {
+        List<String> keys = lookupKeysOf(pattern);
+        if (keys.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> smallest = null;
+        List<Set<Long>> others = new ArrayList<>();
+        for (String key : keys) {
+            Set<Long> sequences = sequencesByKey.getOrDefault(key, Collections.emptySet());
+            if (smallest == null || sequences.size() < smallest.size()) {
+                if (smallest != null) {
+                    others.add(smallest);
+                }
+                smallest = sequences;
+            }
+            else {
+                others.add(sequences);
+            }
+        }
+
+        TreeSet<Long> candidates = new TreeSet<>();
+        for (Long sequence : smallest) {
+            if (containedByAll(sequence, others)) {
+                candidates.add(sequence);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean containedByAll(Long sequence, List<Set<Long>> sets) {
+        for (Set<Long> set : sets) {
+            if (!set.contains(sequence)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> lookupKeysOf(RequestPattern pattern) {
+        List<String> keys = new ArrayList<>();
+
+        RequestMethod method = pattern.getMethod();
+        if (method != null && !RequestMethod.ANY.equals(method)) {
+            keys.add(methodKey(method));
+        }
+
+        if (pattern.getUrl() != null) {
+            keys.add(pathKey(pathOf(pattern.getUrl())));
+        }
+        else if (pattern.getUrlPath() != null) {
+            keys.add(pathKey(pattern.getUrlPath()));
+        }
+
+        if (pattern.getHeaders() != null) {
+            for (Map.Entry<String, MultiValuePattern> header : pattern.getHeaders().entrySet()) {
+                addHeaderKey(header.getKey(), header.getValue(), keys);
+            }
+        }
+
+        BasicCredentials credentials = pattern.getBasicAuthCredentials();
+        if (credentials != null && indexedHeaders.contains(AUTHORIZATION)) {
+            keys.add(headerKey(AUTHORIZATION, credentials.asAuthorizationHeaderValue()));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Only case-sensitive <code>equalTo()</code> constraints can be looked up
+     * from the index.
+     */
+    private void addHeaderKey(String name, MultiValuePattern valuePattern, List<String> keys) {
+        String header = name.toLowerCase(Locale.ROOT);
+        StringValuePattern pattern = valuePattern.getValuePattern();
+        if (indexedHeaders.contains(header) &&
+                pattern instanceof EqualToPattern &&
+                !Boolean.TRUE.equals(((EqualToPattern) pattern).getCaseInsensitive())) {
+            keys.add(headerKey(header, ((EqualToPattern) pattern).getEqualTo()));
+        }
+    }
+
+    private static String methodKey(RequestMethod method) {
+        return "method " + method.getName();
+    }
+
+    private static String pathKey(String path) {
+        return "path " + path;
+    }
+
+    private static String headerKey(String header, String value) {
+        return "header " + header + ": " + value;
+    }
+
+    /**
+     * Returns the URL path in the same form as WireMock's
+     * <code>urlPathEqualTo()</code> matcher compares it.
+     */
+    private static String pathOf(String url) {
+        try {
+            return URI.create(url).getRawPath();
+        }
+        catch (IllegalArgumentException e) {
+            int queryStart = url.indexOf('?');
+            return queryStart < 0 ? url : url.substring(0, queryStart);
+        }
+    }
+}
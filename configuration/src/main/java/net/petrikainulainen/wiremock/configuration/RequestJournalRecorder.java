@@ -0,0 +1,42 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.RequestJournal;
+
+/**
+ * Records every request that is served by WireMock in the given request
+ * journal. We can replace WireMock's own journal by disabling it and
+ * registering this extension:
+ *
+ * <pre>
+ * options()
+ *     .disableRequestJournal()
+ *     .extensions(new RequestJournalRecorder(journal))
+ * </pre>
+ *
+ * WireMock invokes this extension after it has sent the response. That's
+ * why a client that reuses its connection can receive the response before
+ * the request has been recorded.
+ */
+public class RequestJournalRecorder extends PostServeAction {
+
+    public static final String NAME = "request-journal-recorder";
+
+    private final RequestJournal journal;
+
+    public RequestJournalRecorder(RequestJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void doGlobalAction(ServeEvent serveEvent, Admin admin) {
+        journal.requestReceived(serveEvent);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
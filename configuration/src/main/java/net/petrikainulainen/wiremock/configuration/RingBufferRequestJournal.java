@@ -0,0 +1,414 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.verification.RequestJournal;
+import com.google.common.base.Optional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A request journal that stores the serialized requests in a fixed-size
+ * ring buffer that is allocated outside the heap. The journal retains the
+ * newest requests that fit into its limits:
+ *
+ * <ul>
+ *     <li>The maximum number of requests.</li>
+ *     <li>The maximum number of bytes that are used by the serialized requests.</li>
+ *     <li>The maximum age of a request.</li>
+ * </ul>
+ *
+ * Writers serialize the requests without a lock, but they reserve space
+ * from the ring buffer and copy the serialized requests into it one at a
+ * time. Otherwise a writer whose reservation was overwritten before it
+ * copied its request could overwrite a newer request after the newer
+ * request had been published. Readers don't take a lock. They detect
+ * requests that were overwritten while they were reading them.
+ *
+ * The journal indexes the retained requests by their HTTP method, URL path,
+ * and the values of the given headers. When a verification query has an
+ * exact-value constraint for one of these properties, the journal reads
+ * only the requests that are returned by the index instead of reading
+ * every retained request. The index isn't lock-free: a writer that adds
+ * or removes a request locks the bin of every index key of the request
+ * while it updates the key. This means that writers which log requests
+ * with the same method, path, or header value wait for each other.
+ *
+ * The journal doesn't store responses. The serve events returned by
+ * this journal contain the logged request and tell whether the request
+ * matched a stub.
+ *
+ * WireMock cannot be configured to use another journal. That's why
+ * the journal is fed by a {@link RequestJournalRecorder}, and we
+ * should disable WireMock's own journal.
+ */
+public class RingBufferRequestJournal implements RequestJournal {
+
+    private static final ObjectMapper JSON = Json.getObjectMapper();
+
+    private final int maxEntries;
+    private final int maxBytes;
+    private final long maxAgeMillis;
+    private final ByteBuffer storage;
+    private final AtomicReferenceArray<Entry> entries;
+    private final RequestJournalIndex index;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong writePosition = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile long firstRetainedSequence;
+
+    public RingBufferRequestJournal(int maxEntries,
+                                    int maxBytes,
+                                    long maxAge,
+                                    TimeUnit maxAgeUnit,
+                                    Collection<String> indexedHeaders) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of entries must be at least 1. Was: " + maxEntries);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The maximum number of bytes must be at least 1. Was: " + maxBytes);
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeUnit.toMillis(maxAge);
+        this.storage = ByteBuffer.allocateDirect(maxBytes);
+        this.entries = new AtomicReferenceArray<>(maxEntries);
+        this.index = new RequestJournalIndex(indexedHeaders);
+    }
+
+    public RingBufferRequestJournal(int maxEntries, int maxBytes, long maxAge, TimeUnit maxAgeUnit) {
+        this(maxEntries, maxBytes, maxAge, maxAgeUnit, Collections.emptyList());
+    }
+
+    public RingBufferRequestJournal(int maxEntries, int maxBytes) {
+        this(maxEntries, maxBytes, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores the request of the serve event. If the serialized request is
+     * larger than the ring buffer, the request is not stored.
+     */
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        LoggedRequest request = serveEvent.getRequest();
+        byte[] record = serialize(request);
+        if (record.length > maxBytes) {
+            return;
+        }
+
+        long sequence = nextSequence.getAndIncrement();
+        long position;
+        synchronized (writeLock) {
+            position = reserve(record.length);
+            ByteBuffer target = storage.duplicate();
+            //The cast keeps the Java 8 signature of position(int) when the class is compiled on a newer JDK.
+            ((Buffer) target).position(offsetOf(position));
+            target.put(record);
+        }
+
+        Entry entry = new Entry(sequence,
+                serveEvent.getId(),
+                serveEvent.getWasMatched(),
+                position,
+                record.length,
+                System.currentTimeMillis(),
+                index.keysOf(request)
+        );
+        index.add(sequence, entry.indexKeys);
+        publish(entry);
+    }
+
+    /**
+     * Reserves space for a record. A record is never split between the end
+     * and the beginning of the ring buffer. If the record doesn't fit into the
+     * end of the ring buffer, the remaining bytes are skipped. The write
+     * position is advanced before the record is copied, so that readers
+     * of the overwritten records can detect that they were overwritten.
+     * Must be invoked while holding the write lock.
+     */
+    private long reserve(int length) {
+        long start = writePosition.get();
+        int offset = offsetOf(start);
+        long skipped = offset + length > maxBytes ? maxBytes - offset : 0;
+        long position = start + skipped;
+        writePosition.set(position + length);
+        return position;
+    }
+
+    /**
+     * Stores the entry in its slot unless a newer entry has already
+     * replaced the entry which is overwritten by it. The entry that is
+     * no longer stored in the slot is removed from the index.
+     */
+    private void publish(Entry entry) {
+        int slot = slotOf(entry.sequence);
+        while (true) {
+            Entry current = entries.get(slot);
+            if (current != null && current.sequence > entry.sequence) {
+                index.remove(entry.sequence, entry.indexKeys);
+                return;
+            }
+            if (entries.compareAndSet(slot, current, entry)) {
+                if (current != null) {
+                    index.remove(current.sequence, current.indexKeys);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        return retainedRequestsMatching(requestPattern).size();
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        List<LoggedRequest> requests = new ArrayList<>();
+        for (StoredRequest stored : retainedRequestsMatching(requestPattern)) {
+            requests.add(stored.request);
+        }
+        return requests;
+    }
+
+    /**
+     * Returns the retained serve events. The newest serve event is the first
+     * item of the returned list.
+     */
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        List<ServeEvent> serveEvents = new ArrayList<>();
+        for (StoredRequest stored : retainedRequests()) {
+            serveEvents.add(stored.toServeEvent());
+        }
+        Collections.reverse(serveEvents);
+        return serveEvents;
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        for (StoredRequest stored : retainedRequests()) {
+            if (stored.entry.id.equals(id)) {
+                return Optional.of(stored.toServeEvent());
+            }
+        }
+        return Optional.absent();
+    }
+
+    /**
+     * Forgets all requests that were stored before this method was invoked.
+     * The index entries of these requests are removed when the requests are
+     * overwritten.
+     */
+    @Override
+    public void reset() {
+        firstRetainedSequence = nextSequence.get();
+    }
+
+    /**
+     * Returns the number of requests that are retained at the moment.
+     */
+    public int size() {
+        return retainedRequests().size();
+    }
+
+    /**
+     * Returns the retained requests. The oldest request is the first
+     * item of the returned list.
+     */
+    List<StoredRequest> retainedRequests() {
+        RetentionWindow window = new RetentionWindow();
+
+        List<StoredRequest> retained = new ArrayList<>();
+        for (long sequence = window.firstSequence; sequence <= window.lastSequence; sequence++) {
+            StoredRequest stored = load(sequence, window);
+            if (stored != null) {
+                retained.add(stored);
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Returns the retained requests that match the request pattern. If the
+     * request pattern has a constraint that can be looked up from the index,
+     * this method reads only the requests that are returned by the index.
+     */
+    List<StoredRequest> retainedRequestsMatching(RequestPattern requestPattern) {
+        TreeSet<Long> candidates = index.findCandidates(requestPattern);
+        if (candidates == null) {
+            return filter(retainedRequests(), requestPattern);
+        }
+
+        RetentionWindow window = new RetentionWindow();
+        if (window.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<StoredRequest> matching = new ArrayList<>();
+        for (Long sequence : candidates.subSet(window.firstSequence, true, window.lastSequence, true)) {
+            StoredRequest stored = load(sequence, window);
+            if (stored != null && requestPattern.match(stored.request).isExactMatch()) {
+                matching.add(stored);
+            }
+        }
+        return matching;
+    }
+
+    private static List<StoredRequest> filter(List<StoredRequest> requests, RequestPattern requestPattern) {
+        List<StoredRequest> matching = new ArrayList<>();
+        for (StoredRequest stored : requests) {
+            if (requestPattern.match(stored.request).isExactMatch()) {
+                matching.add(stored);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Returns the request that has the given sequence number, or <code>null</code>
+     * if the request is not retained.
+     */
+    private StoredRequest load(long sequence, RetentionWindow window) {
+        Entry entry = entries.get(slotOf(sequence));
+        if (entry == null || entry.sequence != sequence || entry.receivedMillis < window.oldestReceivedMillis) {
+            return null;
+        }
+
+        byte[] record = read(entry);
+        return record == null ? null : new StoredRequest(entry, deserialize(record));
+    }
+
+    /**
+     * Returns the record of the entry, or <code>null</code> if the record
+     * has been overwritten by newer records.
+     */
+    private byte[] read(Entry entry) {
+        if (isOverwritten(entry)) {
+            return null;
+        }
+
+        byte[] record = new byte[entry.length];
+        ByteBuffer source = storage.duplicate();
+        ((Buffer) source).position(offsetOf(entry.position));
+        source.get(record);
+
+        //A writer might have reserved the space of the record while we were reading it.
+        return isOverwritten(entry) ? null : record;
+    }
+
+    private boolean isOverwritten(Entry entry) {
+        return writePosition.get() - entry.position > maxBytes;
+    }
+
+    private int offsetOf(long position) {
+        return (int) (position % maxBytes);
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % maxEntries);
+    }
+
+    private static byte[] serialize(LoggedRequest request) {
+        try {
+            return JSON.writeValueAsBytes(request);
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LoggedRequest deserialize(byte[] record) {
+        try {
+            return JSON.readValue(record, LoggedRequest.class);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Describes where the serialized request is stored. The entries are
+     * stored on the heap, but their number is limited by the maximum
+     * number of retained requests.
+     */
+    static final class Entry {
+
+        final long sequence;
+        final UUID id;
+        final boolean matched;
+        final long position;
+        final int length;
+        final long receivedMillis;
+        final List<String> indexKeys;
+
+        private Entry(long sequence,
+                      UUID id,
+                      boolean matched,
+                      long position,
+                      int length,
+                      long receivedMillis,
+                      List<String> indexKeys) {
+            this.sequence = sequence;
+            this.id = id;
+            this.matched = matched;
+            this.position = position;
+            this.length = length;
+            this.receivedMillis = receivedMillis;
+            this.indexKeys = indexKeys;
+        }
+    }
+
+    /**
+     * The sequence numbers and the receive time of the requests that
+     * can be retained when a query is started.
+     */
+    private final class RetentionWindow {
+
+        private final long lastSequence = nextSequence.get() - 1;
+        private final long firstSequence = Math.max(firstRetainedSequence, lastSequence - maxEntries + 1);
+        private final long oldestReceivedMillis = maxAgeMillis == Long.MAX_VALUE
+                ? Long.MIN_VALUE
+                : System.currentTimeMillis() - maxAgeMillis;
+
+        private boolean isEmpty() {
+            return firstSequence > lastSequence;
+        }
+    }
+
+    static final class StoredRequest {
+
+        final Entry entry;
+        final LoggedRequest request;
+
+        private StoredRequest(Entry entry, LoggedRequest request) {
+            this.entry = entry;
+            this.request = request;
+        }
+
+        private ServeEvent toServeEvent() {
+            ResponseDefinition responseDefinition = entry.matched
+                    ? new ResponseDefinition()
+                    : ResponseDefinition.notConfigured();
+            return new ServeEvent(entry.id, request, null, responseDefinition, null, false);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.standalone.MappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Loads the default stubs of a WireMock server from a
+ * {@link StubMappingSnapshot} instead of scanning the mappings directory.
+ * WireMock loads the default stubs when the server is created and every
+ * time the server is reset.
+ *
+ * The snapshot is read-only. That's why this source cannot save stubs,
+ * and removing a stub from the server doesn't remove it from the snapshot.
+ */
+public class SnapshotMappingsSource implements MappingsSource {
+
+    private final Path snapshotFile;
+
+    public SnapshotMappingsSource(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    @Override
+    public void loadMappingsInto(StubMappings stubMappings) {
+        for (StubMapping mapping : StubMappingSnapshot.read(snapshotFile)) {
+            stubMappings.addMapping(mapping);
+        }
+    }
+
+    @Override
+    public void save(List<StubMapping> stubMappings) {
+        throw new UnsupportedOperationException("Cannot save stubs to a read-only snapshot: " + snapshotFile);
+    }
+
+    @Override
+    public void save(StubMapping stubMapping) {
+        throw new UnsupportedOperationException("Cannot save stubs to a read-only snapshot: " + snapshotFile);
+    }
+
+    @Override
+    public void remove(StubMapping stubMapping) {
+        //The snapshot is read-only.
+    }
+
+    @Override
+    public void removeAll() {
+        //The snapshot is read-only.
+    }
+}
@@ -0,0 +1,130 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.standalone.JsonFileMappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.Lists;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes stub mapping snapshots. A snapshot is one binary file
+ * that contains the stubs of a mappings directory in the order in which
+ * WireMock registered them. Loading a snapshot requires one sequential
+ * read instead of listing the mappings directory and reading every
+ * mapping file separately.
+ *
+ * A snapshot starts with a header which contains a magic number, the
+ * version of the format, and the number of stubs. The header is followed
+ * by the stubs. Every stub is written as a length-prefixed compact JSON
+ * document, because WireMock can create stubs only by using Jackson.
+ *
+ * We can compile the snapshot of a mappings directory when the project
+ * is built by running the main method of this class:
+ *
+ * <pre>
+ * java net.petrikainulainen.wiremock.configuration.StubMappingSnapshot src/test/resources/mappings target/mappings.snapshot
+ * </pre>
+ */
+public final class StubMappingSnapshot {
+
+    private static final int MAGIC = 0x574d5353;
+    private static final int VERSION = 1;
+
+    private StubMappingSnapshot() {}
+
+    /**
+     * Compiles the snapshot of the JSON mapping files that are found from
+     * the given directory and writes it to the given file.
+     *
+     * @return  the number of stubs that were written to the snapshot.
+     */
+    public static int compile(Path mappingsDirectory, Path snapshotFile) {
+        if (!Files.isDirectory(mappingsDirectory)) {
+            throw new IllegalArgumentException("The mappings directory doesn't exist: " + mappingsDirectory);
+        }
+
+        //WireMock reads the mapping files, and that's why the snapshot
+        //contains the same stubs as the mappings directory.
+        InMemoryStubMappings stubMappings = new InMemoryStubMappings();
+        new JsonFileMappingsSource(new SingleRootFileSource(mappingsDirectory.toFile())).loadMappingsInto(stubMappings);
+
+        //The newest stub is returned first, but it must be registered last.
+        List<StubMapping> mappings = Lists.reverse(stubMappings.getAll());
+        write(mappings, snapshotFile);
+        return mappings.size();
+    }
+
+    /**
+     * Writes the given stubs to the snapshot file. The stubs are registered
+     * in the same order when the snapshot is read.
+     */
+    public static void write(List<StubMapping> mappings, Path snapshotFile) {
+        ObjectWriter writer = Json.getObjectMapper().writerFor(StubMapping.class);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshotFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(mappings.size());
+            for (StubMapping mapping : mappings) {
+                byte[] json = writer.writeValueAsBytes(mapping);
+                out.writeInt(json.length);
+                out.write(json);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the stub mapping snapshot: " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Reads the stubs of the snapshot file in the order in which they must
+     * be registered.
+     */
+    public static List<StubMapping> read(Path snapshotFile) {
+        ObjectReader reader = Json.getObjectMapper().readerFor(StubMapping.class);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("The file isn't a stub mapping snapshot: " + snapshotFile);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version: " + version + ". Expected: " + VERSION);
+            }
+
+            int count = in.readInt();
+            List<StubMapping> mappings = new ArrayList<>(count);
+            for (int index = 0; index < count; index++) {
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                mappings.add(reader.readValue(json));
+            }
+            return mappings;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the stub mapping snapshot: " + snapshotFile, e);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: StubMappingSnapshot <mappings directory> <snapshot file>");
+        }
+
+        int count = compile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.printf("Wrote %d stubs to: %s%n", count, args[1]);
+    }
+}
@@ -0,0 +1,102 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Jetty thread pool that runs every request on its own virtual thread.
+ *
+ * The acceptors and the selectors of a Jetty connector block their thread
+ * for as long as the server is running. A virtual thread that waits for
+ * a selector cannot release its carrier thread, so these tasks are run
+ * on platform threads.
+ */
+final class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final String ACCEPTOR_CLASS_NAME = "org.eclipse.jetty.server.AbstractConnector$Acceptor";
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService virtualThreads;
+    private final ExecutorService platformThreads = Executors.newCachedThreadPool(new PlatformThreadFactory());
+    private final AtomicInteger runningTasks = new AtomicInteger();
+
+    VirtualThreadPool(ExecutorService virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        ExecutorService executor = isLongRunning(job) ? platformThreads : virtualThreads;
+        executor.execute(() -> {
+            runningTasks.incrementAndGet();
+            try {
+                job.run();
+            }
+            finally {
+                runningTasks.decrementAndGet();
+            }
+        });
+    }
+
+    private boolean isLongRunning(Runnable job) {
+        return job instanceof SelectorManager.ManagedSelector ||
+                ACCEPTOR_CLASS_NAME.equals(job.getClass().getName());
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        virtualThreads.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        platformThreads.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the number of tasks that are running at the moment.
+     */
+    @Override
+    public int getThreads() {
+        return runningTasks.get();
+    }
+
+    /**
+     * Virtual threads are never idle because a new thread is started for every task.
+     */
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    /**
+     * A new virtual thread can always be started.
+     */
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        virtualThreads.shutdownNow();
+        platformThreads.shutdownNow();
+        virtualThreads.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        platformThreads.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static final class PlatformThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "wiremock-selector-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.ThreadPoolFactory;
+import com.github.tomakehurst.wiremock.jetty9.QueuedThreadPoolFactory;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Creates a thread pool that handles every request on its own virtual
+ * thread. Because a virtual thread doesn't hold a platform thread while it
+ * sleeps, the number of concurrent delayed requests isn't limited by the
+ * number of container threads.
+ *
+ * We can enable this mode by passing a new factory to the
+ * <code>threadPoolFactory()</code> method of the WireMock configuration.
+ * If the running JVM doesn't support virtual threads, this factory creates
+ * the same thread pool as WireMock does by default.
+ */
+public class VirtualThreadPoolFactory implements ThreadPoolFactory {
+
+    private final ThreadPoolFactory fallback = new QueuedThreadPoolFactory();
+
+    @Override
+    public ThreadPool buildThreadPool(Options options) {
+        if (VirtualThreads.isSupported()) {
+            return new VirtualThreadPool(VirtualThreads.newVirtualThreadPerTaskExecutor());
+        }
+        options.notifier().info("Virtual threads are not supported. Using " + options.containerThreads() + " container threads");
+        return fallback.buildThreadPool(options);
+    }
+}
@@ -1,10 +1,11 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
-import org.junit.jupiter.api.AfterEach;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -20,33 +21,27 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class CustomHostAndPortConfigurationTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .bindAddress("127.0.0.1")
+            .port(9090)
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .bindAddress("127.0.0.1")
-                .port(9090)
-        );
-        this.wireMockServer.start();
-        configureFor("127.0.0.1", 9090);
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Test
     @DisplayName("Should ensure that WireMock server was started")
     void shouldEnsureThatServerWasStarted() {
-        givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
                 .withStatus(200)
         ));
 
         ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:9090", String.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
-    }
 }
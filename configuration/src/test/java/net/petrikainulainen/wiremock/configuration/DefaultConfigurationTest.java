@@ -1,10 +1,11 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
-import org.junit.jupiter.api.AfterEach;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -18,35 +19,24 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class DefaultConfigurationTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension();
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer();
-        this.wireMockServer.start();
-
-        //Normally we don't have to do this if we use the default configuration.
-        //However, because other tests make changes to the global WireMock configuration,
-        //we have to make the same changes here because we don't know the invocation
-        //order of our test classes.
-        configureFor("localhost", 8080);
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Test
     @DisplayName("Should ensure that WireMock server was started")
     void shouldEnsureThatServerWasStarted() {
-        givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
                 .withStatus(200)
         ));
 
         ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:8080", String.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
-    }
 }
@@ -1,10 +1,11 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
-import org.junit.jupiter.api.AfterEach;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -19,23 +20,22 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class DynamicPortConfigurationTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Test
     @DisplayName("Should ensure that WireMock server was started")
     void shouldEnsureThatServerWasStarted() {
-        givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
                 .withStatus(200)
         ));
 
@@ -45,11 +45,6 @@ class DynamicPortConfigurationTest {
     }
 
     private String buildServerUrl() {
-        return String.format("http://localhost:%d", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d", wireMock.port());
     }
 }
@@ -0,0 +1,195 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.Options;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class demonstrates how we can configure the system
+ * under test when we want to start a new WireMock server
+ * as fast as possible.
+ */
+@DisplayName("Start WireMock server in the fast startup mode")
+class FastStartupConfigurationTest {
+
+    private static final int STARTUP_COUNT = 50;
+
+    /**
+     * Both stubs match a GET request that is sent to the path
+     * '/api/message'. WireMock reads one stub per mapping file, so the
+     * stubs are written to separate files.
+     */
+    private static final String MESSAGE_MAPPING_FILE = "{ \"request\": { \"method\": \"GET\", \"url\": \"/api/message\" }," +
+            "  \"response\": { \"status\": 200, \"body\": \"Hello\" } }";
+    private static final String CATCH_ALL_MAPPING_FILE = "{ \"request\": { \"method\": \"GET\", \"urlPattern\": \"/api/.*\" }," +
+            "  \"response\": { \"status\": 200, \"body\": \"Hello World!\" } }";
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(FastStartup.enable(options()
+            .dynamicPort()
+    ));
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+    }
+
+    @Test
+    @DisplayName("Should ensure that WireMock server was started")
+    void shouldEnsureThatServerWasStarted() {
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+                .withStatus(200)
+        ));
+
+        String serverUrl = buildServerUrl(wireMock.port(), "/");
+        ResponseEntity<String> response = restTemplate.getForEntity(serverUrl, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Nested
+    @DisplayName("When a new server is started before the admin API is used")
+    class WhenNewServerIsStartedBeforeAdminApiIsUsed {
+
+        @Test
+        @DisplayName("Should return 404 for a request that doesn't match a stub")
+        void shouldReturn404ForRequestThatDoesNotMatchStub() {
+            WireMockServer server = startNewServer(FastStartup.enable(options().dynamicPort()));
+            try {
+                assertThatThrownBy(() -> restTemplate.getForObject(buildServerUrl(server.port(), "/api/message"), String.class))
+                        .isInstanceOfSatisfying(HttpClientErrorException.class,
+                                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND)
+                        );
+            }
+            finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should start the admin API when it receives its first request")
+        void shouldStartAdminApiWhenItReceivesItsFirstRequest() {
+            WireMockServer server = startNewServer(FastStartup.enable(options().dynamicPort()));
+            try {
+                new WireMock("localhost", server.port()).register(get(urlEqualTo("/api/message"))
+                        .willReturn(aResponse().withStatus(200).withBody("Hello World!"))
+                );
+
+                String body = restTemplate.getForObject(buildServerUrl(server.port(), "/api/message"), String.class);
+                assertThat(body).isEqualTo("Hello World!");
+            }
+            finally {
+                server.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should start and stop the server many times")
+        void shouldStartAndStopServerManyTimes() {
+            for (int index = 0; index < STARTUP_COUNT; index++) {
+                WireMockServer server = startNewServer(FastStartup.enable(options().dynamicPort()));
+                assertThat(server.isRunning()).isTrue();
+
+                server.stop();
+                assertThat(server.isRunning()).isFalse();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When the default stubs are loaded from a snapshot")
+    class WhenDefaultStubsAreLoadedFromSnapshot {
+
+        @TempDir
+        Path filesRoot;
+
+        private Path snapshotFile;
+        private WireMockServer server;
+
+        @BeforeEach
+        void startServerWithSnapshot() throws IOException {
+            Path mappingsDirectory = Files.createDirectory(filesRoot.resolve("mappings"));
+            Files.write(mappingsDirectory.resolve("1-message.json"), MESSAGE_MAPPING_FILE.getBytes(StandardCharsets.UTF_8));
+            Files.write(mappingsDirectory.resolve("2-catch-all.json"), CATCH_ALL_MAPPING_FILE.getBytes(StandardCharsets.UTF_8));
+
+            this.snapshotFile = filesRoot.resolve("mappings.snapshot");
+            assertThat(StubMappingSnapshot.compile(mappingsDirectory, snapshotFile)).isEqualTo(2);
+
+            this.server = startNewServer(FastStartup.enable(options().dynamicPort(),
+                    snapshotFile
+            ));
+        }
+
+        @AfterEach
+        void stopServer() {
+            this.server.stop();
+        }
+
+        @Test
+        @DisplayName("Should return the HTTP response of a stub that was loaded from the snapshot")
+        void shouldReturnHttpResponseOfStubThatWasLoadedFromSnapshot() {
+            ResponseEntity<String> response = restTemplate.getForEntity(buildServerUrl(server.port(), "/api/other"),
+                    String.class
+            );
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+
+        @Test
+        @DisplayName("Should evaluate the stubs in the same order as the server which reads the mapping files")
+        void shouldEvaluateStubsInSameOrderAsServerWhichReadsMappingFiles() {
+            WireMockServer mappingFileServer = startNewServer(options()
+                    .dynamicPort()
+                    .usingFilesUnderDirectory(filesRoot.toString())
+            );
+            try {
+                String expected = restTemplate.getForObject(buildServerUrl(mappingFileServer.port(), "/api/message"),
+                        String.class
+                );
+                String actual = restTemplate.getForObject(buildServerUrl(server.port(), "/api/message"), String.class);
+                assertThat(actual).isEqualTo(expected);
+            }
+            finally {
+                mappingFileServer.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should load the stubs of the snapshot again when the server is reset")
+        void shouldLoadStubsOfSnapshotAgainWhenServerIsReset() {
+            server.resetAll();
+
+            assertThat(server.listAllStubMappings().getMappings()).hasSize(2);
+        }
+    }
+
+    private WireMockServer startNewServer(Options options) {
+        WireMockServer server = new WireMockServer(options);
+        server.start();
+        return server;
+    }
+
+    private String buildServerUrl(int port, String path) {
+        return String.format("http://localhost:%d%s", port, path);
+    }
+}
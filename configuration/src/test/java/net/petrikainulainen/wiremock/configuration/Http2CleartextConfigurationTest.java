@@ -0,0 +1,294 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can configure the system
+ * under test when we want to send requests over cleartext
+ * HTTP/2 connections.
+ */
+@DisplayName("Send requests over cleartext HTTP/2 connections")
+class Http2CleartextConfigurationTest {
+
+    private static final int MAX_CONCURRENT_STREAMS = 10;
+    private static final int DELAY_MILLISECONDS = 1000;
+    private static final int SOCKET_TIMEOUT_MILLISECONDS = 10_000;
+
+    private static final int HTTP2_FRAME_TYPE_DATA = 0x0;
+    private static final int HTTP2_FLAG_END_STREAM = 0x1;
+    private static final int HTTP2_UPGRADE_STREAM_ID = 1;
+    /**
+     * The settings of the client are sent as a base64url encoded
+     * SETTINGS frame payload in the HTTP2-Settings header.
+     */
+    private static final String HTTP2_UPGRADE_REQUEST = "GET /api/message HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Connection: Upgrade, HTTP2-Settings\r\n" +
+            "Upgrade: h2c\r\n" +
+            "HTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n" +
+            "\r\n";
+    private static final String HTTP2_CONNECTION_PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n";
+    private static final byte[] HTTP2_EMPTY_SETTINGS_FRAME = {0, 0, 0, 0x4, 0, 0, 0, 0, 0};
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+            .httpServerFactory(new Http2CleartextHttpServerFactory(MAX_CONCURRENT_STREAMS))
+    );
+
+    private ConnectionPool connectionPool;
+    private OkHttpClient http2Client;
+    private ExecutorService clients;
+
+    @BeforeEach
+    void configureHttp2Client() {
+        this.connectionPool = new ConnectionPool();
+        this.http2Client = new OkHttpClient.Builder()
+                .protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+                .connectionPool(connectionPool)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+        this.clients = Executors.newFixedThreadPool(2 * MAX_CONCURRENT_STREAMS);
+    }
+
+    @AfterEach
+    void closeHttp2Client() {
+        this.clients.shutdownNow();
+        this.connectionPool.evictAll();
+    }
+
+    @Test
+    @DisplayName("Should return the configured HTTP response over HTTP/1.1")
+    void shouldReturnConfiguredHttpResponseOverHttp1() {
+        wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("Hello World!")
+        ));
+
+        ResponseEntity<String> response = TestHttpClient.restTemplate().getForEntity(buildApiMethodUrl(), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("Hello World!");
+    }
+
+    /**
+     * The client sends both requests before it reads the responses. If the
+     * server handled the requests concurrently, the response of the fast
+     * request would be written first.
+     */
+    @Test
+    @DisplayName("Should return the responses of pipelined HTTP/1.1 requests in the order of the requests")
+    void shouldReturnResponsesOfPipelinedRequestsInOrderOfRequests() throws IOException {
+        wireMock.givenThat(get(urlEqualTo("/api/slow")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("SLOW")
+                .withFixedDelay(DELAY_MILLISECONDS / 2)
+        ));
+        wireMock.givenThat(get(urlEqualTo("/api/fast")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("FAST")
+        ));
+
+        try (Socket socket = new Socket("localhost", wireMock.port())) {
+            socket.setSoTimeout(SOCKET_TIMEOUT_MILLISECONDS);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/slow HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "GET /api/fast HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII)
+            );
+            out.flush();
+
+            String responses = readUntil(socket.getInputStream(), "FAST");
+            assertThat(responses.indexOf("SLOW")).isNotNegative().isLessThan(responses.indexOf("FAST"));
+        }
+    }
+
+    /**
+     * Reads the input stream until the content contains the expected string.
+     * The read fails if the server doesn't send it before the socket times out.
+     */
+    private String readUntil(InputStream in, String expected) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        while (!new String(content.toByteArray(), StandardCharsets.US_ASCII).contains(expected)) {
+            int read = in.read();
+            if (read == -1) {
+                break;
+            }
+            content.write(read);
+        }
+        return new String(content.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Nested
+    @DisplayName("When the client upgrades an HTTP/1.1 connection to HTTP/2")
+    class WhenClientUpgradesHttp1ConnectionToHttp2 {
+
+        @Test
+        @DisplayName("Should return the response of the upgrade request over HTTP/2")
+        void shouldReturnResponseOfUpgradeRequestOverHttp2() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withBody("Hello World!")
+            ));
+
+            try (Socket socket = new Socket("localhost", wireMock.port())) {
+                socket.setSoTimeout(SOCKET_TIMEOUT_MILLISECONDS);
+                OutputStream out = socket.getOutputStream();
+                out.write(HTTP2_UPGRADE_REQUEST.getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                String upgradeResponse = readUntil(in, "\r\n\r\n");
+                assertThat(upgradeResponse).startsWith("HTTP/1.1 101");
+
+                out.write(HTTP2_CONNECTION_PREFACE.getBytes(StandardCharsets.US_ASCII));
+                out.write(HTTP2_EMPTY_SETTINGS_FRAME);
+                out.flush();
+
+                assertThat(readBodyOfUpgradeStream(in)).isEqualTo("Hello World!");
+            }
+        }
+
+        /**
+         * Reads HTTP/2 frames until the server ends the stream of the
+         * upgrade request, and returns the content of its DATA frames.
+         */
+        private String readBodyOfUpgradeStream(DataInputStream in) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            while (true) {
+                int length = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+                int type = in.readUnsignedByte();
+                int flags = in.readUnsignedByte();
+                int streamId = in.readInt() & 0x7fffffff;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+
+                if (streamId == HTTP2_UPGRADE_STREAM_ID && type == HTTP2_FRAME_TYPE_DATA) {
+                    body.write(payload);
+                }
+                if (streamId == HTTP2_UPGRADE_STREAM_ID && (flags & HTTP2_FLAG_END_STREAM) != 0) {
+                    return new String(body.toByteArray(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When the client speaks HTTP/2")
+    class WhenClientSpeaksHttp2 {
+
+        @Test
+        @DisplayName("Should return the configured HTTP response over HTTP/2")
+        void shouldReturnConfiguredHttpResponseOverHttp2() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message?name=Petri")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "text/plain")
+                    .withBody("Hello Petri!")
+            ));
+
+            try (Response response = sendRequest("/api/message?name=Petri")) {
+                assertThat(response.protocol()).isEqualTo(Protocol.H2_PRIOR_KNOWLEDGE);
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Type")).isEqualTo("text/plain");
+                assertThat(response.body().string()).isEqualTo("Hello Petri!");
+            }
+        }
+
+        @Test
+        @DisplayName("Should multiplex concurrent requests over one connection")
+        void shouldMultiplexConcurrentRequestsOverOneConnection() throws Exception {
+            givenDelayedResponse();
+
+            long start = System.nanoTime();
+            assertThat(sendConcurrentRequests(MAX_CONCURRENT_STREAMS)).containsOnly(200);
+            long elapsedMilliseconds = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(connectionPool.connectionCount()).isEqualTo(1);
+            assertThat(elapsedMilliseconds).isLessThan(MAX_CONCURRENT_STREAMS * DELAY_MILLISECONDS / 2);
+        }
+
+        @Test
+        @DisplayName("Should open a new connection when the maximum number of concurrent streams is exceeded")
+        void shouldOpenNewConnectionWhenMaxConcurrentStreamsIsExceeded() throws Exception {
+            givenDelayedResponse();
+
+            assertThat(sendConcurrentRequests(2 * MAX_CONCURRENT_STREAMS)).containsOnly(200);
+            assertThat(connectionPool.connectionCount()).isGreaterThan(1);
+        }
+
+        /**
+         * Opens an HTTP/2 connection and registers a stub that returns
+         * a delayed response. Because the client has received the settings
+         * of the server before it sends the delayed requests, it knows the
+         * maximum number of concurrent streams.
+         */
+        private void givenDelayedResponse() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse().withStatus(200)));
+            sendRequest("/api/message").close();
+
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(DELAY_MILLISECONDS)
+            ));
+        }
+
+        private List<Integer> sendConcurrentRequests(int requestCount) throws Exception {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int request = 0; request < requestCount; request++) {
+                futures.add(clients.submit(() -> {
+                    try (Response response = sendRequest("/api/message")) {
+                        return response.code();
+                    }
+                }));
+            }
+
+            List<Integer> statusCodes = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statusCodes.add(future.get());
+            }
+            return statusCodes;
+        }
+
+        private Response sendRequest(String path) throws IOException {
+            Request request = new Request.Builder()
+                    .url(String.format("http://localhost:%d%s", wireMock.port(), path))
+                    .build();
+            return http2Client.newCall(request).execute();
+        }
+    }
+
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
+    }
+}
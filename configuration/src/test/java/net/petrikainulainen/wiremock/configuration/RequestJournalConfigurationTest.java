@@ -0,0 +1,309 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.client.BasicCredentials;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can configure the system
+ * under test when we want to store the received requests
+ * in a bounded request journal that is stored outside the
+ * heap.
+ */
+@DisplayName("Store the received requests in a bounded ring buffer")
+class RequestJournalConfigurationTest {
+
+    private static final long RECORDING_TIMEOUT_MILLISECONDS = 5000;
+    private static final RingBufferRequestJournal JOURNAL = new RingBufferRequestJournal(100, 64 * 1024);
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+            .disableRequestJournal()
+            .extensions(new RequestJournalRecorder(JOURNAL))
+    );
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+        JOURNAL.reset();
+    }
+
+    @Nested
+    @DisplayName("When the requests are sent to the WireMock server")
+    class WhenRequestsAreSentToWireMockServer {
+
+        @Test
+        @DisplayName("Should verify the number of requests by using the ring buffer journal")
+        void shouldVerifyNumberOfRequestsByUsingRingBufferJournal() throws InterruptedException {
+            wireMock.givenThat(get(urlPathEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withBody("Hello World!")
+            ));
+
+            restTemplate.getForEntity(buildApiMethodUrl(1), String.class);
+            restTemplate.getForEntity(buildApiMethodUrl(1), String.class);
+            restTemplate.getForEntity(buildApiMethodUrl(2), String.class);
+            awaitRecordedRequests(3);
+
+            assertThat(JOURNAL.countRequestsMatching(getRequestedFor(urlEqualTo("/api/message?id=1")).build()))
+                    .isEqualTo(2);
+            assertThat(JOURNAL.countRequestsMatching(getRequestedFor(urlEqualTo("/api/message?id=2")).build()))
+                    .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should tell whether the request matched a stub")
+        void shouldTellWhetherRequestMatchedStub() throws InterruptedException {
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1")).willReturn(aResponse()
+                    .withStatus(200)
+            ));
+
+            restTemplate.getForEntity(buildApiMethodUrl(1), String.class);
+            awaitRecordedRequests(1);
+
+            List<ServeEvent> serveEvents = JOURNAL.getAllServeEvents();
+            assertThat(serveEvents).hasSize(1);
+            assertThat(serveEvents.get(0).getWasMatched()).isTrue();
+            assertThat(JOURNAL.getServeEvent(serveEvents.get(0).getId()).isPresent()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("When the journal is full")
+    class WhenJournalIsFull {
+
+        @Test
+        @DisplayName("Should retain only the newest requests when the maximum number of requests is exceeded")
+        void shouldRetainOnlyNewestRequestsWhenMaximumNumberOfRequestsIsExceeded() {
+            RingBufferRequestJournal journal = new RingBufferRequestJournal(3, 64 * 1024);
+            receiveRequests(journal, 5);
+
+            assertThat(retainedUrls(journal)).containsExactly(
+                    "/api/message?id=2",
+                    "/api/message?id=3",
+                    "/api/message?id=4"
+            );
+        }
+
+        @Test
+        @DisplayName("Should retain only the newest requests when the maximum number of bytes is exceeded")
+        void shouldRetainOnlyNewestRequestsWhenMaximumNumberOfBytesIsExceeded() throws Exception {
+            int requestSize = Json.getObjectMapper().writeValueAsBytes(createServeEvent(0).getRequest()).length;
+            RingBufferRequestJournal journal = new RingBufferRequestJournal(100, requestSize * 2 + requestSize / 2);
+            receiveRequests(journal, 5);
+
+            assertThat(retainedUrls(journal)).containsExactly(
+                    "/api/message?id=3",
+                    "/api/message?id=4"
+            );
+        }
+
+        @Test
+        @DisplayName("Should not retain requests that are older than the maximum age")
+        void shouldNotRetainRequestsThatAreOlderThanMaximumAge() throws InterruptedException {
+            RingBufferRequestJournal journal = new RingBufferRequestJournal(100, 64 * 1024, 50, TimeUnit.MILLISECONDS);
+            receiveRequests(journal, 2);
+            assertThat(journal.size()).isEqualTo(2);
+
+            Thread.sleep(100);
+            assertThat(journal.size()).isEqualTo(0);
+        }
+    }
+
+    @Nested
+    @DisplayName("When the journal indexes the requests")
+    class WhenJournalIndexesRequests {
+
+        private final BasicCredentials credentials = new BasicCredentials("username", "password");
+
+        private RingBufferRequestJournal indexedJournal;
+        private RingBufferRequestJournal journal;
+
+        @BeforeEach
+        void createJournals() {
+            indexedJournal = new RingBufferRequestJournal(100, 64 * 1024, Long.MAX_VALUE, TimeUnit.MILLISECONDS,
+                    Collections.singletonList("Authorization")
+            );
+            journal = new RingBufferRequestJournal(100, 64 * 1024);
+
+            HttpHeaders authorization = new HttpHeaders(new HttpHeader("Authorization", credentials.asAuthorizationHeaderValue()));
+            for (int id = 0; id < 20; id++) {
+                ServeEvent serveEvent = createServeEvent(id % 4, id % 2 == 0 ? authorization : HttpHeaders.noHeaders());
+                indexedJournal.requestReceived(serveEvent);
+                journal.requestReceived(serveEvent);
+            }
+        }
+
+        @Test
+        @DisplayName("Should count the requests that were sent by using basic authentication")
+        void shouldCountRequestsThatWereSentByUsingBasicAuthentication() {
+            RequestPattern pattern = getRequestedFor(urlEqualTo("/api/message?id=2"))
+                    .withBasicAuth(credentials)
+                    .build();
+
+            assertThat(indexedJournal.countRequestsMatching(pattern)).isEqualTo(5);
+            assertThat(journal.countRequestsMatching(pattern)).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should count the requests that have the expected header")
+        void shouldCountRequestsThatHaveExpectedHeader() {
+            RequestPattern pattern = getRequestedFor(urlPathEqualTo("/api/message"))
+                    .withHeader("Authorization", equalTo(credentials.asAuthorizationHeaderValue()))
+                    .build();
+
+            assertThat(indexedJournal.countRequestsMatching(pattern)).isEqualTo(10);
+            assertThat(journal.countRequestsMatching(pattern)).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should find the requests when the pattern has no indexed constraint")
+        void shouldFindRequestsWhenPatternHasNoIndexedConstraint() {
+            RequestPattern pattern = anyRequestedFor(urlMatching("/api/message\\?id=[13]")).build();
+
+            assertThat(indexedJournal.getRequestsMatching(pattern))
+                    .extracting(LoggedRequest::getUrl)
+                    .containsExactlyElementsOf(journal.getRequestsMatching(pattern)
+                            .stream()
+                            .map(LoggedRequest::getUrl)
+                            .collect(Collectors.toList())
+                    )
+                    .hasSize(10);
+        }
+
+        @Test
+        @DisplayName("Should not find the requests that were overwritten")
+        void shouldNotFindRequestsThatWereOverwritten() {
+            RingBufferRequestJournal smallJournal = new RingBufferRequestJournal(3, 64 * 1024);
+            receiveRequests(smallJournal, 5);
+
+            assertThat(smallJournal.countRequestsMatching(getRequestedFor(urlEqualTo("/api/message?id=1")).build()))
+                    .isEqualTo(0);
+            assertThat(smallJournal.countRequestsMatching(getRequestedFor(urlEqualTo("/api/message?id=4")).build()))
+                    .isEqualTo(1);
+        }
+    }
+
+    /**
+     * The heap usage is measured after every million requests. We don't
+     * trigger garbage collections. Instead, we read the heap usage that was
+     * left after the latest collections that were triggered by the requests.
+     * If the journal kept the received requests on the heap, the heap usage
+     * would grow by hundreds of megabytes.
+     */
+    @Test
+    @Tag("soak")
+    @DisplayName("Should keep the heap usage flat when the journal receives 10 million requests")
+    void shouldKeepHeapUsageFlatWhenJournalReceivesTenMillionRequests() {
+        int requestCount = 10_000_000;
+        int measurementInterval = 1_000_000;
+        RingBufferRequestJournal journal = new RingBufferRequestJournal(100_000, 32 * 1024 * 1024);
+        ServeEvent serveEvent = createServeEvent(1);
+
+        long firstHeapUsage = 0;
+        long maximumHeapGrowth = 0;
+        for (int request = 1; request <= requestCount; request++) {
+            journal.requestReceived(serveEvent);
+
+            if (request % measurementInterval == 0) {
+                long heapUsage = measureHeapUsage();
+                if (request == measurementInterval) {
+                    firstHeapUsage = heapUsage;
+                }
+                maximumHeapGrowth = Math.max(maximumHeapGrowth, heapUsage - firstHeapUsage);
+            }
+        }
+
+        assertThat(maximumHeapGrowth).isLessThan(16L * 1024L * 1024L);
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/api/message?id=1")).build()))
+                .isEqualTo(journal.size());
+    }
+
+    /**
+     * The requests are recorded after the response has been sent. This means
+     * that the client can receive the response before the request is found
+     * from the journal.
+     */
+    private void awaitRecordedRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + RECORDING_TIMEOUT_MILLISECONDS;
+        while (JOURNAL.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private long measureHeapUsage() {
+        long heapUsage = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usageAfterCollection = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usageAfterCollection != null) {
+                heapUsage += usageAfterCollection.getUsed();
+            }
+        }
+        return heapUsage;
+    }
+
+    private void receiveRequests(RingBufferRequestJournal journal, int count) {
+        for (int id = 0; id < count; id++) {
+            journal.requestReceived(createServeEvent(id));
+        }
+    }
+
+    private List<String> retainedUrls(RingBufferRequestJournal journal) {
+        return journal.getRequestsMatching(anyRequestedFor(anyUrl()).build())
+                .stream()
+                .map(LoggedRequest::getUrl)
+                .collect(Collectors.toList());
+    }
+
+    private ServeEvent createServeEvent(int id) {
+        return createServeEvent(id, HttpHeaders.noHeaders());
+    }
+
+    private ServeEvent createServeEvent(int id, HttpHeaders headers) {
+        String url = "/api/message?id=" + id;
+        LoggedRequest request = new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                headers,
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+        return ServeEvent.of(request, ResponseDefinition.ok());
+    }
+
+    private String buildApiMethodUrl(int id) {
+        return String.format("http://localhost:%d/api/message?id=%d", wireMock.port(), id);
+    }
+}
@@ -0,0 +1,218 @@
+package net.petrikainulainen.wiremock.configuration;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This class demonstrates how we can configure the system
+ * under test when we want to handle every request on its
+ * own virtual thread.
+ */
+@DisplayName("Handle every request on its own virtual thread")
+class VirtualThreadConfigurationTest {
+
+    private static final int REQUEST_COUNT = 2000;
+    private static final int PLATFORM_THREAD_REQUEST_COUNT = 5 * Options.DEFAULT_CONTAINER_THREADS;
+    private static final long BARRIER_TIMEOUT_SECONDS = 60;
+    private static final RequestBarrier BARRIER = new RequestBarrier(REQUEST_COUNT);
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+            .jettyAcceptQueueSize(REQUEST_COUNT)
+            .threadPoolFactory(new VirtualThreadPoolFactory())
+            .extensions(BARRIER)
+    );
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+    }
+
+    @Test
+    @DisplayName("Should ensure that WireMock server was started")
+    void shouldEnsureThatServerWasStarted() {
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+                .withStatus(200)
+        ));
+
+        String serverUrl = buildServerUrl(wireMock.port());
+        ResponseEntity<String> response = restTemplate.getForEntity(serverUrl, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    /**
+     * Every request waits until all requests have arrived at the server.
+     * If the requests were handled by the container threads, the server
+     * could hold only {@link Options#DEFAULT_CONTAINER_THREADS} requests
+     * at the same time, and the waiting requests would time out.
+     */
+    @Test
+    @Tag("soak")
+    @DisplayName("Should handle thousands of concurrent requests")
+    void shouldHandleThousandsOfConcurrentRequests() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Virtual threads require Java 21 or newer");
+        wireMock.givenThat(get(urlEqualTo("/")).willReturn(aResponse()
+                .withStatus(200)
+                .withTransformers(RequestBarrier.NAME)
+        ));
+
+        ExecutorService clients = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Integer>> statusCodes = new ArrayList<>();
+            for (int request = 0; request < REQUEST_COUNT; request++) {
+                statusCodes.add(clients.submit(() -> sendRequest(wireMock.port())));
+            }
+            for (Future<Integer> statusCode : statusCodes) {
+                assertThat(statusCode.get()).isEqualTo(200);
+            }
+        }
+        finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * The thread pool starts a new task of its executor for every request.
+     * That's why we can run this test on every JVM by giving the thread pool
+     * an executor that starts a platform thread for every task. If the
+     * requests were handled by the container threads, the server could hold
+     * only {@link Options#DEFAULT_CONTAINER_THREADS} requests at the same
+     * time, and the waiting requests would time out.
+     */
+    @Test
+    @DisplayName("Should run every request on its own task when virtual threads aren't available")
+    void shouldRunEveryRequestOnItsOwnTaskWhenVirtualThreadsAreNotAvailable() throws Exception {
+        WireMockServer server = new WireMockServer(options()
+                .dynamicPort()
+                .jettyAcceptQueueSize(PLATFORM_THREAD_REQUEST_COUNT)
+                .threadPoolFactory(options -> new VirtualThreadPool(Executors.newCachedThreadPool()))
+                .extensions(new RequestBarrier(PLATFORM_THREAD_REQUEST_COUNT))
+        );
+        server.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(PLATFORM_THREAD_REQUEST_COUNT);
+        try {
+            server.stubFor(get(urlEqualTo("/")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withTransformers(RequestBarrier.NAME)
+            ));
+
+            List<Future<Integer>> statusCodes = new ArrayList<>();
+            for (int request = 0; request < PLATFORM_THREAD_REQUEST_COUNT; request++) {
+                statusCodes.add(clients.submit(() -> sendRequest(server.port())));
+            }
+            for (Future<Integer> statusCode : statusCodes) {
+                assertThat(statusCode.get()).isEqualTo(200);
+            }
+        }
+        finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should use the container threads when virtual threads aren't supported")
+    void shouldUseContainerThreadsWhenVirtualThreadsAreNotSupported() {
+        assumeFalse(VirtualThreads.isSupported(), "Virtual threads are supported");
+
+        Options configuration = options().containerThreads(25);
+        QueuedThreadPool threadPool = (QueuedThreadPool) new VirtualThreadPoolFactory().buildThreadPool(configuration);
+        assertThat(threadPool.getMaxThreads()).isEqualTo(25);
+    }
+
+    private int sendRequest(int port) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(buildServerUrl(port)).openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            while (body.read() != -1) {
+                //Read the whole body so that the connection can be reused.
+            }
+            return connection.getResponseCode();
+        }
+    }
+
+    private String buildServerUrl(int port) {
+        return String.format("http://localhost:%d", port);
+    }
+
+    /**
+     * Holds every request until the given number of requests has arrived.
+     * A request that waits longer than {@link #BARRIER_TIMEOUT_SECONDS}
+     * seconds gets the status code 503.
+     */
+    private static final class RequestBarrier extends ResponseDefinitionTransformer {
+
+        private static final String NAME = "request-barrier";
+
+        private final CountDownLatch arrivedRequests;
+
+        private RequestBarrier(int requestCount) {
+            this.arrivedRequests = new CountDownLatch(requestCount);
+        }
+
+        @Override
+        public ResponseDefinition transform(Request request,
+                                            ResponseDefinition responseDefinition,
+                                            FileSource files,
+                                            Parameters parameters) {
+            arrivedRequests.countDown();
+            try {
+                if (arrivedRequests.await(BARRIER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    return responseDefinition;
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseDefinitionBuilder.responseDefinition().withStatus(503).build();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+    }
+}
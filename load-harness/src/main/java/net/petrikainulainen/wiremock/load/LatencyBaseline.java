@@ -0,0 +1,100 @@
+package net.petrikainulainen.wiremock.load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The stored p99 latencies of the load scenarios. The baseline is stored
+ * in a properties file that has one entry per scenario:
+ *
+ * <pre>
+ * OK.p99=1234
+ * </pre>
+ *
+ * The latencies are stored in microseconds.
+ */
+public class LatencyBaseline {
+
+    private static final String P99_SUFFIX = ".p99";
+
+    private final Map<LoadScenario, Long> p99Micros = new TreeMap<>();
+
+    /**
+     * Reads the baseline from the given file. If the file doesn't exist,
+     * this method returns an empty baseline.
+     */
+    public static LatencyBaseline read(Path file) throws IOException {
+        LatencyBaseline baseline = new LatencyBaseline();
+        if (!Files.exists(file)) {
+            return baseline;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            properties.load(reader);
+        }
+        for (LoadScenario scenario : LoadScenario.values()) {
+            String p99 = properties.getProperty(scenario.name() + P99_SUFFIX);
+            if (p99 != null) {
+                baseline.p99Micros.put(scenario, Long.parseLong(p99.trim()));
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Returns the stored p99 latency of the scenario, or <code>null</code>
+     * if the baseline has no latency for the scenario.
+     */
+    public Long getP99Micros(LoadScenario scenario) {
+        return p99Micros.get(scenario);
+    }
+
+    public void setP99Micros(LoadScenario scenario, long micros) {
+        p99Micros.put(scenario, micros);
+    }
+
+    /**
+     * Tells whether the measured p99 latency regressed past the stored p99
+     * latency. The latency regressed if it is more than <code>tolerance</code>
+     * (1.0 means 100 percent) slower than the stored latency and at least
+     * <code>minimumSlackMicros</code> slower than the stored latency. The
+     * minimum slack prevents scheduling jitter from failing the build when
+     * the stored latency is only a few milliseconds.
+     *
+     * If the baseline has no latency for the scenario, the latency cannot regress.
+     */
+    public boolean isRegression(LoadScenario scenario, LoadResult result, double tolerance, long minimumSlackMicros) {
+        Long baseline = getP99Micros(scenario);
+        if (baseline == null) {
+            return false;
+        }
+
+        long p99 = result.getP99Micros();
+        return p99 > baseline * (1.0 + tolerance) && p99 > baseline + minimumSlackMicros;
+    }
+
+    /**
+     * Writes the baseline to the given file. The entries are written in
+     * the declaration order of the scenarios.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            writer.write("# The p99 latencies (in microseconds) of the load scenarios.");
+            writer.newLine();
+            writer.write("# Update them by running: mvn test -Dload.baseline.update=true");
+            writer.newLine();
+            for (Map.Entry<LoadScenario, Long> entry : p99Micros.entrySet()) {
+                writer.write(entry.getKey().name() + P99_SUFFIX + "=" + entry.getValue());
+                writer.newLine();
+            }
+        }
+    }
+}
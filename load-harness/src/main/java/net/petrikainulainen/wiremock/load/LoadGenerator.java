@@ -0,0 +1,151 @@
+package net.petrikainulainen.wiremock.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends GET requests by using an open workload model. The requests are
+ * scheduled at a fixed arrival rate, and a request is sent at its
+ * scheduled time even if the previous requests haven't been answered yet.
+ *
+ * The latency of a request is measured from its scheduled time instead of
+ * the time when it was actually sent. This means that the time a request
+ * waits for a free worker or connection is included in its latency, and
+ * a slow server cannot hide its latency by slowing down the generator.
+ */
+public class LoadGenerator implements Closeable {
+
+    private static final int MAX_CONCURRENT_REQUESTS = 200;
+    private static final long HIGHEST_TRACKABLE_LATENCY_MICROSECONDS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService workers;
+
+    public LoadGenerator() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONCURRENT_REQUESTS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONCURRENT_REQUESTS);
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .disableRedirectHandling()
+                .disableContentCompression()
+                .disableCookieManagement()
+                .build();
+        this.workers = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Sends requests to the target URI at the given rate and returns
+     * after all requests have been answered.
+     *
+     * @param target            The URI that receives the requests.
+     * @param expectedStatus    The status code of a successful response.
+     * @param requestsPerSecond The arrival rate of the requests.
+     * @param seconds           How long requests are sent.
+     */
+    public LoadResult run(URI target, int expectedStatus, int requestsPerSecond, int seconds) throws InterruptedException {
+        if (requestsPerSecond < 1) {
+            throw new IllegalArgumentException("The request rate must be at least 1. Was: " + requestsPerSecond);
+        }
+
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY_MICROSECONDS, SIGNIFICANT_DIGITS);
+        AtomicLong errors = new AtomicLong();
+        PendingRequests pending = new PendingRequests();
+
+        long requestCount = (long) requestsPerSecond * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+
+        for (long request = 0; request < requestCount; request++) {
+            long scheduledTime = start + request * intervalNanos;
+            waitUntil(scheduledTime);
+
+            pending.register();
+            workers.execute(() -> {
+                try {
+                    if (!send(target, expectedStatus)) {
+                        errors.incrementAndGet();
+                    }
+                    recordLatency(latencies, scheduledTime);
+                }
+                finally {
+                    pending.arrive();
+                }
+            });
+        }
+        pending.awaitCompletion();
+
+        long elapsedNanos = System.nanoTime() - start;
+        return new LoadResult(latencies, requestCount, errors.get(), elapsedNanos);
+    }
+
+    private boolean send(URI target, int expectedStatus) {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(target))) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() == expectedStatus;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void recordLatency(Histogram latencies, long scheduledTime) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledTime);
+        latencies.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_LATENCY_MICROSECONDS));
+    }
+
+    private static void waitUntil(long time) {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        workers.shutdownNow();
+        httpClient.close();
+    }
+
+    /**
+     * Counts the requests which haven't been answered yet.
+     */
+    private static final class PendingRequests {
+
+        private long pending;
+
+        synchronized void register() {
+            pending++;
+        }
+
+        synchronized void arrive() {
+            pending--;
+            if (pending == 0) {
+                notifyAll();
+            }
+        }
+
+        synchronized void awaitCompletion() throws InterruptedException {
+            while (pending > 0) {
+                wait();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package net.petrikainulainen.wiremock.load;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Replays a {@link LoadScenario} against a WireMock server that listens
+ * to a dynamic port. The load is sent in two phases:
+ *
+ * <ol>
+ *     <li>The warmup phase gives the JIT compiler time to compile the code
+ *     that serves the requests. Its latencies are ignored.</li>
+ *     <li>The measurement phase sends the requests whose latencies are
+ *     returned.</li>
+ * </ol>
+ *
+ * We can run the scenarios from the command line by using the command:
+ * <code>mvn compile exec:java -Dexec.args="[requests per second] [seconds] [scenario...]"</code>.
+ */
+public final class LoadHarness {
+
+    private static final int DEFAULT_REQUESTS_PER_SECOND = 500;
+    private static final int DEFAULT_SECONDS = 10;
+
+    private LoadHarness() {}
+
+    public static LoadResult run(LoadScenario scenario,
+                                 int requestsPerSecond,
+                                 int warmupSeconds,
+                                 int seconds) throws Exception {
+        WireMockServer server = new WireMockServer(options().dynamicPort());
+        server.start();
+
+        try (LoadGenerator generator = new LoadGenerator()) {
+            server.stubFor(scenario.stub());
+            URI target = URI.create(String.format("http://localhost:%d%s", server.port(), LoadScenario.PATH));
+
+            if (warmupSeconds > 0) {
+                generator.run(target, scenario.expectedStatus(), requestsPerSecond, warmupSeconds);
+            }
+            return generator.run(target, scenario.expectedStatus(), requestsPerSecond, seconds);
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requestsPerSecond = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_REQUESTS_PER_SECOND;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+
+        List<LoadScenario> scenarios = new ArrayList<>();
+        for (String scenario : Arrays.copyOfRange(args, Math.min(2, args.length), args.length)) {
+            scenarios.add(LoadScenario.valueOf(scenario));
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(Arrays.asList(LoadScenario.values()));
+        }
+
+        for (LoadScenario scenario : scenarios) {
+            LoadResult result = run(scenario, requestsPerSecond, seconds / 2, seconds);
+            System.out.printf("%s: %s%n", scenario, result);
+            result.printLatencyDistribution(System.out);
+        }
+    }
+}
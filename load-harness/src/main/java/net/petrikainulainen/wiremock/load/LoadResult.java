@@ -0,0 +1,81 @@
+package net.petrikainulainen.wiremock.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency percentiles and the error count of a load run. The
+ * latencies are recorded in microseconds.
+ */
+public class LoadResult {
+
+    private final Histogram latencies;
+    private final long requestCount;
+    private final long errorCount;
+    private final long elapsedNanos;
+
+    LoadResult(Histogram latencies, long requestCount, long errorCount, long elapsedNanos) {
+        this.latencies = latencies;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of requests which failed or didn't return
+     * the expected status code.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of answered requests per second.
+     */
+    public double getThroughput() {
+        return requestCount / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public long getLatencyMicros(double percentile) {
+        return latencies.getValueAtPercentile(percentile);
+    }
+
+    public long getP50Micros() {
+        return getLatencyMicros(50.0);
+    }
+
+    public long getP99Micros() {
+        return getLatencyMicros(99.0);
+    }
+
+    public long getMaxMicros() {
+        return latencies.getMaxValue();
+    }
+
+    /**
+     * Writes the full latency distribution to the given stream by using
+     * the HdrHistogram percentile format. The values are written in
+     * milliseconds.
+     */
+    public void printLatencyDistribution(PrintStream out) {
+        latencies.outputPercentileDistribution(out, 1000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests (%.1f requests/s), %d errors, p50: %d us, p99: %d us, max: %d us",
+                requestCount,
+                getThroughput(),
+                errorCount,
+                getP50Micros(),
+                getP99Micros(),
+                getMaxMicros()
+        );
+    }
+}
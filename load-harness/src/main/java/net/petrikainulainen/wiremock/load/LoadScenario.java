@@ -0,0 +1,63 @@
+package net.petrikainulainen.wiremock.load;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * The stubs of the stubbing example which can be replayed by the
+ * {@link LoadHarness}. Every scenario registers one stub for the
+ * path {@link #PATH}, and the expected status code tells whether
+ * the server returned the stubbed response.
+ */
+public enum LoadScenario {
+
+    /**
+     * The <code>ok()</code> stub of the <code>HttpStatusCodeTest</code> class.
+     */
+    OK(ok(), 200),
+
+    /**
+     * The <code>serviceUnavailable()</code> stub of the <code>HttpStatusCodeTest</code> class.
+     */
+    SERVICE_UNAVAILABLE(serviceUnavailable(), 503),
+
+    /**
+     * The <code>unauthorized()</code> stub of the <code>HttpStatusCodeTest</code> class.
+     */
+    UNAUTHORIZED(unauthorized(), 401),
+
+    /**
+     * The stub of the <code>HttpHeaderTest</code> class which returns multiple headers.
+     */
+    HEADERS(aResponse()
+            .withStatus(200)
+            .withHeader("Name", "Petri Kainulainen")
+            .withHeader("Occupation", "Software Developer"),
+            200
+    ),
+
+    /**
+     * The permanent redirect stub of the <code>RedirectTest</code> class.
+     */
+    PERMANENT_REDIRECT(permanentRedirect("https://www.testwithspring.com"), 301);
+
+    public static final String PATH = "/api/message";
+
+    private final ResponseDefinitionBuilder response;
+    private final int expectedStatus;
+
+    LoadScenario(ResponseDefinitionBuilder response, int expectedStatus) {
+        this.response = response;
+        this.expectedStatus = expectedStatus;
+    }
+
+    public MappingBuilder stub() {
+        return get(urlEqualTo(PATH)).willReturn(response);
+    }
+
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+}
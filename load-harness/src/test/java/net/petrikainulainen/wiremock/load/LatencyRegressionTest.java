@@ -0,0 +1,111 @@
+package net.petrikainulainen.wiremock.load;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * This class demonstrates how we can replay the stubs of the stubbing
+ * example at a target request rate and fail the build when the p99
+ * latency of a stub regresses past the stored baseline.
+ *
+ * The load is configured by using these system properties:
+ *
+ * <ul>
+ *     <li><code>load.rate</code>: the number of requests per second.</li>
+ *     <li><code>load.warmup</code>: the length of the warmup phase in seconds.</li>
+ *     <li><code>load.duration</code>: the length of the measurement phase in seconds.</li>
+ *     <li><code>load.tolerance</code>: how much slower (1.0 = 100 percent) the p99
+ *     latency can be than the baseline.</li>
+ *     <li><code>load.slack</code>: how many microseconds slower the p99 latency
+ *     can always be than the baseline.</li>
+ *     <li><code>load.rounds</code>: how many times the scenario is run before
+ *     the test fails.</li>
+ *     <li><code>load.baseline.update</code>: if <code>true</code>, the median p99
+ *     latencies of all rounds are written to the baseline file instead of
+ *     comparing them with the baseline.</li>
+ * </ul>
+ *
+ * Because the latencies of a local machine are noisy, the test fails only
+ * if the p99 latency regresses in every round.
+ */
+@DisplayName("Replay the stubbing examples at the target request rate")
+class LatencyRegressionTest {
+
+    private static final int REQUESTS_PER_SECOND = Integer.getInteger("load.rate", 500);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+    private static final int SECONDS = Integer.getInteger("load.duration", 10);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "1.0"));
+    private static final long SLACK_MICROS = Long.getLong("load.slack", 10_000);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 3);
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("load.baseline.update");
+    private static final Path BASELINE_FILE = Paths.get(System.getProperty("load.baseline.file",
+            "src/test/resources/latency-baseline.properties"
+    ));
+
+    private static LatencyBaseline baseline;
+
+    @BeforeAll
+    static void readBaseline() throws Exception {
+        baseline = LatencyBaseline.read(BASELINE_FILE);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(LoadScenario.class)
+    @DisplayName("Should not regress the p99 latency of the scenario")
+    void shouldNotRegressP99LatencyOfScenario(LoadScenario scenario) throws Exception {
+        if (UPDATE_BASELINE) {
+            updateBaseline(scenario);
+            return;
+        }
+
+        LoadResult result = null;
+        for (int round = 1; round <= ROUNDS; round++) {
+            result = measure(scenario);
+            if (!baseline.isRegression(scenario, result, TOLERANCE, SLACK_MICROS)) {
+                return;
+            }
+        }
+
+        fail("The p99 latency %d us regressed past the baseline %d us in %d rounds (tolerance: %.0f%%, slack: %d us)",
+                result.getP99Micros(),
+                baseline.getP99Micros(scenario),
+                ROUNDS,
+                TOLERANCE * 100,
+                SLACK_MICROS
+        );
+    }
+
+    /**
+     * Stores the median p99 latency of all rounds because a single round
+     * can be unusually fast or slow.
+     */
+    private void updateBaseline(LoadScenario scenario) throws Exception {
+        List<Long> p99Micros = new ArrayList<>();
+        for (int round = 1; round <= ROUNDS; round++) {
+            p99Micros.add(measure(scenario).getP99Micros());
+        }
+        Collections.sort(p99Micros);
+
+        baseline.setP99Micros(scenario, p99Micros.get(p99Micros.size() / 2));
+        baseline.write(BASELINE_FILE);
+    }
+
+    private LoadResult measure(LoadScenario scenario) throws Exception {
+        LoadResult result = LoadHarness.run(scenario, REQUESTS_PER_SECOND, WARMUP_SECONDS, SECONDS);
+        System.out.printf("%s: %s (baseline p99: %s us)%n", scenario, result, baseline.getP99Micros(scenario));
+
+        assertThat(result.getErrorCount()).isZero();
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+/**
+ * A <code>notMatching()</code> matcher that gets its compiled regex
+ * from a {@link RegexPatternCache}. It's serialized in the same way as
+ * WireMock's <code>NegativeRegexPattern</code>.
+ */
+public class CachedNegativeRegexPattern extends StringValuePattern {
+
+    private final CompiledRegex regex;
+
+    public CachedNegativeRegexPattern(@JsonProperty("doesNotMatch") String regex) {
+        this(regex, RegexPatternCache.shared());
+    }
+
+    public CachedNegativeRegexPattern(String regex, RegexPatternCache cache) {
+        super(regex);
+        this.regex = cache.get(regex);
+    }
+
+    public String getDoesNotMatch() {
+        return expectedValue;
+    }
+
+    @Override
+    public MatchResult match(String value) {
+        return MatchResult.of(value == null || !regex.matches(value));
+    }
+}
@@ -0,0 +1,32 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.matching.UrlPathPattern;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
+
+/**
+ * Provides factory methods that create regex matchers which use the
+ * shared {@link RegexPatternCache}. These methods can be used instead
+ * of the factory methods of the <code>WireMock</code> class that have
+ * the same names.
+ */
+public final class CachedRegexMatchers {
+
+    private CachedRegexMatchers() {}
+
+    public static StringValuePattern matching(String regex) {
+        return new CachedRegexPattern(regex);
+    }
+
+    public static StringValuePattern notMatching(String regex) {
+        return new CachedNegativeRegexPattern(regex);
+    }
+
+    public static UrlPattern urlMatching(String regex) {
+        return new UrlPattern(matching(regex), true);
+    }
+
+    public static UrlPathPattern urlPathMatching(String regex) {
+        return new UrlPathPattern(matching(regex), true);
+    }
+}
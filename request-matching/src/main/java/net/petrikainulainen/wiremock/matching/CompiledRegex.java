@@ -0,0 +1,29 @@
+package net.petrikainulainen.wiremock.matching;
+
+import java.util.regex.Pattern;
+
+/**
+ * A compiled regular expression and its literal prefix. Before we run
+ * the regex engine, we check that the value starts with the literal
+ * prefix. This lets us reject most non-matching values with a single
+ * <code>startsWith()</code> call.
+ */
+final class CompiledRegex {
+
+    private final Pattern pattern;
+    private final String literalPrefix;
+
+    CompiledRegex(String regex) {
+        //WireMock compiles its regex patterns with the DOTALL flag.
+        this.pattern = Pattern.compile(regex, Pattern.DOTALL);
+        this.literalPrefix = LiteralPrefix.of(regex);
+    }
+
+    boolean matches(String value) {
+        return value.startsWith(literalPrefix) && pattern.matcher(value).matches();
+    }
+
+    String getLiteralPrefix() {
+        return literalPrefix;
+    }
+}
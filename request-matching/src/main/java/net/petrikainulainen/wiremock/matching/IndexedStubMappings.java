@@ -0,0 +1,256 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.stubbing.Scenarios;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.common.base.Optional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
+import static com.google.common.collect.Iterables.tryFind;
+
+/**
+ * A stub registry that finds the stub of a request in the same way as
+ * WireMock's <code>InMemoryStubMappings</code>, but evaluates only the
+ * stubs that are returned by a {@link StubIndex} instead of every
+ * registered stub. The candidates are evaluated against a {@link ParsedRequest},
+ * so the request is parsed only once.
+ *
+ * The stubs and their index are kept in an immutable {@link StubSnapshot}.
+ * A request is matched against the snapshot that was current when the
+ * request arrived, and matching never takes a lock. The methods that
+ * modify the registry are run one at a time. Every modification builds a
+ * new snapshot and publishes it by replacing the current snapshot. That's
+ * why a request sees either all or none of the changes of a modification.
+ *
+ * We can register a large batch of stubs by invoking
+ * {@link #importMappings(Collection)}. It builds the index only once per
+ * batch, and concurrent requests are served from the old snapshot until
+ * the whole batch has been registered.
+ *
+ * If a {@link StubMetricsRegistry} is given, this registry records how
+ * many stubs were evaluated, which stubs were hits or near misses, and
+ * how long it took to evaluate the candidates of every request.
+ *
+ * WireMock doesn't allow us to replace the stub registry of a server.
+ * This means that a running WireMock server never uses this registry,
+ * and we can use it only by invoking it from our own code.
+ */
+public class IndexedStubMappings implements StubMappings {
+
+    private final AtomicLong insertionCount = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile StubSnapshot snapshot = StubSnapshot.EMPTY;
+
+    private final Scenarios scenarios = new Scenarios();
+    private final Map<String, RequestMatcherExtension> customMatchers;
+    private final Map<String, ResponseDefinitionTransformer> transformers;
+    private final FileSource rootFileSource;
+    private final StubMetricsRegistry metrics;
+
+    public IndexedStubMappings(Map<String, RequestMatcherExtension> customMatchers,
+                               Map<String, ResponseDefinitionTransformer> transformers,
+                               FileSource rootFileSource,
+                               StubMetricsRegistry metrics) {
+        this.customMatchers = customMatchers;
+        this.transformers = transformers;
+        this.rootFileSource = rootFileSource;
+        this.metrics = metrics;
+    }
+
+    public IndexedStubMappings(Map<String, RequestMatcherExtension> customMatchers,
+                               Map<String, ResponseDefinitionTransformer> transformers,
+                               FileSource rootFileSource) {
+        this(customMatchers, transformers, rootFileSource, null);
+    }
+
+    public IndexedStubMappings(StubMetricsRegistry metrics) {
+        this(Collections.emptyMap(), Collections.emptyMap(), new SingleRootFileSource("."), metrics);
+    }
+
+    public IndexedStubMappings() {
+        this(null);
+    }
+
+    @Override
+    public ServeEvent serveFor(Request request) {
+        //The matchers of all candidates share the headers, cookies, and query parameters of the request.
+        ParsedRequest parsedRequest = ParsedRequest.of(request);
+
+        StubMapping matchingMapping = metrics == null
+                ? findMatchingMapping(parsedRequest)
+                : findMatchingMappingAndRecordMetrics(parsedRequest);
+
+        scenarios.onStubServed(matchingMapping);
+
+        ResponseDefinition responseDefinition = applyTransformations(request, matchingMapping.getResponse());
+        return ServeEvent.of(
+                LoggedRequest.createFrom(request),
+                ResponseDefinition.copyOf(responseDefinition),
+                matchingMapping
+        );
+    }
+
+    private StubMapping findMatchingMapping(Request request) {
+        for (StubMapping candidate : snapshot.findCandidates(request)) {
+            if (matchesRequestAndScenarioState(candidate, request)) {
+                return candidate;
+            }
+        }
+        return StubMapping.NOT_CONFIGURED;
+    }
+
+    private StubMapping findMatchingMappingAndRecordMetrics(Request request) {
+        long start = System.nanoTime();
+        StubMapping matchingMapping = StubMapping.NOT_CONFIGURED;
+        for (StubMapping candidate : snapshot.findCandidates(request)) {
+            metrics.recordEvaluation(candidate.getUuid());
+
+            MatchResult result = candidate.getRequest().match(request, customMatchers);
+            if (result.isExactMatch() && matchesScenarioState(candidate)) {
+                matchingMapping = candidate;
+                break;
+            }
+            if (result.getDistance() < StubMetricsRegistry.NEAR_MISS_THRESHOLD) {
+                metrics.recordNearMiss(candidate.getUuid());
+            }
+        }
+        metrics.recordMatchEvaluation(System.nanoTime() - start);
+
+        if (matchingMapping == StubMapping.NOT_CONFIGURED) {
+            metrics.recordUnmatchedRequest();
+        }
+        else {
+            metrics.recordHit(matchingMapping.getUuid());
+        }
+        return matchingMapping;
+    }
+
+    private boolean matchesRequestAndScenarioState(StubMapping mapping, Request request) {
+        return mapping.getRequest().match(request, customMatchers).isExactMatch() && matchesScenarioState(mapping);
+    }
+
+    private boolean matchesScenarioState(StubMapping mapping) {
+        return mapping.isIndependentOfScenarioState() || scenarios.mappingMatchesScenarioState(mapping);
+    }
+
+    private ResponseDefinition applyTransformations(Request request, ResponseDefinition responseDefinition) {
+        ResponseDefinition transformed = responseDefinition;
+        for (ResponseDefinitionTransformer transformer : transformers.values()) {
+            if (transformer.applyGlobally() || transformed.hasTransformer(transformer)) {
+                transformed = transformer.transform(
+                        request,
+                        transformed,
+                        rootFileSource.child(FILES_ROOT),
+                        transformed.getTransformerParameters()
+                );
+            }
+        }
+        return transformed;
+    }
+
+    @Override
+    public void addMapping(StubMapping mapping) {
+        synchronized (writeLock) {
+            mapping.setInsertionIndex(insertionCount.getAndIncrement());
+            StubSnapshot added = snapshot.withAdded(mapping);
+
+            //A request must not see the stub before its scenario has been registered.
+            scenarios.onStubMappingAddedOrUpdated(mapping, added.mappings());
+            snapshot = added;
+        }
+    }
+
+    /**
+     * Registers the stubs as one batch. The stubs are evaluated in the same
+     * order as if they had been registered one at a time in the order of
+     * the given collection. Requests that arrive while the batch is being
+     * registered are served by using the stubs that were registered before
+     * this method was invoked.
+     */
+    public void importMappings(Collection<StubMapping> mappings) {
+        synchronized (writeLock) {
+            for (StubMapping mapping : mappings) {
+                mapping.setInsertionIndex(insertionCount.getAndIncrement());
+            }
+            StubSnapshot imported = snapshot.withAll(mappings);
+            for (StubMapping mapping : mappings) {
+                scenarios.onStubMappingAddedOrUpdated(mapping, imported.mappings());
+            }
+            snapshot = imported;
+        }
+    }
+
+    @Override
+    public void removeMapping(StubMapping mapping) {
+        synchronized (writeLock) {
+            StubSnapshot removed = snapshot.without(mapping);
+            snapshot = removed;
+            scenarios.onStubMappingRemoved(mapping, removed.mappings());
+        }
+    }
+
+    @Override
+    public void editMapping(StubMapping stubMapping) {
+        synchronized (writeLock) {
+            Optional<StubMapping> existingMapping = get(stubMapping.getUuid());
+            if (!existingMapping.isPresent()) {
+                String msg = "StubMapping with UUID: " + stubMapping.getUuid() + " not found";
+                notifier().error(msg);
+                throw new RuntimeException(msg);
+            }
+
+            stubMapping.setInsertionIndex(existingMapping.get().getInsertionIndex());
+            stubMapping.setDirty(true);
+
+            StubSnapshot edited = snapshot.withReplaced(existingMapping.get(), stubMapping);
+            scenarios.onStubMappingAddedOrUpdated(stubMapping, edited.mappings());
+            snapshot = edited;
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (writeLock) {
+            snapshot = StubSnapshot.EMPTY;
+            scenarios.clear();
+        }
+    }
+
+    @Override
+    public void resetScenarios() {
+        scenarios.reset();
+    }
+
+    @Override
+    public List<StubMapping> getAll() {
+        return snapshot.sortedMappings();
+    }
+
+    @Override
+    public Optional<StubMapping> get(UUID id) {
+        return tryFind(snapshot.mappings(), mapping -> mapping.getUuid().equals(id));
+    }
+
+    @Override
+    public List<Scenario> getAllScenarios() {
+        return scenarios.getAll();
+    }
+}
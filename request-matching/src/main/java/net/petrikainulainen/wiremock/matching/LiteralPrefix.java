@@ -0,0 +1,37 @@
+package net.petrikainulainen.wiremock.matching;
+
+/**
+ * Finds the literal prefix of a regular expression. Every string that
+ * matches the regular expression starts with its literal prefix.
+ */
+final class LiteralPrefix {
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String QUANTIFIERS = "?*+{";
+
+    private LiteralPrefix() {}
+
+    /**
+     * Returns the literal prefix of the given regular expression. If
+     * the regular expression has no literal prefix, or if we cannot
+     * figure it out safely (alternation, inline flags), this method
+     * returns an empty string.
+     */
+    static String of(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        int end = 0;
+        while (end < regex.length() && METACHARACTERS.indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+
+        //A quantifier makes the preceding character optional or repeatable.
+        if (end > 0 && end < regex.length() && QUANTIFIERS.indexOf(regex.charAt(end)) >= 0) {
+            end--;
+        }
+
+        return regex.substring(0, end);
+    }
+}
@@ -0,0 +1,63 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.common.Json;
+
+/**
+ * Parses JSON request bodies for the matchers that are created by
+ * {@link PreparsedJsonMatchers}.
+ *
+ * WireMock evaluates the stubs of a request one after another on the
+ * thread that serves the request. That's why every thread remembers
+ * the bodies it parsed most recently, and the JSON matchers of all
+ * stubs share the tree of the request body. Every thread remembers
+ * two bodies so that the value given to a nested <code>equalToJson()</code>
+ * matcher doesn't evict the request body. Every thread also counts
+ * the bodies it has parsed.
+ */
+public final class ParsedJsonBodies {
+
+    private static final ThreadLocal<ParsedJsonBody[]> RECENT_BODIES =
+            ThreadLocal.withInitial(() -> new ParsedJsonBody[2]);
+
+    private static final ThreadLocal<long[]> PARSE_COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ParsedJsonBodies() {}
+
+    static ParsedJsonBody parse(String body) {
+        ParsedJsonBody[] recentBodies = RECENT_BODIES.get();
+        for (int index = 0; index < recentBodies.length; index++) {
+            ParsedJsonBody recent = recentBodies[index];
+            if (recent != null && recent.isBodyOf(body)) {
+                if (index > 0) {
+                    recentBodies[index] = recentBodies[0];
+                    recentBodies[0] = recent;
+                }
+                return recent;
+            }
+        }
+
+        ParsedJsonBody parsed = parseBody(body);
+        recentBodies[1] = recentBodies[0];
+        recentBodies[0] = parsed;
+        return parsed;
+    }
+
+    private static ParsedJsonBody parseBody(String body) {
+        PARSE_COUNT.get()[0]++;
+        try {
+            return ParsedJsonBody.valid(body, Json.read(body, JsonNode.class));
+        }
+        catch (Exception e) {
+            return ParsedJsonBody.invalid(body, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns how many times a JSON body has been parsed by the
+     * current thread.
+     */
+    public static long parseCount() {
+        return PARSE_COUNT.get()[0];
+    }
+}
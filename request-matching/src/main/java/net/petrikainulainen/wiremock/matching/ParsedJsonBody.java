@@ -0,0 +1,68 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+/**
+ * A request body that is parsed into a Jackson tree. The same tree
+ * is used by the <code>equalToJson()</code> matchers and the JsonPath
+ * expressions of the <code>matchingJsonPath()</code> matchers.
+ */
+final class ParsedJsonBody {
+
+    private static final Configuration JSON_PATH_CONFIGURATION = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider())
+            .mappingProvider(new JacksonMappingProvider())
+            .build();
+
+    private final String body;
+    private final JsonNode json;
+    private final String parseError;
+    private DocumentContext document;
+
+    private ParsedJsonBody(String body, JsonNode json, String parseError) {
+        this.body = body;
+        this.json = json;
+        this.parseError = parseError;
+    }
+
+    static ParsedJsonBody valid(String body, JsonNode json) {
+        return new ParsedJsonBody(body, json, null);
+    }
+
+    static ParsedJsonBody invalid(String body, String parseError) {
+        return new ParsedJsonBody(body, null, parseError);
+    }
+
+    boolean isBodyOf(String body) {
+        return this.body == body || this.body.equals(body);
+    }
+
+    boolean isValid() {
+        return json != null;
+    }
+
+    JsonNode getJson() {
+        return json;
+    }
+
+    String getParseError() {
+        return parseError;
+    }
+
+    /**
+     * Evaluates the JsonPath expression against the parsed tree. A parsed
+     * body is used by one thread at a time, so the document context can
+     * be created lazily without synchronization.
+     */
+    Object read(JsonPath path) {
+        if (document == null) {
+            document = JsonPath.using(JSON_PATH_CONFIGURATION).parse(json);
+        }
+        return document.read(path);
+    }
+}
@@ -0,0 +1,207 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.common.Urls;
+import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.google.common.base.Optional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A request that reads the headers, the cookies, and the query parameters
+ * of the original request when a matcher asks for them for the first time,
+ * and returns the same values to every matcher after that.
+ *
+ * The request adapter of WireMock parses the query string or the
+ * <code>Cookie</code> header again every time a matcher asks for a query
+ * parameter or the cookies. {@link IndexedStubMappings} wraps every request
+ * in this class before it evaluates the candidate stubs. That's why the
+ * matchers of all stubs share the parsed values, and a request is parsed
+ * at most once no matter how many stubs are evaluated. A request is
+ * evaluated by one thread, so the values are parsed without synchronization.
+ *
+ * A running WireMock server doesn't use the indexed stub registry, so it
+ * never wraps its requests in this class.
+ */
+public final class ParsedRequest implements Request {
+
+    private final Request request;
+
+    private HttpHeaders headers;
+    private Map<String, Cookie> cookies;
+    private Map<String, QueryParameter> queryParameters;
+
+    private int headerParseCount;
+    private int cookieParseCount;
+    private int queryParseCount;
+
+    private ParsedRequest(Request request) {
+        this.request = request;
+    }
+
+    /**
+     * Returns a request that parses the given request at most once. If the
+     * given request has already been wrapped, it is returned as it is.
+     */
+    public static ParsedRequest of(Request request) {
+        return request instanceof ParsedRequest ? (ParsedRequest) request : new ParsedRequest(request);
+    }
+
+    /**
+     * Returns the request that was wrapped by this request.
+     */
+    public Request getRequest() {
+        return request;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headers == null) {
+            headerParseCount++;
+            headers = request.getHeaders();
+        }
+        return headers;
+    }
+
+    @Override
+    public HttpHeader header(String key) {
+        return getHeaders().getHeader(key);
+    }
+
+    @Override
+    public String getHeader(String key) {
+        HttpHeader header = header(key);
+        return header.isPresent() ? header.firstValue() : null;
+    }
+
+    @Override
+    public boolean containsHeader(String key) {
+        return header(key).isPresent();
+    }
+
+    @Override
+    public ContentTypeHeader contentTypeHeader() {
+        return getHeaders().getContentTypeHeader();
+    }
+
+    @Override
+    public Set<String> getAllHeaderKeys() {
+        return getHeaders().keys();
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+        if (cookies == null) {
+            cookieParseCount++;
+            cookies = request.getCookies();
+        }
+        return cookies;
+    }
+
+    @Override
+    public QueryParameter queryParameter(String key) {
+        if (queryParameters == null) {
+            queryParseCount++;
+            String url = request.getUrl();
+            int queryStart = url.indexOf('?');
+            queryParameters = Urls.splitQuery(queryStart == -1 ? null : url.substring(queryStart + 1));
+        }
+        QueryParameter parameter = queryParameters.get(key);
+        return parameter == null ? QueryParameter.absent(key) : parameter;
+    }
+
+    @Override
+    public String getUrl() {
+        return request.getUrl();
+    }
+
+    @Override
+    public String getAbsoluteUrl() {
+        return request.getAbsoluteUrl();
+    }
+
+    @Override
+    public RequestMethod getMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public String getClientIp() {
+        return request.getClientIp();
+    }
+
+    @Override
+    public byte[] getBody() {
+        return request.getBody();
+    }
+
+    @Override
+    public String getBodyAsString() {
+        return request.getBodyAsString();
+    }
+
+    @Override
+    public String getBodyAsBase64() {
+        return request.getBodyAsBase64();
+    }
+
+    @Override
+    public boolean isMultipart() {
+        return request.isMultipart();
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        return request.getParts();
+    }
+
+    @Override
+    public Part getPart(String name) {
+        return request.getPart(name);
+    }
+
+    @Override
+    public boolean isBrowserProxyRequest() {
+        return request.isBrowserProxyRequest();
+    }
+
+    @Override
+    public Optional<Request> getOriginalRequest() {
+        return request.getOriginalRequest();
+    }
+
+    @Override
+    public String toString() {
+        return request.toString();
+    }
+
+    /**
+     * Returns how many times the headers of this request have been read
+     * from the original request.
+     */
+    public int headerParseCount() {
+        return headerParseCount;
+    }
+
+    /**
+     * Returns how many times the cookies of this request have been parsed.
+     */
+    public int cookieParseCount() {
+        return cookieParseCount;
+    }
+
+    /**
+     * Returns how many times the query string of this request has been
+     * parsed.
+     */
+    public int queryParseCount() {
+        return queryParseCount;
+    }
+}
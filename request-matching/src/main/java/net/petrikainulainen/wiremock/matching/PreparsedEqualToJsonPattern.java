@@ -0,0 +1,108 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.matching.EqualToJsonPattern;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An <code>equalToJson()</code> matcher that parses the expected document
+ * when the stub is created, and compares it with the shared tree of the
+ * request body. It's serialized in the same way as WireMock's
+ * <code>EqualToJsonPattern</code>.
+ *
+ * This matcher returns only exact matches and non-matches. It doesn't
+ * calculate the distance that WireMock uses when it reports near misses.
+ */
+public class PreparsedEqualToJsonPattern extends EqualToJsonPattern {
+
+    private final JsonNode expectedJson;
+    private final boolean ignoreArrayOrder;
+    private final boolean ignoreExtraElements;
+
+    public PreparsedEqualToJsonPattern(@JsonProperty("equalToJson") String json,
+                                       @JsonProperty("ignoreArrayOrder") Boolean ignoreArrayOrder,
+                                       @JsonProperty("ignoreExtraElements") Boolean ignoreExtraElements) {
+        super(json, ignoreArrayOrder, ignoreExtraElements);
+        this.expectedJson = Json.read(json, JsonNode.class);
+        this.ignoreArrayOrder = Boolean.TRUE.equals(ignoreArrayOrder);
+        this.ignoreExtraElements = Boolean.TRUE.equals(ignoreExtraElements);
+    }
+
+    @Override
+    public MatchResult match(String value) {
+        if (value == null) {
+            return MatchResult.noMatch();
+        }
+
+        ParsedJsonBody body = ParsedJsonBodies.parse(value);
+        return MatchResult.of(body.isValid() && matches(expectedJson, body.getJson()));
+    }
+
+    private boolean matches(JsonNode expected, JsonNode actual) {
+        if (expected.isObject()) {
+            return actual.isObject() && objectMatches(expected, actual);
+        }
+        if (expected.isArray()) {
+            return actual.isArray() && arrayMatches(expected, actual);
+        }
+        return expected.equals(actual);
+    }
+
+    private boolean objectMatches(JsonNode expected, JsonNode actual) {
+        if (!ignoreExtraElements && actual.size() != expected.size()) {
+            return false;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> expectedFields = expected.fields();
+        while (expectedFields.hasNext()) {
+            Map.Entry<String, JsonNode> expectedField = expectedFields.next();
+            JsonNode actualValue = actual.get(expectedField.getKey());
+            if (actualValue == null || !matches(expectedField.getValue(), actualValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean arrayMatches(JsonNode expected, JsonNode actual) {
+        if (actual.size() < expected.size() || (!ignoreExtraElements && actual.size() != expected.size())) {
+            return false;
+        }
+        return ignoreArrayOrder ? containsInAnyOrder(expected, actual) : containsInOrder(expected, actual);
+    }
+
+    private boolean containsInOrder(JsonNode expected, JsonNode actual) {
+        int actualIndex = 0;
+        for (JsonNode expectedElement : expected) {
+            while (actualIndex < actual.size() && !matches(expectedElement, actual.get(actualIndex))) {
+                actualIndex++;
+            }
+            if (actualIndex == actual.size()) {
+                return false;
+            }
+            actualIndex++;
+        }
+        return true;
+    }
+
+    private boolean containsInAnyOrder(JsonNode expected, JsonNode actual) {
+        boolean[] used = new boolean[actual.size()];
+        for (JsonNode expectedElement : expected) {
+            int actualIndex = 0;
+            while (actualIndex < actual.size()
+                    && (used[actualIndex] || !matches(expectedElement, actual.get(actualIndex)))) {
+                actualIndex++;
+            }
+            if (actualIndex == actual.size()) {
+                return false;
+            }
+            used[actualIndex] = true;
+        }
+        return true;
+    }
+}
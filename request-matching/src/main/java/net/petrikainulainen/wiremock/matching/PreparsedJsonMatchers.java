@@ -0,0 +1,32 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+/**
+ * Provides factory methods that create JSON matchers which parse their
+ * expectations when the stub is created, and parse each request body
+ * only once. These methods can be used instead of the factory methods
+ * of the <code>WireMock</code> class that have the same names.
+ */
+public final class PreparsedJsonMatchers {
+
+    private PreparsedJsonMatchers() {}
+
+    public static StringValuePattern equalToJson(String json) {
+        return new PreparsedEqualToJsonPattern(json, null, null);
+    }
+
+    public static StringValuePattern equalToJson(String json,
+                                                 boolean ignoreArrayOrder,
+                                                 boolean ignoreExtraElements) {
+        return new PreparsedEqualToJsonPattern(json, ignoreArrayOrder, ignoreExtraElements);
+    }
+
+    public static StringValuePattern matchingJsonPath(String expression) {
+        return new PreparsedJsonPathPattern(expression);
+    }
+
+    public static StringValuePattern matchingJsonPath(String expression, StringValuePattern valuePattern) {
+        return new PreparsedJsonPathPattern(expression, valuePattern);
+    }
+}
@@ -0,0 +1,111 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.MatchesJsonPathPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+
+/**
+ * A <code>matchingJsonPath()</code> matcher that compiles its JsonPath
+ * expression when the stub is created, and evaluates it against the
+ * shared tree of the request body. It's serialized in the same way as
+ * WireMock's <code>MatchesJsonPathPattern</code>.
+ */
+public class PreparsedJsonPathPattern extends MatchesJsonPathPattern {
+
+    private final JsonPath path;
+
+    public PreparsedJsonPathPattern(@JsonProperty("matchesJsonPath") String expression,
+                                    StringValuePattern valuePattern) {
+        super(expression, valuePattern);
+        this.path = JsonPath.compile(expression);
+    }
+
+    public PreparsedJsonPathPattern(String expression) {
+        this(expression, null);
+    }
+
+    @Override
+    protected MatchResult isSimpleJsonPathMatch(String value) {
+        ParsedJsonBody body = ParsedJsonBodies.parse(value);
+        if (!body.isValid()) {
+            return noMatch(value, "the JSON document couldn't be parsed");
+        }
+
+        try {
+            Object result = body.read(path);
+            return MatchResult.of(isPresent(result));
+        }
+        catch (Exception e) {
+            return noMatch(value, "of error '" + e.getMessage() + "'");
+        }
+    }
+
+    @Override
+    protected MatchResult isAdvancedJsonPathMatch(String value) {
+        ParsedJsonBody body = ParsedJsonBodies.parse(value);
+        if (!body.isValid()) {
+            return noMatch(value, "the JSON document couldn't be parsed");
+        }
+
+        Object result;
+        try {
+            result = body.read(path);
+        }
+        catch (PathNotFoundException e) {
+            result = null;
+        }
+        catch (Exception e) {
+            return noMatch(value, "of error '" + e.getMessage() + "'");
+        }
+
+        return valuePattern.match(render(result));
+    }
+
+    private static boolean isPresent(Object result) {
+        if (result instanceof JsonNode) {
+            JsonNode node = (JsonNode) result;
+            return !node.isContainerNode() || node.size() > 0;
+        }
+        if (result instanceof Collection) {
+            return !((Collection<?>) result).isEmpty();
+        }
+        if (result instanceof Map) {
+            return !((Map<?, ?>) result).isEmpty();
+        }
+        return result != null;
+    }
+
+    private static String render(Object result) {
+        if (result instanceof Number || result instanceof String || result instanceof Boolean) {
+            return String.valueOf(result);
+        }
+        if (result instanceof JsonNode) {
+            JsonNode node = (JsonNode) result;
+            return node.isContainerNode() ? Json.write(node) : node.asText();
+        }
+        if (result instanceof Map || result instanceof Collection) {
+            return Json.write(result);
+        }
+        return null;
+    }
+
+    private MatchResult noMatch(String value, String reason) {
+        notifier().info(String.format(
+                "Warning: JSON path expression '%s' failed to match document '%s' because %s",
+                getExpected(),
+                value,
+                reason
+        ));
+        return MatchResult.noMatch();
+    }
+}
@@ -0,0 +1,51 @@
+package net.petrikainulainen.wiremock.matching;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache that stores compiled regular expressions. When the
+ * cache is full, it evicts the least recently used regex. Stubs that
+ * use the same regex share the same compiled regex.
+ */
+public final class RegexPatternCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final RegexPatternCache SHARED = new RegexPatternCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final Map<String, CompiledRegex> compiledRegexes;
+
+    public RegexPatternCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be at least 1. Was: " + maximumSize);
+        }
+
+        this.compiledRegexes = new LinkedHashMap<String, CompiledRegex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledRegex> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache that is shared by the matchers created by
+     * {@link CachedRegexMatchers}.
+     */
+    public static RegexPatternCache shared() {
+        return SHARED;
+    }
+
+    synchronized CompiledRegex get(String regex) {
+        return compiledRegexes.computeIfAbsent(regex, CompiledRegex::new);
+    }
+
+    public synchronized int size() {
+        return compiledRegexes.size();
+    }
+
+    public synchronized void clear() {
+        compiledRegexes.clear();
+    }
+}
@@ -0,0 +1,72 @@
+package net.petrikainulainen.wiremock.matching;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Measures how long it takes to write the stubbed responses. The time is
+ * measured from the moment when WireMock opens the output stream of the
+ * response until the response has been written. This means that the time
+ * contains the pauses of a chunked dribble delay, but it doesn't contain
+ * the time that was spent finding the stub or waiting for a fixed delay.
+ */
+class ResponseWriteTimingFilter implements Filter {
+
+    private final StubMetricsRegistry metrics;
+
+    ResponseWriteTimingFilter(StubMetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {}
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        WriteTimingResponse timingResponse = new WriteTimingResponse((HttpServletResponse) response);
+        chain.doFilter(request, timingResponse);
+        if (timingResponse.writeStartedAt != 0) {
+            metrics.recordResponseWrite(System.nanoTime() - timingResponse.writeStartedAt);
+        }
+    }
+
+    @Override
+    public void destroy() {}
+
+    private static final class WriteTimingResponse extends HttpServletResponseWrapper {
+
+        private long writeStartedAt;
+
+        private WriteTimingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            markWriteStarted();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            markWriteStarted();
+            return super.getWriter();
+        }
+
+        private void markWriteStarted() {
+            if (writeStartedAt == 0) {
+                writeStartedAt = System.nanoTime();
+            }
+        }
+    }
+}
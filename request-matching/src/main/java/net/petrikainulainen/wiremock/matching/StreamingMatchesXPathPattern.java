@@ -0,0 +1,80 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.MatchesXPathPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+import javax.xml.stream.XMLStreamException;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+
+/**
+ * A <code>matchingXPath()</code> matcher that evaluates simple absolute
+ * XPath expressions with a {@link StreamingXPath}. Other expressions,
+ * expressions that have both a text predicate and a value pattern, and
+ * documents that use namespaces or CDATA sections on the evaluated path,
+ * are evaluated by WireMock's DOM based implementation. It's serialized
+ * in the same way as WireMock's <code>MatchesXPathPattern</code>.
+ */
+public class StreamingMatchesXPathPattern extends MatchesXPathPattern {
+
+    private final StreamingXPath streamingXPath;
+
+    public StreamingMatchesXPathPattern(@JsonProperty("matchesXPath") String xpath,
+                                        StringValuePattern valuePattern) {
+        super(xpath, valuePattern);
+        StreamingXPath compiled = StreamingXPath.compile(xpath);
+        this.streamingXPath = compiled != null && (valuePattern == null || compiled.selectsText())
+                ? compiled
+                : null;
+    }
+
+    public StreamingMatchesXPathPattern(String xpath) {
+        this(xpath, null);
+    }
+
+    /**
+     * Returns true if this matcher evaluates its expression without
+     * building a DOM tree.
+     */
+    public boolean isStreaming() {
+        return streamingXPath != null;
+    }
+
+    @Override
+    protected MatchResult isSimpleJsonPathMatch(String value) {
+        MatchResult result = evaluateStreaming(value);
+        return result != null ? result : super.isSimpleJsonPathMatch(value);
+    }
+
+    @Override
+    protected MatchResult isAdvancedJsonPathMatch(String value) {
+        MatchResult result = evaluateStreaming(value);
+        return result != null ? result : super.isAdvancedJsonPathMatch(value);
+    }
+
+    /**
+     * Returns <code>null</code> if the expression must be evaluated
+     * with a DOM parser.
+     */
+    private MatchResult evaluateStreaming(String value) {
+        if (streamingXPath == null || value == null) {
+            return null;
+        }
+
+        try {
+            return streamingXPath.evaluate(value, valuePattern);
+        }
+        catch (StreamingXPath.UnsupportedDocumentException e) {
+            return null;
+        }
+        catch (XMLStreamException e) {
+            notifier().info(String.format("Warning: failed to parse the XML document. Reason: %s\nXML: %s",
+                    e.getMessage(),
+                    value
+            ));
+            return MatchResult.noMatch();
+        }
+    }
+}
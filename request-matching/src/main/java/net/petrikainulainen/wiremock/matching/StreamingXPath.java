@@ -0,0 +1,244 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates a simple absolute XPath expression by reading the XML
+ * document with a StAX parser. The evaluation stops as soon as the
+ * answer is known. The supported expressions are:
+ *
+ * <ul>
+ *     <li><code>/message/name</code></li>
+ *     <li><code>/message/name/text()</code></li>
+ *     <li><code>/message/name[text()='Petri']</code></li>
+ * </ul>
+ *
+ * Because the evaluation stops early, a document that is malformed
+ * after the matching element isn't rejected.
+ */
+final class StreamingXPath {
+
+    private static final Pattern STEP = Pattern.compile("[A-Za-z_][A-Za-z0-9_.-]*");
+    private static final Pattern TEXT_PREDICATE = Pattern.compile("(.*)\\[text\\(\\)\\s*=\\s*'([^']*)'\\]");
+    private static final String TEXT_SELECTOR = "/text()";
+
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final String[] steps;
+    private final boolean selectsText;
+    private final String expectedText;
+
+    private StreamingXPath(String[] steps, boolean selectsText, String expectedText) {
+        this.steps = steps;
+        this.selectsText = selectsText;
+        this.expectedText = expectedText;
+    }
+
+    /**
+     * Returns a streaming evaluator for the XPath expression, or
+     * <code>null</code> if the expression isn't supported.
+     */
+    static StreamingXPath compile(String expression) {
+        String path = expression;
+        boolean selectsText = false;
+        String expectedText = null;
+
+        Matcher textPredicate = TEXT_PREDICATE.matcher(path);
+        if (textPredicate.matches()) {
+            path = textPredicate.group(1);
+            expectedText = textPredicate.group(2);
+        }
+        else if (path.endsWith(TEXT_SELECTOR)) {
+            path = path.substring(0, path.length() - TEXT_SELECTOR.length());
+            selectsText = true;
+        }
+
+        if (!path.startsWith("/")) {
+            return null;
+        }
+
+        String[] steps = path.substring(1).split("/", -1);
+        for (String step : steps) {
+            if (!STEP.matcher(step).matches()) {
+                return null;
+            }
+        }
+
+        return new StreamingXPath(steps, selectsText, expectedText);
+    }
+
+    /**
+     * Returns true if this expression selects elements instead of
+     * text. A value pattern must be compared with the serialized
+     * element, and that isn't supported by this class.
+     */
+    boolean selectsElements() {
+        return !selectsText && expectedText == null;
+    }
+
+    /**
+     * Returns true if this expression selects the text of an element. A
+     * value pattern can be compared only with the selected text. If the
+     * expression has a text predicate, the value pattern must be compared
+     * with the serialized element, and that isn't supported by this class.
+     */
+    boolean selectsText() {
+        return selectsText;
+    }
+
+    /**
+     * Evaluates this expression against the XML document. If the
+     * value pattern is <code>null</code>, the result is an exact match
+     * if the expression selects anything. Otherwise, the result is the
+     * best match between the value pattern and the selected text. The
+     * value pattern must be <code>null</code> if the expression doesn't
+     * select text.
+     *
+     * @throws UnsupportedDocumentException if the document uses
+     * namespaces or CDATA sections on the evaluated path.
+     */
+    MatchResult evaluate(String xml, StringValuePattern valuePattern) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            return evaluate(reader, valuePattern);
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    private MatchResult evaluate(XMLStreamReader reader, StringValuePattern valuePattern) throws XMLStreamException {
+        MatchResult bestMatch = MatchResult.noMatch();
+        int depth = 0;
+        int matchedDepth = 0;
+        StringBuilder text = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (text != null) {
+                        //A child element ends the current text node of the selected element.
+                        MatchResult result = evaluateText(text, valuePattern);
+                        if (result.isExactMatch()) {
+                            return result;
+                        }
+                        bestMatch = better(bestMatch, result);
+                        text.setLength(0);
+                    }
+
+                    depth++;
+                    if (matchedDepth == depth - 1 && depth <= steps.length) {
+                        if (isStep(reader, steps[depth - 1])) {
+                            matchedDepth = depth;
+                        }
+                        else if (depth == 1) {
+                            return MatchResult.noMatch();
+                        }
+                    }
+
+                    if (matchedDepth == steps.length && depth == steps.length) {
+                        if (selectsElements()) {
+                            return MatchResult.exactMatch();
+                        }
+                        text = new StringBuilder();
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    if (text != null && depth == steps.length) {
+                        //WireMock's XPath engine converts CDATA nodes in its own way.
+                        throw new UnsupportedDocumentException();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (text != null && depth == steps.length) {
+                        text.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (text != null && depth == steps.length) {
+                        MatchResult result = evaluateText(text, valuePattern);
+                        if (result.isExactMatch()) {
+                            return result;
+                        }
+                        bestMatch = better(bestMatch, result);
+                        text = null;
+                    }
+
+                    if (matchedDepth == depth) {
+                        matchedDepth--;
+                    }
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return bestMatch;
+    }
+
+    private MatchResult evaluateText(StringBuilder text, StringValuePattern valuePattern) {
+        //DOM doesn't create empty text nodes.
+        if (text.length() == 0) {
+            return MatchResult.noMatch();
+        }
+
+        if (expectedText != null) {
+            return MatchResult.of(expectedText.contentEquals(text));
+        }
+        if (valuePattern == null) {
+            return MatchResult.exactMatch();
+        }
+        return valuePattern.match(text.toString());
+    }
+
+    private static MatchResult better(MatchResult first, MatchResult second) {
+        return second.getDistance() < first.getDistance() ? second : first;
+    }
+
+    private static boolean isStep(XMLStreamReader reader, String step) {
+        String namespaceUri = reader.getNamespaceURI();
+        String prefix = reader.getPrefix();
+        if ((namespaceUri != null && !namespaceUri.isEmpty()) || (prefix != null && !prefix.isEmpty())) {
+            throw new UnsupportedDocumentException();
+        }
+        return step.equals(reader.getLocalName());
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        //The StAX parser of the JDK reports CDATA sections as characters unless we ask otherwise.
+        if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, true);
+        }
+        return factory;
+    }
+
+    /**
+     * Thrown when the document uses namespaces or CDATA sections on the
+     * evaluated path. These documents are evaluated with a DOM parser
+     * because WireMock's XPath engine handles them in its own way.
+     */
+    static final class UnsupportedDocumentException extends RuntimeException {
+
+        UnsupportedDocumentException() {
+            super("The document uses namespaces or CDATA sections on the evaluated path", null, false, false);
+        }
+    }
+}
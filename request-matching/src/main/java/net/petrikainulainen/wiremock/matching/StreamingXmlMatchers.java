@@ -0,0 +1,22 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+/**
+ * Provides factory methods that create XPath matchers which read the
+ * request body with a StAX parser when the XPath expression is a simple
+ * absolute path. These methods can be used instead of the factory
+ * methods of the <code>WireMock</code> class that have the same names.
+ */
+public final class StreamingXmlMatchers {
+
+    private StreamingXmlMatchers() {}
+
+    public static StringValuePattern matchingXPath(String xpath) {
+        return new StreamingMatchesXPathPattern(xpath);
+    }
+
+    public static StringValuePattern matchingXPath(String xpath, StringValuePattern valuePattern) {
+        return new StreamingMatchesXPathPattern(xpath, valuePattern);
+    }
+}
@@ -0,0 +1,27 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of stubs that is sent to the bulk import endpoint of the admin
+ * API. The JSON document has the same format as the mapping files of
+ * WireMock: <code>{ "mappings": [ ... ] }</code>.
+ */
+public final class StubImport {
+
+    private final List<StubMapping> mappings;
+
+    @JsonCreator
+    public StubImport(@JsonProperty("mappings") List<StubMapping> mappings) {
+        this.mappings = mappings == null ? new ArrayList<>() : mappings;
+    }
+
+    public List<StubMapping> getMappings() {
+        return mappings;
+    }
+}
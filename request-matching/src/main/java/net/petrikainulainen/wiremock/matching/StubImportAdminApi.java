@@ -0,0 +1,39 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.admin.Router;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.extension.AdminApiExtension;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+
+/**
+ * Adds the route <code>POST /__admin/mappings/bulk-import</code> to the
+ * admin API of WireMock. The route registers every stub of the
+ * {@link StubImport} that is sent in the request body and returns the
+ * number of registered stubs.
+ */
+class StubImportAdminApi implements AdminApiExtension {
+
+    static final String NAME = "stub-import-admin-api";
+    static final String IMPORT_PATH = "/mappings/bulk-import";
+
+    @Override
+    public void contributeAdminApiRoutes(Router router) {
+        router.add(POST, IMPORT_PATH, (admin, request, pathParams) -> {
+            StubImport stubImport = Json.read(request.getBodyAsString(), StubImport.class);
+            for (StubMapping mapping : stubImport.getMappings()) {
+                admin.addStubMapping(mapping);
+            }
+            return ResponseDefinition.okForJson(Collections.singletonMap("imported", stubImport.getMappings().size()));
+        });
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
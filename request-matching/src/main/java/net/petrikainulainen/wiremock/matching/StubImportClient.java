@@ -0,0 +1,69 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sends batches of stubs to a WireMock server whose bulk import endpoint
+ * has been enabled by {@link StubImports}. Registering a batch takes one
+ * HTTP request instead of one request per stub.
+ */
+public final class StubImportClient {
+
+    private final String importUrl;
+
+    public StubImportClient(String host, int port) {
+        this.importUrl = String.format("http://%s:%d/__admin%s", host, port, StubImportAdminApi.IMPORT_PATH);
+    }
+
+    /**
+     * Builds the stubs and registers them as one batch.
+     */
+    public List<StubMapping> importStubs(MappingBuilder... mappingBuilders) {
+        List<StubMapping> mappings = new ArrayList<>(mappingBuilders.length);
+        for (MappingBuilder mappingBuilder : mappingBuilders) {
+            mappings.add(mappingBuilder.build());
+        }
+        importStubs(mappings);
+        return mappings;
+    }
+
+    /**
+     * Registers the stubs as one batch.
+     *
+     * @throws IllegalStateException if the server didn't register the stubs.
+     */
+    public void importStubs(Collection<StubMapping> mappings) {
+        byte[] body = Json.write(new StubImport(new ArrayList<>(mappings))).getBytes(StandardCharsets.UTF_8);
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(importUrl).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IllegalStateException("The server didn't import the stubs. Status code: " + status);
+            }
+            connection.getInputStream().close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot send the stubs to: " + importUrl, e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+/**
+ * Configures a WireMock server to accept batches of stubs from
+ * {@link StubImportClient}. A batch is registered with one admin request,
+ * no matter how many stubs it contains.
+ *
+ * WireMock doesn't allow us to replace the stub registry of a server.
+ * That's why the server registers the stubs of a batch one at a time,
+ * and a request that arrives during the import can see a part of the
+ * batch. {@link IndexedStubMappings#importMappings(java.util.Collection)}
+ * registers a batch atomically.
+ */
+public final class StubImports {
+
+    private StubImports() {}
+
+    /**
+     * Enables the bulk import endpoint and returns the modified configuration.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        return options.extensions(new StubImportAdminApi());
+    }
+}
@@ -0,0 +1,123 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Indexes stubs by their HTTP method and URL so that we can find the
+ * stubs which might match a request without evaluating every stub:
+ *
+ * <ul>
+ *     <li>Stubs that use <code>urlEqualTo()</code> are indexed by method and URL.</li>
+ *     <li>Stubs that use <code>urlPathEqualTo()</code> are indexed by method and URL path.</li>
+ *     <li>Stubs that use <code>urlMatching()</code> or <code>urlPathMatching()</code>
+ *     are indexed by the literal prefix of their regex.</li>
+ *     <li>All other stubs (for example, stubs that use a custom matcher) are
+ *     candidates for every request.</li>
+ * </ul>
+ *
+ * An index is built by one thread, and it isn't modified after it has
+ * been published in a {@link StubSnapshot}. That's why the index can be
+ * read by many threads without synchronization.
+ */
+final class StubIndex {
+
+    /**
+     * The order in which WireMock evaluates stubs: the stub with the highest
+     * priority comes first, and the newest stub wins if the priorities are equal.
+     */
+    static final Comparator<StubMapping> EVALUATION_ORDER = (first, second) -> {
+        int priorityComparison = first.comparePriorityWith(second);
+        return priorityComparison != 0
+                ? priorityComparison
+                : Long.compare(second.getInsertionIndex(), first.getInsertionIndex());
+    };
+
+    private static final String ANY_METHOD = RequestMethod.ANY.getName();
+
+    private final Map<String, Map<UUID, StubMapping>> byMethodAndUrl = new HashMap<>();
+    private final Map<String, Map<UUID, StubMapping>> byMethodAndUrlPath = new HashMap<>();
+    private final UrlPrefixTrie byUrlRegexPrefix = new UrlPrefixTrie();
+    private final UrlPrefixTrie byUrlPathRegexPrefix = new UrlPrefixTrie();
+    private final Map<UUID, StubMapping> unindexed = new HashMap<>();
+
+    void add(StubMapping stub) {
+        RequestPattern pattern = stub.getRequest();
+
+        if (pattern.hasCustomMatcher()) {
+            unindexed.put(stub.getUuid(), stub);
+        }
+        else if (pattern.getUrl() != null) {
+            byMethodAndUrl.computeIfAbsent(key(pattern.getMethod(), pattern.getUrl()), key -> new HashMap<>())
+                    .put(stub.getUuid(), stub);
+        }
+        else if (pattern.getUrlPath() != null) {
+            byMethodAndUrlPath.computeIfAbsent(key(pattern.getMethod(), pattern.getUrlPath()), key -> new HashMap<>())
+                    .put(stub.getUuid(), stub);
+        }
+        else if (pattern.getUrlPattern() != null) {
+            byUrlRegexPrefix.add(LiteralPrefix.of(pattern.getUrlPattern()), stub);
+        }
+        else if (pattern.getUrlPathPattern() != null) {
+            byUrlPathRegexPrefix.add(LiteralPrefix.of(pattern.getUrlPathPattern()), stub);
+        }
+        else {
+            unindexed.put(stub.getUuid(), stub);
+        }
+    }
+
+    /**
+     * Adds the stubs which might match the request to the given collection.
+     * The stubs are added in no particular order.
+     */
+    void collectCandidates(Request request, Collection<StubMapping> candidates) {
+        String method = request.getMethod().getName();
+        String url = request.getUrl();
+        String urlPath = pathOf(url);
+
+        addBucket(byMethodAndUrl, method + " " + url, candidates);
+        addBucket(byMethodAndUrl, ANY_METHOD + " " + url, candidates);
+        addBucket(byMethodAndUrlPath, method + " " + urlPath, candidates);
+        addBucket(byMethodAndUrlPath, ANY_METHOD + " " + urlPath, candidates);
+        byUrlRegexPrefix.collect(url, candidates);
+        byUrlPathRegexPrefix.collect(urlPath, candidates);
+        candidates.addAll(unindexed.values());
+    }
+
+    private static String key(RequestMethod method, String url) {
+        String methodName = method == null ? ANY_METHOD : method.getName();
+        return methodName + " " + url;
+    }
+
+    private static void addBucket(Map<String, Map<UUID, StubMapping>> index,
+                                  String key,
+                                  Collection<StubMapping> candidates) {
+        Map<UUID, StubMapping> bucket = index.get(key);
+        if (bucket != null) {
+            candidates.addAll(bucket.values());
+        }
+    }
+
+    /**
+     * Returns the URL path in the same form as WireMock's
+     * <code>urlPathEqualTo()</code> matcher compares it.
+     */
+    private static String pathOf(String url) {
+        try {
+            return URI.create(url).getRawPath();
+        }
+        catch (IllegalArgumentException e) {
+            int queryStart = url.indexOf('?');
+            return queryStart < 0 ? url : url.substring(0, queryStart);
+        }
+    }
+}
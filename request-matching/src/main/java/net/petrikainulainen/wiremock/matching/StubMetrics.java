@@ -0,0 +1,32 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+/**
+ * Configures a WireMock server to record its metrics in a
+ * {@link StubMetricsRegistry}. The server records the hits of its stubs,
+ * the near misses of the requests that didn't match a stub, and how long
+ * it took to write every response. The near misses are found by a
+ * background thread, so they are recorded shortly after the request. The
+ * metrics can be read from the registry or from the admin API:
+ * <code>GET /__admin/metrics</code>.
+ *
+ * WireMock doesn't allow us to replace the stub registry of a server, and
+ * that's why a server doesn't record how long it took to evaluate its
+ * stubs. This metric is recorded by {@link IndexedStubMappings}.
+ *
+ * This mode replaces the HTTP server factory of the configuration.
+ */
+public final class StubMetrics {
+
+    private StubMetrics() {}
+
+    /**
+     * Enables the metrics and returns the modified configuration.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options, StubMetricsRegistry metrics) {
+        return options
+                .httpServerFactory(new StubMetricsHttpServerFactory(metrics))
+                .extensions(new StubMetricsRecorder(metrics), new StubMetricsAdminApi(metrics));
+    }
+}
@@ -0,0 +1,42 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.admin.Router;
+import com.github.tomakehurst.wiremock.extension.AdminApiExtension;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.DELETE;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+
+/**
+ * Adds the following routes to the admin API of WireMock:
+ *
+ * <ul>
+ *     <li><code>GET /__admin/metrics</code> returns the collected metrics as JSON.</li>
+ *     <li><code>DELETE /__admin/metrics</code> resets the collected metrics.</li>
+ * </ul>
+ */
+class StubMetricsAdminApi implements AdminApiExtension {
+
+    static final String NAME = "stub-metrics-admin-api";
+    static final String METRICS_PATH = "/metrics";
+
+    private final StubMetricsRegistry metrics;
+
+    StubMetricsAdminApi(StubMetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void contributeAdminApiRoutes(Router router) {
+        router.add(GET, METRICS_PATH, (admin, request, pathParams) -> ResponseDefinition.okForJson(metrics.snapshot()));
+        router.add(DELETE, METRICS_PATH, (admin, request, pathParams) -> {
+            metrics.reset();
+            return ResponseDefinition.okEmptyJson();
+        });
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,55 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.jetty9.JettyHttpServer;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+
+import javax.servlet.DispatcherType;
+import java.util.EnumSet;
+
+/**
+ * Creates a Jetty server that installs {@link ResponseWriteTimingFilter}
+ * to the context which serves the stubbed responses.
+ */
+class StubMetricsHttpServerFactory implements HttpServerFactory {
+
+    private static final String FILTER_NAME = "response-write-timing-filter";
+    private static final String MOCK_SERVICE_CONTEXT_PATH = "/";
+
+    private final StubMetricsRegistry metrics;
+
+    StubMetricsHttpServerFactory(StubMetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public HttpServer buildHttpServer(Options options,
+                                      AdminRequestHandler adminRequestHandler,
+                                      StubRequestHandler stubRequestHandler) {
+        return new JettyHttpServer(options, adminRequestHandler, stubRequestHandler) {
+
+            @Override
+            protected HandlerCollection createHandler(Options options,
+                                                      AdminRequestHandler adminRequestHandler,
+                                                      StubRequestHandler stubRequestHandler) {
+                HandlerCollection handlers = super.createHandler(options, adminRequestHandler, stubRequestHandler);
+                for (Handler handler : handlers.getChildHandlersByClass(ServletContextHandler.class)) {
+                    ServletContextHandler context = (ServletContextHandler) handler;
+                    if (MOCK_SERVICE_CONTEXT_PATH.equals(context.getContextPath())) {
+                        FilterHolder holder = new FilterHolder(new ResponseWriteTimingFilter(metrics));
+                        holder.setName(FILTER_NAME);
+                        context.addFilter(holder, "/*", EnumSet.of(DispatcherType.REQUEST));
+                    }
+                }
+                return handlers;
+            }
+        };
+    }
+}
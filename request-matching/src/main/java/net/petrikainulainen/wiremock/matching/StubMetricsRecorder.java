@@ -0,0 +1,81 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.verification.NearMiss;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the hits and the near misses of the stubs that are registered
+ * to a running WireMock server.
+ *
+ * WireMock doesn't report the stubs it evaluated while it was looking for
+ * the stub of a request. That's why this extension asks the server for
+ * the near misses of every request that didn't match a stub. The near
+ * misses of the requests that matched a stub aren't recorded.
+ *
+ * Finding the near misses of a request evaluates every registered stub,
+ * so the serving thread only records that the request didn't match a stub
+ * and hands the request over to a background thread. This means that the
+ * near misses are recorded after the unmatched request, and that they are
+ * found from the stubs that are registered when the background thread
+ * processes the request. If more than {@link #MAX_PENDING_REQUESTS}
+ * requests are waiting for the background thread, the near misses of the
+ * new unmatched requests aren't recorded.
+ */
+class StubMetricsRecorder extends PostServeAction {
+
+    static final String NAME = "stub-metrics-recorder";
+    static final int MAX_PENDING_REQUESTS = 1000;
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private final StubMetricsRegistry metrics;
+    private final ThreadPoolExecutor nearMissFinder;
+
+    StubMetricsRecorder(StubMetricsRegistry metrics) {
+        this.metrics = metrics;
+        this.nearMissFinder = new ThreadPoolExecutor(1, 1,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_REQUESTS),
+                task -> {
+                    Thread thread = new Thread(task, "wiremock-near-miss-finder");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+        this.nearMissFinder.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void doGlobalAction(ServeEvent serveEvent, Admin admin) {
+        if (serveEvent.getResponseDefinition().wasConfigured()) {
+            metrics.recordHit(serveEvent.getStubMapping().getUuid());
+            return;
+        }
+
+        metrics.recordUnmatchedRequest();
+        LoggedRequest request = serveEvent.getRequest();
+        nearMissFinder.execute(() -> recordNearMisses(request, admin));
+    }
+
+    private void recordNearMisses(LoggedRequest request, Admin admin) {
+        for (NearMiss nearMiss : admin.findTopNearMissesFor(request).getNearMisses()) {
+            if (nearMiss.getStubMapping() != null
+                    && nearMiss.getMatchResult().getDistance() < StubMetricsRegistry.NEAR_MISS_THRESHOLD) {
+                metrics.recordNearMiss(nearMiss.getStubMapping().getUuid());
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
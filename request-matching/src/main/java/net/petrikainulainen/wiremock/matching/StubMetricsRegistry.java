@@ -0,0 +1,247 @@
+package net.petrikainulainen.wiremock.matching;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics that describe how expensive it was to find the stubs
+ * of the served requests and to write their responses:
+ *
+ * <ul>
+ *     <li>How many times every stub was evaluated, matched a request, or
+ *     was a near miss.</li>
+ *     <li>How long it took to evaluate the candidate stubs of a request.</li>
+ *     <li>How long it took to write a response after the server started
+ *     writing it.</li>
+ * </ul>
+ *
+ * A stub is a near miss if it didn't match a request, but its distance
+ * from the request is smaller than {@link #NEAR_MISS_THRESHOLD}. A stub
+ * that matches a request but not the state of its scenario is a near miss
+ * as well. The registry is thread-safe, and recording a metric doesn't
+ * take a lock. The metrics can be read from the methods of this class,
+ * from JMX after {@link #registerMBean(String)} has been invoked, or from
+ * the admin API that is enabled by {@link StubMetrics}.
+ */
+public final class StubMetricsRegistry implements StubMetricsRegistryMXBean {
+
+    public static final double NEAR_MISS_THRESHOLD = 0.5;
+
+    private static final String OBJECT_NAME_PREFIX = "net.petrikainulainen.wiremock:type=StubMetrics,name=";
+
+    private final ConcurrentMap<UUID, StubCounters> stubs = new ConcurrentHashMap<>();
+    private final LongAdder matchedRequestCount = new LongAdder();
+    private final LongAdder unmatchedRequestCount = new LongAdder();
+    private final LongAdder nearMissCount = new LongAdder();
+    private final LongAdder evaluatedStubCount = new LongAdder();
+    private final LatencyHistogram matchEvaluationTimes = new LatencyHistogram();
+    private final LatencyHistogram responseWriteTimes = new LatencyHistogram();
+
+    /**
+     * Records that the stub was evaluated against a request.
+     */
+    public void recordEvaluation(UUID stubId) {
+        evaluatedStubCount.increment();
+        countersOf(stubId).evaluations.increment();
+    }
+
+    /**
+     * Records that the stub was a near miss of a request.
+     */
+    public void recordNearMiss(UUID stubId) {
+        nearMissCount.increment();
+        countersOf(stubId).nearMisses.increment();
+    }
+
+    /**
+     * Records that the stub was used to serve a request.
+     */
+    public void recordHit(UUID stubId) {
+        matchedRequestCount.increment();
+        countersOf(stubId).hits.increment();
+    }
+
+    /**
+     * Records that no stub matched a request.
+     */
+    public void recordUnmatchedRequest() {
+        unmatchedRequestCount.increment();
+    }
+
+    /**
+     * Records how long it took to evaluate the candidate stubs of a request.
+     */
+    public void recordMatchEvaluation(long nanos) {
+        matchEvaluationTimes.record(nanos);
+    }
+
+    /**
+     * Records how long it took to write a response.
+     */
+    public void recordResponseWrite(long nanos) {
+        responseWriteTimes.record(nanos);
+    }
+
+    public long hitCount(UUID stubId) {
+        StubCounters counters = stubs.get(stubId);
+        return counters == null ? 0 : counters.hits.sum();
+    }
+
+    public long nearMissCount(UUID stubId) {
+        StubCounters counters = stubs.get(stubId);
+        return counters == null ? 0 : counters.nearMisses.sum();
+    }
+
+    public long evaluationCount(UUID stubId) {
+        StubCounters counters = stubs.get(stubId);
+        return counters == null ? 0 : counters.evaluations.sum();
+    }
+
+    public LatencyHistogram matchEvaluationTimes() {
+        return matchEvaluationTimes;
+    }
+
+    public LatencyHistogram responseWriteTimes() {
+        return responseWriteTimes;
+    }
+
+    @Override
+    public long getMatchedRequestCount() {
+        return matchedRequestCount.sum();
+    }
+
+    @Override
+    public long getUnmatchedRequestCount() {
+        return unmatchedRequestCount.sum();
+    }
+
+    @Override
+    public long getNearMissCount() {
+        return nearMissCount.sum();
+    }
+
+    @Override
+    public long getEvaluatedStubCount() {
+        return evaluatedStubCount.sum();
+    }
+
+    @Override
+    public long getMeanMatchEvaluationNanos() {
+        return matchEvaluationTimes.meanNanos();
+    }
+
+    @Override
+    public long getP99MatchEvaluationNanos() {
+        return matchEvaluationTimes.percentileNanos(99);
+    }
+
+    @Override
+    public long getMaxMatchEvaluationNanos() {
+        return matchEvaluationTimes.maxNanos();
+    }
+
+    @Override
+    public long getMeanResponseWriteNanos() {
+        return responseWriteTimes.meanNanos();
+    }
+
+    @Override
+    public long getP99ResponseWriteNanos() {
+        return responseWriteTimes.percentileNanos(99);
+    }
+
+    @Override
+    public long getMaxResponseWriteNanos() {
+        return responseWriteTimes.maxNanos();
+    }
+
+    /**
+     * Forgets the collected metrics. Metrics that are recorded while the
+     * registry is reset can be lost.
+     */
+    @Override
+    public void reset() {
+        stubs.clear();
+        matchedRequestCount.reset();
+        unmatchedRequestCount.reset();
+        nearMissCount.reset();
+        evaluatedStubCount.reset();
+        matchEvaluationTimes.reset();
+        responseWriteTimes.reset();
+    }
+
+    /**
+     * Registers this registry to the platform MBean server and returns the
+     * name of the registered MBean.
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Cannot register the stub metrics: " + name, e);
+        }
+    }
+
+    /**
+     * Removes this registry from the platform MBean server.
+     */
+    public void unregisterMBean(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister the stub metrics: " + objectName, e);
+        }
+    }
+
+    /**
+     * Returns the collected metrics as a map that can be written as JSON.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("matchedRequests", getMatchedRequestCount());
+        snapshot.put("unmatchedRequests", getUnmatchedRequestCount());
+        snapshot.put("nearMisses", getNearMissCount());
+        snapshot.put("evaluatedStubs", getEvaluatedStubCount());
+        snapshot.put("matchEvaluation", matchEvaluationTimes.toMap());
+        snapshot.put("responseWrite", responseWriteTimes.toMap());
+
+        List<Map<String, Object>> stubSnapshots = new ArrayList<>();
+        stubs.forEach((id, counters) -> {
+            Map<String, Object> stub = new LinkedHashMap<>();
+            stub.put("id", id.toString());
+            stub.put("hits", counters.hits.sum());
+            stub.put("nearMisses", counters.nearMisses.sum());
+            stub.put("evaluations", counters.evaluations.sum());
+            stubSnapshots.add(stub);
+        });
+        snapshot.put("stubs", stubSnapshots);
+        return snapshot;
+    }
+
+    private StubCounters countersOf(UUID stubId) {
+        StubCounters counters = stubs.get(stubId);
+        return counters != null ? counters : stubs.computeIfAbsent(stubId, id -> new StubCounters());
+    }
+
+    private static final class StubCounters {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder nearMisses = new LongAdder();
+        private final LongAdder evaluations = new LongAdder();
+    }
+}
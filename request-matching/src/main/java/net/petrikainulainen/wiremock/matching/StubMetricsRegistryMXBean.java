@@ -0,0 +1,30 @@
+package net.petrikainulainen.wiremock.matching;
+
+/**
+ * The attributes and operations of {@link StubMetricsRegistry} that can be
+ * read and invoked by using JMX. The durations are given in nanoseconds.
+ */
+public interface StubMetricsRegistryMXBean {
+
+    long getMatchedRequestCount();
+
+    long getUnmatchedRequestCount();
+
+    long getNearMissCount();
+
+    long getEvaluatedStubCount();
+
+    long getMeanMatchEvaluationNanos();
+
+    long getP99MatchEvaluationNanos();
+
+    long getMaxMatchEvaluationNanos();
+
+    long getMeanResponseWriteNanos();
+
+    long getP99ResponseWriteNanos();
+
+    long getMaxResponseWriteNanos();
+
+    void reset();
+}
@@ -0,0 +1,187 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An immutable set of registered stubs and their index. Every method that
+ * modifies the stub registry returns a new snapshot, and the snapshot that
+ * was read by a request cannot change while the request is being matched.
+ *
+ * Rebuilding the whole index every time a stub is added would make
+ * registering stubs one at a time take quadratic time. That's why a
+ * snapshot has two parts:
+ *
+ * <ul>
+ *     <li>The base contains most stubs. Its index is rebuilt only when
+ *     the snapshot is compacted.</li>
+ *     <li>The changes contain the stubs that were added and the base stubs
+ *     that were removed after the last compaction. Every new snapshot copies
+ *     and reindexes the changes.</li>
+ * </ul>
+ *
+ * A snapshot is compacted when the number of changes exceeds the square
+ * root of the number of base stubs. This keeps both the cost of a change
+ * and the number of changes that must be checked per request proportional
+ * to the square root of the number of stubs.
+ */
+final class StubSnapshot {
+
+    private static final int MINIMUM_COMPACTION_THRESHOLD = 64;
+
+    static final StubSnapshot EMPTY = compacted(ImmutableList.of());
+
+    private final List<StubMapping> baseMappings;
+    private final Set<UUID> baseIds;
+    private final StubIndex baseIndex;
+    private final Set<UUID> removedFromBase;
+    private final List<StubMapping> addedMappings;
+    private final StubIndex addedIndex;
+
+    private StubSnapshot(List<StubMapping> baseMappings,
+                         Set<UUID> baseIds,
+                         StubIndex baseIndex,
+                         Set<UUID> removedFromBase,
+                         List<StubMapping> addedMappings,
+                         StubIndex addedIndex) {
+        this.baseMappings = baseMappings;
+        this.baseIds = baseIds;
+        this.baseIndex = baseIndex;
+        this.removedFromBase = removedFromBase;
+        this.addedMappings = addedMappings;
+        this.addedIndex = addedIndex;
+    }
+
+    /**
+     * Returns a snapshot that contains the stubs of this snapshot and the
+     * given stub.
+     */
+    StubSnapshot withAdded(StubMapping mapping) {
+        List<StubMapping> added = new ArrayList<>(addedMappings.size() + 1);
+        added.addAll(addedMappings);
+        added.add(mapping);
+        return withChanges(removedFromBase, added);
+    }
+
+    /**
+     * Returns a compacted snapshot that contains the stubs of this snapshot
+     * and the given stubs.
+     */
+    StubSnapshot withAll(Collection<StubMapping> mappings) {
+        List<StubMapping> all = new ArrayList<>(size() + mappings.size());
+        Iterables.addAll(all, mappings());
+        all.addAll(mappings);
+        return compacted(all);
+    }
+
+    /**
+     * Returns a snapshot that doesn't contain the stub that has the same
+     * id as the given stub.
+     */
+    StubSnapshot without(StubMapping mapping) {
+        UUID id = mapping.getUuid();
+
+        List<StubMapping> added = new ArrayList<>(addedMappings);
+        if (added.removeIf(existing -> existing.getUuid().equals(id))) {
+            return withChanges(removedFromBase, added);
+        }
+
+        if (baseIds.contains(id) && !removedFromBase.contains(id)) {
+            Set<UUID> removed = ImmutableSet.<UUID>builder().addAll(removedFromBase).add(id).build();
+            return withChanges(removed, addedMappings);
+        }
+        return this;
+    }
+
+    /**
+     * Returns a snapshot in which the existing stub has been replaced
+     * with the given stub.
+     */
+    StubSnapshot withReplaced(StubMapping existing, StubMapping replacement) {
+        return without(existing).withAdded(replacement);
+    }
+
+    /**
+     * Returns the stubs which might match the request in the order in
+     * which they must be evaluated.
+     */
+    List<StubMapping> findCandidates(Request request) {
+        List<StubMapping> candidates = new ArrayList<>();
+        baseIndex.collectCandidates(request, candidates);
+        if (!removedFromBase.isEmpty()) {
+            candidates.removeIf(candidate -> removedFromBase.contains(candidate.getUuid()));
+        }
+        addedIndex.collectCandidates(request, candidates);
+
+        candidates.sort(StubIndex.EVALUATION_ORDER);
+        return candidates;
+    }
+
+    /**
+     * Returns the stubs of this snapshot in no particular order.
+     */
+    Iterable<StubMapping> mappings() {
+        Iterable<StubMapping> base = removedFromBase.isEmpty()
+                ? baseMappings
+                : Iterables.filter(baseMappings, mapping -> !removedFromBase.contains(mapping.getUuid()));
+        return Iterables.concat(base, addedMappings);
+    }
+
+    /**
+     * Returns the stubs of this snapshot in the order in which they are evaluated.
+     */
+    List<StubMapping> sortedMappings() {
+        return Ordering.from(StubIndex.EVALUATION_ORDER).immutableSortedCopy(mappings());
+    }
+
+    int size() {
+        return baseMappings.size() - removedFromBase.size() + addedMappings.size();
+    }
+
+    private StubSnapshot withChanges(Set<UUID> removed, List<StubMapping> added) {
+        int compactionThreshold = Math.max(MINIMUM_COMPACTION_THRESHOLD, (int) Math.sqrt(baseMappings.size()));
+        if (removed.size() + added.size() > compactionThreshold) {
+            List<StubMapping> all = new ArrayList<>(baseMappings.size() - removed.size() + added.size());
+            for (StubMapping mapping : baseMappings) {
+                if (!removed.contains(mapping.getUuid())) {
+                    all.add(mapping);
+                }
+            }
+            all.addAll(added);
+            return compacted(all);
+        }
+
+        StubIndex index = new StubIndex();
+        for (StubMapping mapping : added) {
+            index.add(mapping);
+        }
+        return new StubSnapshot(baseMappings, baseIds, baseIndex, removed, ImmutableList.copyOf(added), index);
+    }
+
+    private static StubSnapshot compacted(List<StubMapping> mappings) {
+        Set<UUID> ids = new HashSet<>(mappings.size() * 2);
+        StubIndex index = new StubIndex();
+        for (StubMapping mapping : mappings) {
+            ids.add(mapping.getUuid());
+            index.add(mapping);
+        }
+        return new StubSnapshot(ImmutableList.copyOf(mappings),
+                ids,
+                index,
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                new StubIndex()
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A character trie that stores stubs by the literal prefix of their
+ * URL regex. When we look up the stubs of a URL, we walk the trie
+ * along the characters of the URL and collect the stubs of every
+ * node we visit. The collected stubs are the only stubs whose
+ * regex can match the URL.
+ */
+final class UrlPrefixTrie {
+
+    private final Node root = new Node();
+
+    void add(String prefix, StubMapping stub) {
+        Node node = root;
+        for (int index = 0; index < prefix.length(); index++) {
+            node = node.children.computeIfAbsent(prefix.charAt(index), character -> new Node());
+        }
+        node.stubs.put(stub.getUuid(), stub);
+    }
+
+    void collect(String url, Collection<StubMapping> candidates) {
+        Node node = root;
+        int index = 0;
+        while (node != null) {
+            candidates.addAll(node.stubs.values());
+            node = index < url.length() ? node.children.get(url.charAt(index++)) : null;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<UUID, StubMapping> stubs = new HashMap<>();
+    }
+}
@@ -1,8 +1,10 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.apache.commons.codec.binary.Base64;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
@@ -21,39 +23,39 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Compare the actual header value with the expected header value")
 class BasicAuthMatchingTest {
 
+    private static final HttpEntity<String> HTTP_REQUEST = createHttpRequest();
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Test
     @DisplayName("Should ensure that request has correct username and password")
     void shouldEnsureThatRequestHasCorrectUsernameAndPassword() {
-        givenThat(get(urlEqualTo("/api/message?id=1"))
+        wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                 .withBasicAuth("username", "password")
                 .willReturn(aResponse().withStatus(200))
         );
 
         String apiMethodUrl = buildApiMethodUrl(1L);
-        HttpEntity<String> httpRequest = createHttpRequest();
 
         ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                 HttpMethod.GET,
-                httpRequest,
+                HTTP_REQUEST,
                 String.class
         );
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
-    private HttpEntity<String> createHttpRequest() {
+    private static HttpEntity<String> createHttpRequest() {
         HttpHeaders headers = new HttpHeaders();
 
         String auth = "username:password";
@@ -62,15 +64,10 @@ class BasicAuthMatchingTest {
         String authHeader = "Basic " + new String( encodedAuth );
         headers.set( "Authorization", authHeader );
 
-        return new HttpEntity<>(headers);
+        return new HttpEntity<>(HttpHeaders.readOnlyHttpHeaders(headers));
     }
 
     private String buildApiMethodUrl(Long messageId) {
-        return String.format("http://localhost:%d/api/message?id=%d", this.wireMockServer.port(), messageId);
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message?id=%d", wireMock.port(), messageId);
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
@@ -18,17 +20,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Compare the actual header value with the expected header value")
 class HeaderMatchingTest {
 
+    private static final HttpEntity<String> HTTP_REQUEST = createHttpRequest();
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -38,17 +41,16 @@ class HeaderMatchingTest {
         @Test
         @DisplayName("Should compare the actual value with the exact expected value")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlEqualTo("/api/message?id=1"))
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                     .withHeader("Accept", equalTo(MediaType.APPLICATION_JSON_UTF8_VALUE))
                     .willReturn(aResponse().withStatus(200))
             );
 
             String apiMethodUrl = buildApiMethodUrl(1L);
-            HttpEntity<String> httpRequest = createHttpRequest();
 
             ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                     HttpMethod.GET,
-                    httpRequest,
+                    HTTP_REQUEST,
                     String.class
             );
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -62,17 +64,16 @@ class HeaderMatchingTest {
         @Test
         @DisplayName("Should compare the actual value with the exact expected value")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlEqualTo("/api/message?id=1"))
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                     .withHeader("Accept", equalToIgnoreCase(MediaType.APPLICATION_JSON_UTF8_VALUE.toUpperCase()))
                     .willReturn(aResponse().withStatus(200))
             );
 
             String apiMethodUrl = buildApiMethodUrl(1L);
-            HttpEntity<String> httpRequest = createHttpRequest();
 
             ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                     HttpMethod.GET,
-                    httpRequest,
+                    HTTP_REQUEST,
                     String.class
             );
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -86,17 +87,16 @@ class HeaderMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value contains the expected value")
         void shouldEnsureThatActualValueContainsExpectedValue() {
-            givenThat(get(urlEqualTo("/api/message?id=1"))
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                     .withHeader("Accept", containing("/json"))
                     .willReturn(aResponse().withStatus(200))
             );
 
             String apiMethodUrl = buildApiMethodUrl(1L);
-            HttpEntity<String> httpRequest = createHttpRequest();
 
             ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                     HttpMethod.GET,
-                    httpRequest,
+                    HTTP_REQUEST,
                     String.class
             );
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -110,17 +110,16 @@ class HeaderMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value matches with the given regex")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlEqualTo("/api/message?id=1"))
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                     .withHeader("Accept", matching("application/([a-z]{4});charset=UTF-8"))
                     .willReturn(aResponse().withStatus(200))
             );
 
             String apiMethodUrl = buildApiMethodUrl(1L);
-            HttpEntity<String> httpRequest = createHttpRequest();
 
             ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                     HttpMethod.GET,
-                    httpRequest,
+                    HTTP_REQUEST,
                     String.class
             );
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -134,36 +133,30 @@ class HeaderMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value doesn't match with the given regex")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlEqualTo("/api/message?id=1"))
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1"))
                     .withHeader("Accept", notMatching("application/([a-z]{1});charset=UTF-8"))
                     .willReturn(aResponse().withStatus(200))
             );
 
             String apiMethodUrl = buildApiMethodUrl(1L);
-            HttpEntity<String> httpRequest = createHttpRequest();
 
             ResponseEntity<String> response = restTemplate.exchange(apiMethodUrl,
                     HttpMethod.GET,
-                    httpRequest,
+                    HTTP_REQUEST,
                     String.class
             );
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         }
     }
 
-    private HttpEntity<String> createHttpRequest() {
+    private static HttpEntity<String> createHttpRequest() {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON_UTF8));
 
-        return new HttpEntity<>(headers);
+        return new HttpEntity<>(HttpHeaders.readOnlyHttpHeaders(headers));
     }
 
     private String buildApiMethodUrl(Long messageId) {
-        return String.format("http://localhost:%d/api/message?id=%d", this.wireMockServer.port(), messageId);
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message?id=%d", wireMock.port(), messageId);
     }
 }
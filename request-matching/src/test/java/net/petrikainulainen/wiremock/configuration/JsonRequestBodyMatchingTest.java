@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -19,17 +21,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Specify expectations for a JSON document")
 class JsonRequestBodyMatchingTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -43,7 +44,7 @@ class JsonRequestBodyMatchingTest {
             @Test
             @DisplayName("Should compare the actual request body with the expected request body")
             void shouldCompareActualRequestBodyWithExpectedRequestBody() {
-                givenThat(post(urlEqualTo("/api/message"))
+                wireMock.givenThat(post(urlEqualTo("/api/message"))
                         .withRequestBody(equalToJson("{\"message\": \"Hello World!\"}"))
                         .willReturn(aResponse().withStatus(200))
                 );
@@ -67,7 +68,7 @@ class JsonRequestBodyMatchingTest {
             @Test
             @DisplayName("Should compare the sactual request body with the expected request body")
             void shouldCompareActualRequestBodyWithExpectedRequestBody() {
-                givenThat(post(urlEqualTo("/api/message"))
+                wireMock.givenThat(post(urlEqualTo("/api/message"))
                         .withRequestBody(equalToJson("{\"message\": \"Hello World!\"}", false, true))
                         .willReturn(aResponse().withStatus(200))
                 );
@@ -91,7 +92,7 @@ class JsonRequestBodyMatchingTest {
             @Test
             @DisplayName("Should compare the actual request body with the expected request body")
             void shouldCompareActualRequestBodyWithExpectedRequestBody() {
-                givenThat(post(urlEqualTo("/api/message"))
+                wireMock.givenThat(post(urlEqualTo("/api/message"))
                         .withRequestBody(equalToJson("{\"messages\": [\"Hello World!\", \"foobar\"]}", true, false))
                         .willReturn(aResponse().withStatus(200))
                 );
@@ -116,7 +117,7 @@ class JsonRequestBodyMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual request body contains an attribute")
         void shouldEnsureThatActualRequestBodyContainsAttribute() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(matchingJsonPath("$.message"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -144,7 +145,7 @@ class JsonRequestBodyMatchingTest {
             @Test
             @DisplayName("Should ensure that the actual request body has an attribute with the expected value")
             void shouldEnsureThatActualRequestBodyHasAttributeWithExpectedValue() {
-                givenThat(post(urlEqualTo("/api/message"))
+                wireMock.givenThat(post(urlEqualTo("/api/message"))
                         .withRequestBody(matchingJsonPath("$.[?(@.message == 'Hello World!')]"))
                         .willReturn(aResponse().withStatus(200))
                 );
@@ -172,7 +173,7 @@ class JsonRequestBodyMatchingTest {
                 @Test
                 @DisplayName("Should ensure that the actual request body has an attribute with the expected value")
                 void shouldEnsureThatActualRequestBodyHasAttributeWithExpectedValue() {
-                    givenThat(post(urlEqualTo("/api/message"))
+                    wireMock.givenThat(post(urlEqualTo("/api/message"))
                             .withRequestBody(matchingJsonPath("$.message", equalTo("Hello World!")))
                             .willReturn(aResponse().withStatus(200))
                     );
@@ -196,7 +197,7 @@ class JsonRequestBodyMatchingTest {
                 @Test
                 @DisplayName("Should ensure that the actual request body has an attribute with the expected sub-document")
                 void shouldEnsureThatActualRequestBodyHasAttributeWithExpectedSubDocument() {
-                    givenThat(post(urlEqualTo("/api/message"))
+                    wireMock.givenThat(post(urlEqualTo("/api/message"))
                             .withRequestBody(matchingJsonPath("$.message", equalToJson("{\"name\": \"Petri\", \"text\": \"Hello World!\"}")))
                             .willReturn(aResponse().withStatus(200))
                     );
@@ -225,7 +226,7 @@ class JsonRequestBodyMatchingTest {
         @Test
         @DisplayName("Should ensure that the attribute size is equal to the expected value")
         void shouldEnsureThatActualRequestBodyHasAttributeWithExpectedValue() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(matchingJsonPath("$[?(@.messages.size() == 1)]"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -243,11 +244,6 @@ class JsonRequestBodyMatchingTest {
     }
 
     private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -17,17 +19,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Compare the actual HTTP request with the expected request method")
 class RequestMethodMatchingTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -37,7 +38,7 @@ class RequestMethodMatchingTest {
         @Test
         @DisplayName("Should compare the actual request method with the expected request method")
         void shouldCompareActualRequestMethodWithExpectedRequestMethod() {
-            givenThat(get(anyUrl()).willReturn(aResponse()
+            wireMock.givenThat(get(anyUrl()).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -54,7 +55,7 @@ class RequestMethodMatchingTest {
         @Test
         @DisplayName("Should ignore request method")
         void shouldIgnoreRequestMethod() {
-            givenThat(any(anyUrl()).willReturn(aResponse()
+            wireMock.givenThat(any(anyUrl()).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -65,11 +66,6 @@ class RequestMethodMatchingTest {
     }
 
     private String buildApiMethodUrl(Long messageId) {
-        return String.format("http://localhost:%d/api/message?id=%d", this.wireMockServer.port(), messageId);
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message?id=%d", wireMock.port(), messageId);
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
@@ -17,17 +19,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Compare the actual request parameter value with the expected request parameter value")
 class RequestParameterMatchingTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -37,7 +38,7 @@ class RequestParameterMatchingTest {
         @Test
         @DisplayName("Should compare the actual value with the exact expected value")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlPathEqualTo("/api/message"))
+            wireMock.givenThat(get(urlPathEqualTo("/api/message"))
                     .withQueryParam("searchTerm", equalTo("foobar"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -56,7 +57,7 @@ class RequestParameterMatchingTest {
         @Test
         @DisplayName("Should compare the actual value with the exact expected value")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlPathEqualTo("/api/message"))
+            wireMock.givenThat(get(urlPathEqualTo("/api/message"))
                     .withQueryParam("searchTerm", equalToIgnoreCase("FOOBAR"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -75,7 +76,7 @@ class RequestParameterMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value contains the expected value")
         void shouldEnsureThatActualValueContainsExpectedValue() {
-            givenThat(get(urlPathEqualTo("/api/message"))
+            wireMock.givenThat(get(urlPathEqualTo("/api/message"))
                     .withQueryParam("searchTerm", containing("oba"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -94,7 +95,7 @@ class RequestParameterMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value matches with the given regex")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlPathEqualTo("/api/message"))
+            wireMock.givenThat(get(urlPathEqualTo("/api/message"))
                     .withQueryParam("searchTerm", matching("fo([a-z]{3})r"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -113,7 +114,7 @@ class RequestParameterMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual value doesn't match with the given regex")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlPathEqualTo("/api/message"))
+            wireMock.givenThat(get(urlPathEqualTo("/api/message"))
                     .withQueryParam("searchTerm", notMatching("fo([a-z]{1})r"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -126,11 +127,6 @@ class RequestParameterMatchingTest {
     }
 
     private String buildApiMethodUrl(String searchTerm) {
-        return String.format("http://localhost:%d/api/message?searchTerm=%s", this.wireMockServer.port(), searchTerm);
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message?searchTerm=%s", wireMock.port(), searchTerm);
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -17,17 +19,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Compare the actual URL with the expected URL")
 class UrlMatchingTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -37,7 +38,7 @@ class UrlMatchingTest {
         @Test
         @DisplayName("Should compare the actual URL with the exact expected URL")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlEqualTo("/api/message?id=1")).willReturn(aResponse()
+            wireMock.givenThat(get(urlEqualTo("/api/message?id=1")).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -49,7 +50,7 @@ class UrlMatchingTest {
         @Test
         @DisplayName("Should compare the actual URL with the expected URL regex")
         void shouldCompareActualUrlWithExpectedUrlRegex() {
-            givenThat(get(urlMatching("/api/([a-z]*)\\?id=1")).willReturn(aResponse()
+            wireMock.givenThat(get(urlMatching("/api/([a-z]*)\\?id=1")).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -66,7 +67,7 @@ class UrlMatchingTest {
         @Test
         @DisplayName("Should compare the actual URL path with the exact expected URL path")
         void shouldCompareActualUrlWithExactExpectedUrl() {
-            givenThat(get(urlPathEqualTo("/api/message")).willReturn(aResponse()
+            wireMock.givenThat(get(urlPathEqualTo("/api/message")).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -78,7 +79,7 @@ class UrlMatchingTest {
         @Test
         @DisplayName("Should compare the actual URL path with the expected URL path regex")
         void shouldCompareActualUrlWithExpectedUrlRegex() {
-            givenThat(get(urlPathMatching("/api/([a-z]*)")).willReturn(aResponse()
+            wireMock.givenThat(get(urlPathMatching("/api/([a-z]*)")).willReturn(aResponse()
                     .withStatus(200))
             );
 
@@ -89,11 +90,6 @@ class UrlMatchingTest {
     }
 
     private String buildApiMethodUrl(Long messageId) {
-        return String.format("http://localhost:%d/api/message?id=%d", this.wireMockServer.port(), messageId);
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message?id=%d", wireMock.port(), messageId);
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.configuration;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -19,17 +21,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Specify expectations for an XML document")
 class XmlRequestBodyMatchingTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -39,7 +40,7 @@ class XmlRequestBodyMatchingTest {
         @Test
         @DisplayName("Should compare the actual request body with the expected request body")
         void shouldCompareActualRequestBodyWithExpectedRequestBody() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(equalToXml("<message>Hello World!</message>"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -63,7 +64,7 @@ class XmlRequestBodyMatchingTest {
         @Test
         @DisplayName("Should ensure that the actual request body contains an element")
         void shouldEnsureThatActualRequestBodyContainsElement() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(matchingXPath("/message"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -91,7 +92,7 @@ class XmlRequestBodyMatchingTest {
             @Test
             @DisplayName("Should ensure that the actual request body has an element with the expected value")
             void shouldEnsureThatActualRequestBodyHasElementWithExpectedValue() {
-                givenThat(post(urlEqualTo("/api/message"))
+                wireMock.givenThat(post(urlEqualTo("/api/message"))
                         .withRequestBody(matchingXPath("/message[text()='Hello World!']"))
                         .willReturn(aResponse().withStatus(200))
                 );
@@ -119,7 +120,7 @@ class XmlRequestBodyMatchingTest {
                 @Test
                 @DisplayName("Should ensure that the actual request body has an element with the expected value")
                 void shouldEnsureThatActualRequestBodyHasElementWithExpectedValue() {
-                    givenThat(post(urlEqualTo("/api/message"))
+                    wireMock.givenThat(post(urlEqualTo("/api/message"))
                             .withRequestBody(matchingXPath("/message/text()", equalTo("Hello World!")))
                             .willReturn(aResponse().withStatus(200))
                     );
@@ -143,7 +144,7 @@ class XmlRequestBodyMatchingTest {
                 @Test
                 @DisplayName("Should ensure that the actual request body has an element with the expected sub-document")
                 void shouldEnsureThatActualRequestBodyHasElementWithExpectedSubDocument() {
-                    givenThat(post(urlEqualTo("/api/message"))
+                    wireMock.givenThat(post(urlEqualTo("/api/message"))
                             .withRequestBody(matchingXPath("/message/name", equalToXml("<name>Petri</name>")))
                             .willReturn(aResponse().withStatus(200))
                     );
@@ -173,7 +174,7 @@ class XmlRequestBodyMatchingTest {
         @Test
         @DisplayName("Should ensure that the document has X elements")
         void shouldEnsureThatActualRequestBodyHasXElements() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(matchingXPath("/messages[count(message)=1]"))
                     .willReturn(aResponse().withStatus(200))
             );
@@ -197,7 +198,7 @@ class XmlRequestBodyMatchingTest {
         @Test
         @DisplayName("Should compare the actual request body with the expected request body")
         void shouldCompareActualRequestBodyWithExpectedRequestBody() {
-            givenThat(post(urlEqualTo("/api/message"))
+            wireMock.givenThat(post(urlEqualTo("/api/message"))
                     .withRequestBody(matchingXPath("/sample:message[text()='Hello World!']")
                             .withXPathNamespace("sample", "http://www.example.com")
                     )
@@ -219,11 +220,6 @@ class XmlRequestBodyMatchingTest {
     }
 
     private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
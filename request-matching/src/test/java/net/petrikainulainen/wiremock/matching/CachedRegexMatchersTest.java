@@ -0,0 +1,171 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.matching.RegexPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.junit.jupiter.api.*;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can use regex matchers that share
+ * their compiled regular expressions.
+ */
+@DisplayName("Use regex matchers that share their compiled regular expressions")
+class CachedRegexMatchersTest {
+
+    @Nested
+    @DisplayName("When the regex is compiled")
+    class WhenRegexIsCompiled {
+
+        @Test
+        @DisplayName("Should return the cached regex when the same regex is compiled again")
+        void shouldReturnCachedRegexWhenSameRegexIsCompiledAgain() {
+            RegexPatternCache cache = new RegexPatternCache(10);
+
+            CompiledRegex first = cache.get("fo([a-z]{3})r");
+            CompiledRegex second = cache.get("fo([a-z]{3})r");
+
+            assertThat(second).isSameAs(first);
+            assertThat(cache.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently used regex when the cache is full")
+        void shouldEvictLeastRecentlyUsedRegexWhenCacheIsFull() {
+            RegexPatternCache cache = new RegexPatternCache(2);
+            CompiledRegex first = cache.get("first.*");
+            CompiledRegex second = cache.get("second.*");
+
+            cache.get("first.*");
+            cache.get("third.*");
+
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(cache.get("first.*")).isSameAs(first);
+            assertThat(cache.get("second.*")).isNotSameAs(second);
+        }
+
+        @Test
+        @DisplayName("Should find the literal prefix of the regex")
+        void shouldFindLiteralPrefixOfRegex() {
+            assertThat(new CompiledRegex("/api/([a-z]*)\\?id=1").getLiteralPrefix()).isEqualTo("/api/");
+            assertThat(new CompiledRegex("fo([a-z]{3})r").getLiteralPrefix()).isEqualTo("fo");
+            assertThat(new CompiledRegex("/api/messages?").getLiteralPrefix()).isEqualTo("/api/message");
+            assertThat(new CompiledRegex("/api/(.*)|/v2/(.*)").getLiteralPrefix()).isEmpty();
+            assertThat(new CompiledRegex("(?i)/API/.*").getLiteralPrefix()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("When we want to ensure that the actual value matches with the given regex")
+    class WhenWeWantToEnsureThatActualValueMatchesWithRegex {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matching() matcher")
+        void shouldReturnSameResultAsWireMockMatcher() {
+            assertSameResult(CachedRegexMatchers.matching("fo([a-z]{3})r"), WireMock.matching("fo([a-z]{3})r"));
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's urlMatching() matcher")
+        void shouldReturnSameResultAsWireMockUrlMatcher() {
+            UrlPattern cached = CachedRegexMatchers.urlMatching("/api/([a-z]*)\\?id=1");
+            UrlPattern original = WireMock.urlMatching("/api/([a-z]*)\\?id=1");
+
+            for (String url : new String[]{"/api/message?id=1", "/api/message?id=2", "/v2/message?id=1"}) {
+                assertThat(cached.match(url).isExactMatch()).isEqualTo(original.match(url).isExactMatch());
+            }
+        }
+
+        @Test
+        @DisplayName("Should be serialized in the same way as WireMock's matching() matcher")
+        void shouldBeSerializedInSameWayAsWireMockMatcher() {
+            assertThat(Json.write(CachedRegexMatchers.matching("fo([a-z]{3})r")))
+                    .isEqualTo(Json.write(WireMock.matching("fo([a-z]{3})r")));
+        }
+    }
+
+    @Nested
+    @DisplayName("When we want to ensure that the actual value doesn't match with the given regex")
+    class WhenWeWantToEnsureThatActualValueDoesNotMatchWithRegex {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's notMatching() matcher")
+        void shouldReturnSameResultAsWireMockMatcher() {
+            assertSameResult(CachedRegexMatchers.notMatching("fo([a-z]{1})r"), WireMock.notMatching("fo([a-z]{1})r"));
+        }
+
+        @Test
+        @DisplayName("Should be serialized in the same way as WireMock's notMatching() matcher")
+        void shouldBeSerializedInSameWayAsWireMockMatcher() {
+            assertThat(Json.write(CachedRegexMatchers.notMatching("fo([a-z]{1})r")))
+                    .isEqualTo(Json.write(WireMock.notMatching("fo([a-z]{1})r")));
+        }
+    }
+
+    /**
+     * A cached matcher is serialized in the same way as WireMock's matcher.
+     * That's why a WireMock server keeps the cached matcher only if the stub
+     * is registered without sending it over HTTP.
+     */
+    @Nested
+    @DisplayName("When we register a stub to a running WireMock server")
+    class WhenWeRegisterStubToRunningWireMockServer {
+
+        private WireMockServer server;
+
+        @BeforeEach
+        void startServer() {
+            server = new WireMockServer(options().dynamicPort());
+            server.start();
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop();
+        }
+
+        @Test
+        @DisplayName("Should keep the cached matcher when the stub is registered in the same JVM")
+        void shouldKeepCachedMatcherWhenStubIsRegisteredInSameJvm() {
+            server.stubFor(get(urlPathEqualTo("/api/message"))
+                    .withQueryParam("id", CachedRegexMatchers.matching("[0-9]+"))
+                    .willReturn(aResponse().withStatus(200))
+            );
+
+            assertThat(findIdMatcher()).isExactlyInstanceOf(CachedRegexPattern.class);
+        }
+
+        @Test
+        @DisplayName("Should replace the cached matcher with WireMock's matcher when the stub is registered over HTTP")
+        void shouldReplaceCachedMatcherWithWireMockMatcherWhenStubIsRegisteredOverHttp() {
+            new WireMock(server.port()).register(get(urlPathEqualTo("/api/message"))
+                    .withQueryParam("id", CachedRegexMatchers.matching("[0-9]+"))
+                    .willReturn(aResponse().withStatus(200))
+            );
+
+            assertThat(findIdMatcher()).isExactlyInstanceOf(RegexPattern.class);
+        }
+
+        private StringValuePattern findIdMatcher() {
+            StubMapping stub = server.getStubMappings().get(0);
+            return stub.getRequest().getQueryParameters().get("id").getValuePattern();
+        }
+    }
+
+    private void assertSameResult(StringValuePattern cached, StringValuePattern original) {
+        for (String value : new String[]{"foobar", "foor", "fobar", "barfoo", "", null}) {
+            assertThat(cached.match(value).isExactMatch())
+                    .as("Value: %s", value)
+                    .isEqualTo(original.match(value).isExactMatch());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how the indexed stub registry serves requests
+ * while other threads add, edit, and remove stubs.
+ */
+@DisplayName("Modify the stub registry while it serves requests")
+class ConcurrentStubRegistrationTest {
+
+    private static final int READER_COUNT = 4;
+    private static final long STRESS_DURATION_MILLISECONDS = 2000;
+
+    private IndexedStubMappings stubMappings;
+
+    @BeforeEach
+    void createStubRegistry() {
+        this.stubMappings = new IndexedStubMappings();
+    }
+
+    /**
+     * The writer adds and removes stubs that have the same URL as the
+     * request but never match it, and it replaces the body of the
+     * matching stub. If a reader could see a half-finished modification,
+     * it would miss the matching stub or find a removed stub.
+     */
+    @Test
+    @DisplayName("Should find the matching stub while other stubs are added, edited, and removed")
+    void shouldFindMatchingStubWhileOtherStubsAreAddedEditedAndRemoved() throws Exception {
+        StubMapping matching = messageStub("Hello World!");
+        stubMappings.addMapping(matching);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(READER_COUNT + 1);
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        LongAdder servedRequests = new LongAdder();
+        LongAdder modifications = new LongAdder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(READER_COUNT + 1);
+        try {
+            for (int reader = 0; reader < READER_COUNT; reader++) {
+                executor.submit(() -> {
+                    started.countDown();
+                    Request request = getRequest("/api/message");
+                    while (running.get()) {
+                        ServeEvent serveEvent = stubMappings.serveFor(request);
+                        if (!matching.getUuid().equals(serveEvent.getStubMapping().getUuid())) {
+                            failures.add("Found the stub: " + serveEvent.getStubMapping().getUuid());
+                        }
+                        servedRequests.increment();
+                    }
+                });
+            }
+            executor.submit(() -> {
+                started.countDown();
+                int round = 0;
+                while (running.get()) {
+                    List<StubMapping> nonMatching = new ArrayList<>();
+                    for (int index = 0; index < 10; index++) {
+                        StubMapping stub = get(urlEqualTo("/api/message"))
+                                .withHeader("X-Round", equalTo(Integer.toString(round)))
+                                .willReturn(aResponse().withStatus(500))
+                                .build();
+                        stubMappings.addMapping(stub);
+                        nonMatching.add(stub);
+                    }
+
+                    StubMapping edited = messageStub("Hello World! " + round);
+                    edited.setUuid(matching.getUuid());
+                    stubMappings.editMapping(edited);
+
+                    for (StubMapping stub : nonMatching) {
+                        stubMappings.removeMapping(stub);
+                    }
+                    modifications.add(nonMatching.size() * 2 + 1);
+                    round++;
+                }
+            });
+
+            started.await();
+            Thread.sleep(STRESS_DURATION_MILLISECONDS);
+        }
+        finally {
+            running.set(false);
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(servedRequests.sum()).isPositive();
+        assertThat(modifications.sum()).isPositive();
+        assertThat(stubMappings.getAll()).hasSize(1);
+    }
+
+    @Nested
+    @DisplayName("When many stubs are added and removed one at a time")
+    class WhenManyStubsAreAddedAndRemovedOneAtTime {
+
+        private static final int STUB_COUNT = 5000;
+
+        private List<StubMapping> stubs;
+
+        @BeforeEach
+        void registerStubs() {
+            this.stubs = new ArrayList<>();
+            for (int index = 0; index < STUB_COUNT; index++) {
+                StubMapping stub = get(urlEqualTo("/api/message/" + index))
+                        .willReturn(aResponse().withStatus(200))
+                        .build();
+                stubMappings.addMapping(stub);
+                stubs.add(stub);
+            }
+        }
+
+        @Test
+        @DisplayName("Should find every registered stub")
+        void shouldFindEveryRegisteredStub() {
+            assertThat(stubMappings.getAll()).hasSize(STUB_COUNT);
+            for (int index = 0; index < STUB_COUNT; index++) {
+                assertThat(findStub("/api/message/" + index)).isSameAs(stubs.get(index));
+            }
+        }
+
+        @Test
+        @DisplayName("Should not find the removed stubs")
+        void shouldNotFindRemovedStubs() {
+            for (int index = 0; index < STUB_COUNT; index += 2) {
+                stubMappings.removeMapping(stubs.get(index));
+            }
+
+            assertThat(stubMappings.getAll()).hasSize(STUB_COUNT / 2);
+            for (int index = 0; index < STUB_COUNT; index++) {
+                StubMapping expected = index % 2 == 0 ? StubMapping.NOT_CONFIGURED : stubs.get(index);
+                assertThat(findStub("/api/message/" + index)).isSameAs(expected);
+            }
+        }
+
+        private StubMapping findStub(String url) {
+            return stubMappings.serveFor(getRequest(url)).getStubMapping();
+        }
+    }
+
+    private StubMapping messageStub(String body) {
+        return get(urlEqualTo("/api/message"))
+                .willReturn(aResponse().withStatus(200).withBody(body))
+                .build();
+    }
+
+    private Request getRequest(String url) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                new HttpHeaders(),
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+    }
+}
@@ -0,0 +1,219 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can find the stub of a request
+ * from a large stub registry without comparing the request with
+ * every registered stub.
+ */
+@DisplayName("Find the stub of a request from a large stub registry")
+class IndexedStubMappingsTest {
+
+    private static final int FILLER_STUB_COUNT = 10000;
+
+    private StubMappings inMemoryStubMappings;
+    private StubMappings indexedStubMappings;
+
+    @BeforeEach
+    void createStubRegistries() {
+        this.inMemoryStubMappings = new InMemoryStubMappings();
+        this.indexedStubMappings = new IndexedStubMappings();
+        registerFillerStubs();
+    }
+
+    private void registerFillerStubs() {
+        for (MappingBuilder filler : fillerStubs()) {
+            givenThat(filler);
+        }
+    }
+
+    private static List<MappingBuilder> fillerStubs() {
+        List<MappingBuilder> fillers = new ArrayList<>();
+        for (int index = 0; index < FILLER_STUB_COUNT; index++) {
+            fillers.add(get(urlEqualTo("/api/filler/" + index + "?id=1")));
+            fillers.add(get(urlPathEqualTo("/api/filler/" + index)));
+            fillers.add(get(urlMatching("/api/filler/" + index + "/[a-z]+")));
+        }
+        return fillers;
+    }
+
+    @Nested
+    @DisplayName("When the stub is found by using its URL")
+    class WhenStubIsFoundByUsingItsUrl {
+
+        @Test
+        @DisplayName("Should find the stub that uses the urlEqualTo() matcher")
+        void shouldFindStubThatUsesUrlEqualToMatcher() {
+            StubMapping expected = givenThat(get(urlEqualTo("/api/message?id=1")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that uses the urlPathEqualTo() matcher")
+        void shouldFindStubThatUsesUrlPathEqualToMatcher() {
+            StubMapping expected = givenThat(get(urlPathEqualTo("/api/message")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that uses the urlMatching() matcher")
+        void shouldFindStubThatUsesUrlMatchingMatcher() {
+            StubMapping expected = givenThat(get(urlMatching("/api/([a-z]*)\\?id=1")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that uses the urlPathMatching() matcher")
+        void shouldFindStubThatUsesUrlPathMatchingMatcher() {
+            StubMapping expected = givenThat(get(urlPathMatching("/api/([a-z]*)")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that uses a regex without a literal prefix")
+        void shouldFindStubThatUsesRegexWithoutLiteralPrefix() {
+            StubMapping expected = givenThat(get(urlMatching(".*/message\\?id=1")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that accepts any URL")
+        void shouldFindStubThatAcceptsAnyUrl() {
+            StubMapping expected = givenThat(get(anyUrl()));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that accepts any request method")
+        void shouldFindStubThatAcceptsAnyRequestMethod() {
+            StubMapping expected = givenThat(any(urlEqualTo("/api/message?id=1")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should not find a stub when no stub matches the request")
+        void shouldNotFindStubWhenNoStubMatchesRequest() {
+            givenThat(post(urlEqualTo("/api/message?id=1")));
+            assertFound(getRequest("/api/message?id=1"), StubMapping.NOT_CONFIGURED);
+        }
+    }
+
+    @Nested
+    @DisplayName("When many stubs match the request")
+    class WhenManyStubsMatchRequest {
+
+        @Test
+        @DisplayName("Should find the newest stub")
+        void shouldFindNewestStub() {
+            givenThat(get(urlEqualTo("/api/message?id=1")));
+            givenThat(get(urlPathEqualTo("/api/message")));
+            StubMapping expected = givenThat(get(urlMatching("/api/message.*")));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+
+        @Test
+        @DisplayName("Should find the stub that has the highest priority")
+        void shouldFindStubThatHasHighestPriority() {
+            StubMapping expected = givenThat(get(urlPathEqualTo("/api/message")).atPriority(1));
+            givenThat(get(urlEqualTo("/api/message?id=1")).atPriority(5));
+            assertFound(getRequest("/api/message?id=1"), expected);
+        }
+    }
+
+    @Nested
+    @DisplayName("When the stub registry is modified")
+    class WhenStubRegistryIsModified {
+
+        @Test
+        @DisplayName("Should not find a removed stub")
+        void shouldNotFindRemovedStub() {
+            StubMapping removed = givenThat(get(urlEqualTo("/api/message?id=1")));
+            inMemoryStubMappings.removeMapping(removed);
+            indexedStubMappings.removeMapping(removed);
+
+            assertFound(getRequest("/api/message?id=1"), StubMapping.NOT_CONFIGURED);
+        }
+
+        @Test
+        @DisplayName("Should find the edited stub by using its new URL")
+        void shouldFindEditedStubByUsingItsNewUrl() {
+            StubMapping original = givenThat(get(urlEqualTo("/api/message?id=1")));
+
+            StubMapping edited = get(urlEqualTo("/api/message?id=2")).withId(original.getUuid()).build();
+            inMemoryStubMappings.editMapping(edited);
+            indexedStubMappings.editMapping(StubMapping.buildFrom(StubMapping.buildJsonStringFor(edited)));
+
+            assertFound(getRequest("/api/message?id=1"), StubMapping.NOT_CONFIGURED);
+            assertFound(getRequest("/api/message?id=2"), edited);
+        }
+    }
+
+    /**
+     * WireMock evaluates the newest stub first. That's why we register
+     * the matching stub before the filler stubs. The default stub registry
+     * would compare the request with every filler stub before it finds
+     * the matching stub.
+     */
+    @Test
+    @DisplayName("Should evaluate only the stub whose URL matches the URL of the request")
+    void shouldEvaluateOnlyStubWhoseUrlMatchesUrlOfRequest() {
+        StubMetricsRegistry metrics = new StubMetricsRegistry();
+        StubMappings measuredStubMappings = new IndexedStubMappings(metrics);
+        measuredStubMappings.addMapping(get(urlEqualTo("/api/message?id=1")).willReturn(aResponse().withStatus(200)).build());
+        for (MappingBuilder filler : fillerStubs()) {
+            measuredStubMappings.addMapping(filler.willReturn(aResponse().withStatus(200)).build());
+        }
+
+        assertThat(measuredStubMappings.serveFor(getRequest("/api/message?id=1")).getWasMatched()).isTrue();
+        assertThat(metrics.getEvaluatedStubCount()).isEqualTo(1);
+    }
+
+    /**
+     * Registers the stub to both stub registries and returns the
+     * registered stub.
+     */
+    private StubMapping givenThat(MappingBuilder mappingBuilder) {
+        StubMapping stub = mappingBuilder.willReturn(aResponse().withStatus(200)).build();
+        inMemoryStubMappings.addMapping(stub);
+        indexedStubMappings.addMapping(stub);
+        return stub;
+    }
+
+    private void assertFound(Request request, StubMapping expected) {
+        assertThat(inMemoryStubMappings.serveFor(request).getStubMapping().getUuid())
+                .isEqualTo(expected.getUuid());
+        assertThat(indexedStubMappings.serveFor(request).getStubMapping().getUuid())
+                .isEqualTo(expected.getUuid());
+    }
+
+    private Request getRequest(String url) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                HttpHeaders.noHeaders(),
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+    }
+}
@@ -0,0 +1,158 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.*;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how the stubs of a request share the headers,
+ * cookies, and query parameters of the request, and why the request is
+ * parsed only once no matter how many stubs are evaluated.
+ */
+@DisplayName("Parse the attributes of a request only once")
+class ParsedRequestTest {
+
+    private static final int STUB_COUNT = 1000;
+    private static final String URL = "/api/search?searchTerm=term" + (STUB_COUNT - 1);
+
+    private StubMappings stubMappings;
+
+    /**
+     * Every stub checks a header, a cookie, and a query parameter, but
+     * only the oldest stub matches the request. Because WireMock evaluates
+     * the newest stub first, every stub is evaluated.
+     */
+    @BeforeEach
+    void registerStubs() {
+        this.stubMappings = new IndexedStubMappings();
+        for (int index = STUB_COUNT - 1; index >= 0; index--) {
+            stubMappings.addMapping(get(urlPathEqualTo("/api/search"))
+                    .withHeader("Accept", equalTo("application/json"))
+                    .withCookie("name", equalTo("Petri"))
+                    .withQueryParam("searchTerm", equalTo("term" + index))
+                    .willReturn(aResponse().withStatus(200))
+                    .build()
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Should find the stub that matches the header, the cookie, and the query parameter")
+    void shouldFindStubThatMatchesHeaderCookieAndQueryParameter() {
+        StubMapping found = stubMappings.serveFor(getRequest(URL)).getStubMapping();
+        assertThat(found.getRequest().getQueryParameters().get("searchTerm").getValuePattern().getExpected())
+                .isEqualTo("term" + (STUB_COUNT - 1));
+    }
+
+    @Test
+    @DisplayName("Should parse the header, the cookie, and the query string of the request only once")
+    void shouldParseHeaderCookieAndQueryStringOfRequestOnlyOnce() {
+        CountingRequest request = new CountingRequest(getRequest(URL));
+        ParsedRequest parsedRequest = ParsedRequest.of(request);
+        stubMappings.serveFor(parsedRequest);
+
+        assertThat(parsedRequest.headerParseCount()).isEqualTo(1);
+        assertThat(parsedRequest.cookieParseCount()).isEqualTo(1);
+        assertThat(parsedRequest.queryParseCount()).isEqualTo(1);
+        assertThat(request.cookieReads).isEqualTo(1);
+    }
+
+    @Nested
+    @DisplayName("When we read the attributes of a parsed request")
+    class WhenWeReadAttributesOfParsedRequest {
+
+        private Request request;
+
+        @BeforeEach
+        void createParsedRequest() {
+            this.request = ParsedRequest.of(getRequest("/api/search?searchTerm=wiremock&searchTerm=junit"));
+        }
+
+        @Test
+        @DisplayName("Should return every value of the query parameter")
+        void shouldReturnEveryValueOfQueryParameter() {
+            assertThat(request.queryParameter("searchTerm").values()).containsExactly("wiremock", "junit");
+        }
+
+        @Test
+        @DisplayName("Should return an absent query parameter when the request has no such parameter")
+        void shouldReturnAbsentQueryParameterWhenRequestHasNoSuchParameter() {
+            assertThat(request.queryParameter("page").isPresent()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should return the header without caring about the case of its name")
+        void shouldReturnHeaderWithoutCaringAboutCaseOfItsName() {
+            assertThat(request.getHeader("accept")).isEqualTo("application/json");
+            assertThat(request.containsHeader("Content-Type")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should return the cookie")
+        void shouldReturnCookie() {
+            assertThat(request.getCookies().get("name").getValue()).isEqualTo("Petri");
+        }
+
+        @Test
+        @DisplayName("Should not wrap a parsed request again")
+        void shouldNotWrapParsedRequestAgain() {
+            assertThat(ParsedRequest.of(request)).isSameAs(request);
+        }
+    }
+
+    private Request getRequest(String url) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                new HttpHeaders(new HttpHeader("Accept", "application/json")),
+                Collections.singletonMap("name", new Cookie(Collections.singletonList("Petri"))),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+    }
+
+    /**
+     * A logged request returns the same cookie map every time, so we
+     * count how many times the matchers ask for the cookies.
+     */
+    private static final class CountingRequest extends LoggedRequest {
+
+        private int cookieReads;
+
+        private CountingRequest(Request request) {
+            super(request.getUrl(),
+                    request.getAbsoluteUrl(),
+                    request.getMethod(),
+                    request.getClientIp(),
+                    request.getHeaders(),
+                    request.getCookies(),
+                    request.isBrowserProxyRequest(),
+                    new Date(),
+                    request.getBody(),
+                    null
+            );
+        }
+
+        @Override
+        public Map<String, Cookie> getCookies() {
+            cookieReads++;
+            return super.getCookies();
+        }
+    }
+}
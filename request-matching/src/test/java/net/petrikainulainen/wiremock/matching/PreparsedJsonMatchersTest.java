@@ -0,0 +1,212 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can use JSON matchers that parse
+ * their expectations when the stub is created and parse each request
+ * body only once.
+ */
+@DisplayName("Use JSON matchers that parse each request body only once")
+class PreparsedJsonMatchersTest {
+
+    private static final String[] BODIES = {
+            "{\"message\": \"Hello World!\"}",
+            "{\"message\": \"Hello World!\", \"id\": 1}",
+            "{\"message\": \"foobar\"}",
+            "{\"messages\": [\"Hello World!\", \"foobar\"]}",
+            "{\"messages\": [\"foobar\", \"Hello World!\"]}",
+            "{\"messages\": [\"foobar\", \"Hello World!\", \"baz\"]}",
+            "{\"messages\": [\"Hello World!\"]}",
+            "{\"message\": {\"name\": \"Petri\", \"text\": \"Hello World!\"}}",
+            "{\"message\": {\"text\": \"Hello World!\", \"name\": \"Petri\"}}",
+            "{\"message\": {\"name\": \"Petri\"}}",
+            "[]",
+            "not json"
+    };
+
+    @Nested
+    @DisplayName("When we want to ensure that the actual request body is equal to the expected request body")
+    class WhenWeWantToEnsureThatActualBodyIsEqualToExpectedBody {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we don't ignore anything")
+        void shouldReturnSameResultWhenWeDoNotIgnoreAnything() {
+            assertSameResult(
+                    PreparsedJsonMatchers.equalToJson("{\"message\": \"Hello World!\"}"),
+                    WireMock.equalToJson("{\"message\": \"Hello World!\"}")
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we ignore additional attributes")
+        void shouldReturnSameResultWhenWeIgnoreAdditionalAttributes() {
+            assertSameResult(
+                    PreparsedJsonMatchers.equalToJson("{\"message\": \"Hello World!\"}", false, true),
+                    WireMock.equalToJson("{\"message\": \"Hello World!\"}", false, true)
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we ignore array ordering")
+        void shouldReturnSameResultWhenWeIgnoreArrayOrdering() {
+            assertSameResult(
+                    PreparsedJsonMatchers.equalToJson("{\"messages\": [\"Hello World!\", \"foobar\"]}", true, false),
+                    WireMock.equalToJson("{\"messages\": [\"Hello World!\", \"foobar\"]}", true, false)
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we ignore everything")
+        void shouldReturnSameResultWhenWeIgnoreEverything() {
+            assertSameResult(
+                    PreparsedJsonMatchers.equalToJson("{\"messages\": [\"Hello World!\", \"foobar\"]}", true, true),
+                    WireMock.equalToJson("{\"messages\": [\"Hello World!\", \"foobar\"]}", true, true)
+            );
+        }
+
+        @Test
+        @DisplayName("Should be serialized in the same way as WireMock's matcher")
+        void shouldBeSerializedInSameWayAsWireMockMatcher() {
+            assertThat(Json.write(PreparsedJsonMatchers.equalToJson("{\"message\": \"Hello World!\"}", true, false)))
+                    .isEqualTo(Json.write(WireMock.equalToJson("{\"message\": \"Hello World!\"}", true, false)));
+        }
+    }
+
+    @Nested
+    @DisplayName("When we want to ensure that the actual request body matches with the JsonPath expression")
+    class WhenWeWantToEnsureThatActualBodyMatchesWithJsonPath {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we check that the attribute is found")
+        void shouldReturnSameResultWhenWeCheckThatAttributeIsFound() {
+            assertSameResult(
+                    PreparsedJsonMatchers.matchingJsonPath("$.message"),
+                    WireMock.matchingJsonPath("$.message")
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we use a filter")
+        void shouldReturnSameResultWhenWeUseFilter() {
+            assertSameResult(
+                    PreparsedJsonMatchers.matchingJsonPath("$.[?(@.message == 'Hello World!')]"),
+                    WireMock.matchingJsonPath("$.[?(@.message == 'Hello World!')]")
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we check the size of an array")
+        void shouldReturnSameResultWhenWeCheckSizeOfArray() {
+            assertSameResult(
+                    PreparsedJsonMatchers.matchingJsonPath("$[?(@.messages.size() == 1)]"),
+                    WireMock.matchingJsonPath("$[?(@.messages.size() == 1)]")
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we compare the attribute value")
+        void shouldReturnSameResultWhenWeCompareAttributeValue() {
+            assertSameResult(
+                    PreparsedJsonMatchers.matchingJsonPath("$.message", WireMock.equalTo("Hello World!")),
+                    WireMock.matchingJsonPath("$.message", WireMock.equalTo("Hello World!"))
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we compare a sub-document")
+        void shouldReturnSameResultWhenWeCompareSubDocument() {
+            String subDocument = "{\"name\": \"Petri\", \"text\": \"Hello World!\"}";
+            assertSameResult(
+                    PreparsedJsonMatchers.matchingJsonPath("$.message", PreparsedJsonMatchers.equalToJson(subDocument)),
+                    WireMock.matchingJsonPath("$.message", WireMock.equalToJson(subDocument))
+            );
+        }
+
+        @Test
+        @DisplayName("Should be serialized in the same way as WireMock's matcher")
+        void shouldBeSerializedInSameWayAsWireMockMatcher() {
+            assertThat(Json.write(PreparsedJsonMatchers.matchingJsonPath("$.message", WireMock.equalTo("Hello World!"))))
+                    .isEqualTo(Json.write(WireMock.matchingJsonPath("$.message", WireMock.equalTo("Hello World!"))));
+        }
+    }
+
+    @Nested
+    @DisplayName("When many stubs use JSON matchers")
+    class WhenManyStubsUseJsonMatchers {
+
+        private static final int STUB_COUNT = 2000;
+
+        /**
+         * WireMock evaluates the newest stub first. The request matches
+         * only the oldest stub, and that's why every stub is evaluated.
+         */
+        @Test
+        @DisplayName("Should parse the request body only once")
+        void shouldParseRequestBodyOnlyOnce() {
+            StubMappings stubMappings = registerStubs();
+
+            //This body is used only by this test. Thus, it cannot be remembered from an earlier test.
+            Request requestWithNewBody = postRequest("{\"id\": 0, \"message\": \"Hello World!\"}");
+
+            //The parse count is counted per thread, so the other test classes cannot change it.
+            long parseCountBefore = ParsedJsonBodies.parseCount();
+            assertThat(stubMappings.serveFor(requestWithNewBody).getWasMatched()).isTrue();
+
+            assertThat(ParsedJsonBodies.parseCount() - parseCountBefore).isEqualTo(1);
+        }
+
+        private StubMappings registerStubs() {
+            StubMappings stubMappings = new IndexedStubMappings();
+            for (int index = 0; index < STUB_COUNT; index++) {
+                StubMapping stub = post(urlEqualTo("/api/message"))
+                        .withRequestBody(PreparsedJsonMatchers.matchingJsonPath("$.message"))
+                        .withRequestBody(PreparsedJsonMatchers.equalToJson("{\"message\": \"Hello World!\", \"id\": " + index + "}"))
+                        .willReturn(aResponse().withStatus(200))
+                        .build();
+                stubMappings.addMapping(stub);
+            }
+            return stubMappings;
+        }
+    }
+
+    private void assertSameResult(StringValuePattern preparsed, StringValuePattern original) {
+        for (String body : BODIES) {
+            assertThat(preparsed.match(body).isExactMatch())
+                    .as("Body: %s", body)
+                    .isEqualTo(original.match(body).isExactMatch());
+        }
+    }
+
+    private static Request postRequest(String body) {
+        return new LoggedRequest("/api/message",
+                "http://localhost:8080/api/message",
+                RequestMethod.POST,
+                "127.0.0.1",
+                HttpHeaders.noHeaders(),
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                body.getBytes(StandardCharsets.UTF_8),
+                null
+        );
+    }
+}
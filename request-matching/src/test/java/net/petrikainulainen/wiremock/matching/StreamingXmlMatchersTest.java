@@ -0,0 +1,186 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can use XPath matchers that read
+ * the request body with a StAX parser instead of building a DOM tree.
+ */
+@DisplayName("Use XPath matchers that read the request body with a StAX parser")
+class StreamingXmlMatchersTest {
+
+    private static final String[] BODIES = {
+            "<message>Hello World!</message>",
+            "<message>foobar</message>",
+            "<message></message>",
+            "<message><name>Petri</name><text>Hello World!</text></message>",
+            "<message><name>Petri</name><name>Hello World!</name></message>",
+            "<message>Hello <b>bold</b> World!</message>",
+            "<message><![CDATA[Hello World!]]></message>",
+            "<messages><message>Hello World!</message></messages>",
+            "<message xmlns=\"http://www.example.com\">Hello World!</message>",
+            "<sample:message xmlns:sample=\"http://www.example.com\">Hello World!</sample:message>",
+            "not xml"
+    };
+
+    @Nested
+    @DisplayName("When the XPath expression is a simple absolute path")
+    class WhenXPathExpressionIsSimpleAbsolutePath {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we check that the element is found")
+        void shouldReturnSameResultWhenWeCheckThatElementIsFound() {
+            assertSameResult(StreamingXmlMatchers.matchingXPath("/message"), WireMock.matchingXPath("/message"));
+            assertSameResult(StreamingXmlMatchers.matchingXPath("/message/name"), WireMock.matchingXPath("/message/name"));
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we compare the text of the element")
+        void shouldReturnSameResultWhenWeCompareTextOfElement() {
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message[text()='Hello World!']"),
+                    WireMock.matchingXPath("/message[text()='Hello World!']")
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when we compare the text with a value pattern")
+        void shouldReturnSameResultWhenWeCompareTextWithValuePattern() {
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message/text()", WireMock.equalTo("Hello World!")),
+                    WireMock.matchingXPath("/message/text()", WireMock.equalTo("Hello World!"))
+            );
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message/name/text()", WireMock.equalTo("Hello World!")),
+                    WireMock.matchingXPath("/message/name/text()", WireMock.equalTo("Hello World!"))
+            );
+        }
+
+        @Test
+        @DisplayName("Should evaluate the expression without building a DOM tree")
+        void shouldEvaluateExpressionWithoutBuildingDomTree() {
+            assertThat(new StreamingMatchesXPathPattern("/message").isStreaming()).isTrue();
+            assertThat(new StreamingMatchesXPathPattern("/message[text()='Hello World!']").isStreaming()).isTrue();
+            assertThat(new StreamingMatchesXPathPattern("/message/text()", WireMock.equalTo("Hello World!")).isStreaming()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should be serialized in the same way as WireMock's matcher")
+        void shouldBeSerializedInSameWayAsWireMockMatcher() {
+            assertThat(Json.write(StreamingXmlMatchers.matchingXPath("/message/text()", WireMock.equalTo("Hello World!"))))
+                    .isEqualTo(Json.write(WireMock.matchingXPath("/message/text()", WireMock.equalTo("Hello World!"))));
+        }
+    }
+
+    @Nested
+    @DisplayName("When the XPath expression isn't a simple absolute path")
+    class WhenXPathExpressionIsNotSimpleAbsolutePath {
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher")
+        void shouldReturnSameResultAsWireMockMatcher() {
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/messages[count(message)=1]"),
+                    WireMock.matchingXPath("/messages[count(message)=1]")
+            );
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message/name", WireMock.equalToXml("<name>Petri</name>")),
+                    WireMock.matchingXPath("/message/name", WireMock.equalToXml("<name>Petri</name>"))
+            );
+        }
+
+        @Test
+        @DisplayName("Should return the same result as WireMock's matcher when the expression has a text predicate and a value pattern")
+        void shouldReturnSameResultWhenExpressionHasTextPredicateAndValuePattern() {
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message/name[text()='Petri']", WireMock.equalTo("Nobody")),
+                    WireMock.matchingXPath("/message/name[text()='Petri']", WireMock.equalTo("Nobody"))
+            );
+            assertSameResult(
+                    StreamingXmlMatchers.matchingXPath("/message/name[text()='Petri']", WireMock.equalTo("Petri")),
+                    WireMock.matchingXPath("/message/name[text()='Petri']", WireMock.equalTo("Petri"))
+            );
+        }
+
+        @Test
+        @DisplayName("Should evaluate the expression by building a DOM tree")
+        void shouldEvaluateExpressionByBuildingDomTree() {
+            assertThat(new StreamingMatchesXPathPattern("/messages[count(message)=1]").isStreaming()).isFalse();
+            assertThat(new StreamingMatchesXPathPattern("//message").isStreaming()).isFalse();
+            assertThat(new StreamingMatchesXPathPattern("/sample:message").isStreaming()).isFalse();
+            assertThat(new StreamingMatchesXPathPattern("/message/name", WireMock.equalToXml("<name>Petri</name>")).isStreaming()).isFalse();
+            assertThat(new StreamingMatchesXPathPattern("/message/name[text()='Petri']", WireMock.equalTo("Nobody")).isStreaming()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("When the request body is large")
+    class WhenRequestBodyIsLarge {
+
+        private static final int BODY_SIZE = 10 * 1024 * 1024;
+
+        private final String body = createLargeBody();
+
+        @Test
+        @DisplayName("Should use less memory than WireMock's matcher when the element is at the start of the body")
+        void shouldUseLessMemoryWhenElementIsAtStartOfBody() {
+            compare("/message/name/text()", "Petri");
+        }
+
+        @Test
+        @DisplayName("Should use less memory than WireMock's matcher when the element is at the end of the body")
+        void shouldUseLessMemoryWhenElementIsAtEndOfBody() {
+            compare("/message/signature/text()", "Signed");
+        }
+
+        private void compare(String xpath, String expectedText) {
+            StringValuePattern streaming = StreamingXmlMatchers.matchingXPath(xpath, WireMock.equalTo(expectedText));
+            StringValuePattern dom = WireMock.matchingXPath(xpath, WireMock.equalTo(expectedText));
+
+            assertThat(allocatedBytes(streaming)).isLessThan(allocatedBytes(dom));
+        }
+
+        /**
+         * Returns the number of bytes the current thread allocates when it
+         * evaluates the matcher. The other test classes run on other threads,
+         * so they don't affect the result.
+         */
+        private long allocatedBytes(StringValuePattern matcher) {
+            //Warm up the matcher before the measured evaluation.
+            assertThat(matcher.match(body).isExactMatch()).isTrue();
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            assertThat(matcher.match(body).isExactMatch()).isTrue();
+            return threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        private String createLargeBody() {
+            StringBuilder xml = new StringBuilder(BODY_SIZE + 1024);
+            xml.append("<message><name>Petri</name><items>");
+            int index = 0;
+            while (xml.length() < BODY_SIZE) {
+                xml.append("<item id=\"").append(index++).append("\">Lorem ipsum dolor sit amet</item>");
+            }
+            xml.append("</items><signature>Signed</signature></message>");
+            return xml.toString();
+        }
+    }
+
+    private void assertSameResult(StringValuePattern streaming, StringValuePattern original) {
+        for (String body : BODIES) {
+            assertThat(streaming.match(body).isExactMatch())
+                    .as("Body: %s", body)
+                    .isEqualTo(original.match(body).isExactMatch());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class demonstrates how we can register a large number of stubs
+ * as one batch instead of registering them one at a time.
+ */
+@DisplayName("Register stubs as one batch")
+class StubImportTest {
+
+    private static final int BATCH_SIZE = 10000;
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(StubImports.enable(options()
+            .dynamicPort()
+    ));
+
+    @Nested
+    @DisplayName("When we import stubs to the indexed stub registry")
+    class WhenWeImportStubsToIndexedStubRegistry {
+
+        private IndexedStubMappings stubMappings;
+
+        @BeforeEach
+        void createStubRegistry() {
+            this.stubMappings = new IndexedStubMappings();
+        }
+
+        @Test
+        @DisplayName("Should find every imported stub")
+        void shouldFindEveryImportedStub() {
+            stubMappings.importMappings(createStubs(BATCH_SIZE));
+
+            assertThat(stubMappings.getAll()).hasSize(BATCH_SIZE);
+            assertFound("/api/message/0");
+            assertFound("/api/message/" + (BATCH_SIZE - 1));
+        }
+
+        @Test
+        @DisplayName("Should evaluate the stubs in the same order as if they had been registered one at a time")
+        void shouldEvaluateStubsInSameOrderAsIfTheyHadBeenRegisteredOneAtTime() {
+            StubMapping registered = get(urlPathEqualTo("/api/message")).willReturn(aResponse().withStatus(200)).build();
+            stubMappings.addMapping(registered);
+
+            StubMapping first = get(urlPathEqualTo("/api/message")).willReturn(aResponse().withStatus(200)).build();
+            StubMapping last = get(urlPathMatching("/api/.*")).willReturn(aResponse().withStatus(200)).build();
+            stubMappings.importMappings(Arrays.asList(first, last));
+
+            assertThat(stubMappings.serveFor(getRequest("/api/message")).getStubMapping()).isSameAs(last);
+        }
+
+        @Test
+        @DisplayName("Should keep the stubs that were registered before the import")
+        void shouldKeepStubsThatWereRegisteredBeforeImport() {
+            StubMapping registered = get(urlEqualTo("/api/registered")).willReturn(aResponse().withStatus(200)).build();
+            stubMappings.addMapping(registered);
+
+            stubMappings.importMappings(createStubs(10));
+
+            assertThat(stubMappings.serveFor(getRequest("/api/registered")).getStubMapping()).isSameAs(registered);
+        }
+
+        /**
+         * The reader finds the first stub of the batch before it looks for
+         * the last stub. If the reader could see a part of the batch, it
+         * would find the first stub but not the last one.
+         */
+        @Test
+        @DisplayName("Should serve the concurrent requests from the old stubs until the whole batch has been registered")
+        void shouldServeConcurrentRequestsFromOldStubsUntilWholeBatchHasBeenRegistered() throws Exception {
+            StubMapping registered = get(urlEqualTo("/api/registered")).willReturn(aResponse().withStatus(200)).build();
+            stubMappings.addMapping(registered);
+            List<StubMapping> batch = createStubs(BATCH_SIZE);
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> importTask = executor.submit(() -> stubMappings.importMappings(batch));
+
+                while (!importTask.isDone()) {
+                    assertThat(isFound("/api/registered")).isTrue();
+                    if (isFound("/api/message/0")) {
+                        assertThat(isFound("/api/message/" + (BATCH_SIZE - 1))).isTrue();
+                    }
+                }
+                importTask.get(1, TimeUnit.MINUTES);
+            }
+            finally {
+                executor.shutdownNow();
+            }
+
+            assertFound("/api/message/" + (BATCH_SIZE - 1));
+        }
+
+        private void assertFound(String url) {
+            assertThat(isFound(url)).isTrue();
+        }
+
+        private boolean isFound(String url) {
+            return stubMappings.serveFor(getRequest(url)).getWasMatched();
+        }
+    }
+
+    @Nested
+    @DisplayName("When we import stubs to a WireMock server")
+    class WhenWeImportStubsToWireMockServer {
+
+        private RestTemplate restTemplate;
+        private StubImportClient client;
+
+        @BeforeEach
+        void configureSystemUnderTest() {
+            this.restTemplate = TestHttpClient.restTemplate();
+            this.client = new StubImportClient(wireMock.host(), wireMock.port());
+        }
+
+        @Test
+        @DisplayName("Should return the configured HTTP responses")
+        void shouldReturnConfiguredHttpResponses() {
+            client.importStubs(createStubs(1000));
+
+            ResponseEntity<String> first = restTemplate.getForEntity(buildApiMethodUrl(0), String.class);
+            ResponseEntity<String> last = restTemplate.getForEntity(buildApiMethodUrl(999), String.class);
+
+            assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(first.getBody()).isEqualTo("Message 0");
+            assertThat(last.getBody()).isEqualTo("Message 999");
+        }
+
+        @Test
+        @DisplayName("Should register the stubs that are built by the mapping builders")
+        void shouldRegisterStubsThatAreBuiltByMappingBuilders() {
+            client.importStubs(
+                    get(urlEqualTo("/api/message/0")).willReturn(aResponse().withStatus(200).withBody("Hello")),
+                    get(urlEqualTo("/api/message/1")).willReturn(aResponse().withStatus(200).withBody("World!"))
+            );
+
+            String first = restTemplate.getForObject(buildApiMethodUrl(0), String.class);
+            String second = restTemplate.getForObject(buildApiMethodUrl(1), String.class);
+            assertThat(first + " " + second).isEqualTo("Hello World!");
+        }
+
+        private String buildApiMethodUrl(int index) {
+            return String.format("http://localhost:%d/api/message/%d", wireMock.port(), index);
+        }
+    }
+
+    private List<StubMapping> createStubs(int count) {
+        List<StubMapping> stubs = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            stubs.add(get(urlEqualTo("/api/message/" + index))
+                    .willReturn(aResponse().withStatus(200).withBody("Message " + index))
+                    .build()
+            );
+        }
+        return stubs;
+    }
+
+    private Request getRequest(String url) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                new HttpHeaders(),
+                Collections.emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+    }
+}
@@ -0,0 +1,265 @@
+package net.petrikainulainen.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class demonstrates how we can find out how many stubs were
+ * evaluated, which stubs were used, and how long it took to find the
+ * stubs of the requests and to write the responses.
+ */
+@DisplayName("Collect the metrics of stub matching")
+class StubMetricsTest {
+
+    private static final long RECORDING_TIMEOUT_MILLISECONDS = 5000;
+
+    private static final StubMetricsRegistry SERVER_METRICS = new StubMetricsRegistry();
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(StubMetrics.enable(options()
+            .dynamicPort(),
+            SERVER_METRICS
+    ));
+
+    @Nested
+    @DisplayName("When the indexed stub registry finds the stub of a request")
+    class WhenIndexedStubRegistryFindsStubOfRequest {
+
+        private static final int STUB_COUNT = 100;
+
+        private StubMetricsRegistry metrics;
+        private IndexedStubMappings stubMappings;
+
+        @BeforeEach
+        void registerStubs() {
+            this.metrics = new StubMetricsRegistry();
+            this.stubMappings = new IndexedStubMappings(metrics);
+            for (int index = 0; index < STUB_COUNT; index++) {
+                stubMappings.addMapping(get(urlPathEqualTo("/api/search"))
+                        .withQueryParam("searchTerm", equalTo("term" + index))
+                        .willReturn(aResponse().withStatus(200))
+                        .build()
+                );
+            }
+        }
+
+        /**
+         * WireMock evaluates the newest stub first. That's why the oldest
+         * stub is found after every stub has been evaluated.
+         */
+        @Test
+        @DisplayName("Should count the evaluated stubs")
+        void shouldCountEvaluatedStubs() {
+            stubMappings.serveFor(getRequest("/api/search?searchTerm=term0"));
+            assertThat(metrics.getEvaluatedStubCount()).isEqualTo(STUB_COUNT);
+        }
+
+        @Test
+        @DisplayName("Should count the hit of the found stub")
+        void shouldCountHitOfFoundStub() {
+            StubMapping found = stubMappings.serveFor(getRequest("/api/search?searchTerm=term0")).getStubMapping();
+
+            assertThat(metrics.getMatchedRequestCount()).isEqualTo(1);
+            assertThat(metrics.hitCount(found.getUuid())).isEqualTo(1);
+            assertThat(metrics.evaluationCount(found.getUuid())).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should record the time that was spent evaluating the stubs")
+        void shouldRecordTimeThatWasSpentEvaluatingStubs() {
+            stubMappings.serveFor(getRequest("/api/search?searchTerm=term0"));
+            stubMappings.serveFor(getRequest("/api/search?searchTerm=term50"));
+
+            LatencyHistogram matchEvaluationTimes = metrics.matchEvaluationTimes();
+            assertThat(matchEvaluationTimes.count()).isEqualTo(2);
+            assertThat(matchEvaluationTimes.maxNanos()).isPositive();
+            assertThat(matchEvaluationTimes.percentileNanos(99)).isLessThanOrEqualTo(matchEvaluationTimes.maxNanos());
+        }
+
+        @Test
+        @DisplayName("Should count the near misses of a request that didn't match a stub")
+        void shouldCountNearMissesOfRequestThatDidNotMatchStub() {
+            StubMapping farMiss = post(urlPathEqualTo("/api/order"))
+                    .withHeader("Content-Type", equalTo("application/json"))
+                    .willReturn(aResponse().withStatus(201))
+                    .build();
+            stubMappings.addMapping(farMiss);
+
+            StubMapping found = stubMappings.serveFor(getRequest("/api/search?searchTerm=term1000")).getStubMapping();
+
+            assertThat(found).isSameAs(StubMapping.NOT_CONFIGURED);
+            assertThat(metrics.getUnmatchedRequestCount()).isEqualTo(1);
+            assertThat(metrics.getNearMissCount()).isEqualTo(STUB_COUNT);
+            assertThat(metrics.nearMissCount(farMiss.getUuid())).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("When we read the metrics by using JMX")
+    class WhenWeReadMetricsByUsingJmx {
+
+        private StubMetricsRegistry metrics;
+        private ObjectName objectName;
+
+        @BeforeEach
+        void registerMBean() {
+            this.metrics = new StubMetricsRegistry();
+            this.objectName = metrics.registerMBean(StubMetricsTest.class.getName());
+        }
+
+        @AfterEach
+        void unregisterMBean() {
+            metrics.unregisterMBean(objectName);
+        }
+
+        @Test
+        @DisplayName("Should return the recorded metrics")
+        void shouldReturnRecordedMetrics() throws Exception {
+            IndexedStubMappings stubMappings = new IndexedStubMappings(metrics);
+            stubMappings.addMapping(get(urlEqualTo("/api/message")).willReturn(aResponse().withStatus(200)).build());
+            stubMappings.serveFor(getRequest("/api/message"));
+
+            Object matchedRequestCount = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(objectName, "MatchedRequestCount");
+            assertThat(matchedRequestCount).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a WireMock server records its metrics")
+    class WhenWireMockServerRecordsItsMetrics {
+
+        private RestTemplate restTemplate;
+
+        @BeforeEach
+        void configureSystemUnderTest() {
+            this.restTemplate = TestHttpClient.restTemplate();
+            SERVER_METRICS.reset();
+        }
+
+        @Test
+        @DisplayName("Should count the hits of the stub and the time that was spent writing the response")
+        void shouldCountHitsOfStubAndTimeThatWasSpentWritingResponse() throws InterruptedException {
+            StubMapping stub = wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withBody("Hello World!")
+            ));
+
+            restTemplate.getForObject(buildUrl("/api/message"), String.class);
+            restTemplate.getForObject(buildUrl("/api/message"), String.class);
+            awaitUntil(() -> SERVER_METRICS.responseWriteTimes().count() == 2);
+
+            assertThat(SERVER_METRICS.hitCount(stub.getUuid())).isEqualTo(2);
+            assertThat(SERVER_METRICS.responseWriteTimes().count()).isEqualTo(2);
+        }
+
+        /**
+         * The near misses are found by a background thread after the unmatched
+         * request has been recorded. That's why we wait for the near miss
+         * instead of the unmatched request.
+         */
+        @Test
+        @DisplayName("Should count the near misses of a request that didn't match a stub")
+        void shouldCountNearMissesOfRequestThatDidNotMatchStub() throws InterruptedException {
+            StubMapping stub = wireMock.givenThat(get(urlPathEqualTo("/api/message"))
+                    .withQueryParam("id", equalTo("1"))
+                    .willReturn(aResponse().withStatus(200))
+            );
+
+            assertThatThrownBy(() -> restTemplate.getForObject(buildUrl("/api/message?id=2"), String.class))
+                    .isInstanceOf(HttpClientErrorException.class);
+            awaitUntil(() -> SERVER_METRICS.getNearMissCount() >= 1);
+
+            assertThat(SERVER_METRICS.getUnmatchedRequestCount()).isEqualTo(1);
+            assertThat(SERVER_METRICS.nearMissCount(stub.getUuid())).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should return the metrics from the admin API")
+        @SuppressWarnings("unchecked")
+        void shouldReturnMetricsFromAdminApi() throws InterruptedException {
+            StubMapping stub = wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+            ));
+            restTemplate.getForObject(buildUrl("/api/message"), String.class);
+            awaitRecordedRequests(1);
+
+            Map<String, Object> metrics = restTemplate.getForObject(buildUrl("/__admin/metrics"), Map.class);
+
+            assertThat(metrics.get("matchedRequests")).isEqualTo(1);
+            List<Map<String, Object>> stubs = (List<Map<String, Object>>) metrics.get("stubs");
+            assertThat(stubs).hasSize(1);
+            assertThat(stubs.get(0).get("id")).isEqualTo(stub.getUuid().toString());
+            assertThat(stubs.get(0).get("hits")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should reset the metrics from the admin API")
+        void shouldResetMetricsFromAdminApi() throws InterruptedException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse().withStatus(200)));
+            restTemplate.getForObject(buildUrl("/api/message"), String.class);
+            awaitRecordedRequests(1);
+
+            restTemplate.delete(buildUrl("/__admin/metrics"));
+            assertThat(SERVER_METRICS.getMatchedRequestCount()).isZero();
+        }
+
+        /**
+         * WireMock records the metrics after it has sent the response. This
+         * means that the client can receive the response before the request
+         * has been recorded.
+         */
+        private void awaitRecordedRequests(int count) throws InterruptedException {
+            awaitUntil(() -> SERVER_METRICS.getMatchedRequestCount() + SERVER_METRICS.getUnmatchedRequestCount() >= count);
+        }
+
+        private void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + RECORDING_TIMEOUT_MILLISECONDS;
+            while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        private String buildUrl(String path) {
+            return String.format("http://localhost:%d%s", wireMock.port(), path);
+        }
+    }
+
+    private Request getRequest(String url) {
+        return new LoggedRequest(url,
+                "http://localhost:8080" + url,
+                RequestMethod.GET,
+                "127.0.0.1",
+                new HttpHeaders(new HttpHeader("Accept", "application/json")),
+                Collections.<String, Cookie>emptyMap(),
+                false,
+                new Date(),
+                new byte[0],
+                null
+        );
+    }
+}
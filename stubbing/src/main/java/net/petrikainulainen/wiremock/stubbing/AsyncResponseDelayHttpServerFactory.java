@@ -0,0 +1,71 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.jetty9.JettyHttpServer;
+import com.github.tomakehurst.wiremock.servlet.WireMockHandlerDispatchingServlet;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+/**
+ * Creates a Jetty server that serves the stubbed responses by using
+ * {@link AsyncResponseDelayServlet} instead of WireMock's own servlet.
+ * Because a request can be parked only if every filter and the servlet
+ * support asynchronous requests, this factory enables asynchronous
+ * support for all of them.
+ */
+public class AsyncResponseDelayHttpServerFactory implements HttpServerFactory {
+
+    private static final String MOCK_SERVICE_CONTEXT_PATH = "/";
+
+    private final long tickDurationMilliseconds;
+
+    AsyncResponseDelayHttpServerFactory(long tickDurationMilliseconds) {
+        this.tickDurationMilliseconds = tickDurationMilliseconds;
+    }
+
+    @Override
+    public HttpServer buildHttpServer(Options options,
+                                      AdminRequestHandler adminRequestHandler,
+                                      StubRequestHandler stubRequestHandler) {
+        return new JettyHttpServer(options, adminRequestHandler, stubRequestHandler) {
+
+            @Override
+            protected HandlerCollection createHandler(Options options,
+                                                      AdminRequestHandler adminRequestHandler,
+                                                      StubRequestHandler stubRequestHandler) {
+                HandlerCollection handlers = super.createHandler(options, adminRequestHandler, stubRequestHandler);
+                for (Handler handler : handlers.getChildHandlersByClass(ServletContextHandler.class)) {
+                    ServletContextHandler context = (ServletContextHandler) handler;
+                    if (MOCK_SERVICE_CONTEXT_PATH.equals(context.getContextPath())) {
+                        replaceServlet(context);
+                    }
+                }
+                return handlers;
+            }
+        };
+    }
+
+    private void replaceServlet(ServletContextHandler context) {
+        context.setAttribute(AsyncResponseDelayServlet.TICK_DURATION_ATTRIBUTE, tickDurationMilliseconds);
+        for (ServletHolder holder : context.getServletHandler().getServlets()) {
+            if (WireMockHandlerDispatchingServlet.class.getName().equals(holder.getClassName())) {
+                holder.setHeldClass(AsyncResponseDelayServlet.class);
+                holder.setAsyncSupported(true);
+            }
+        }
+
+        FilterHolder[] filters = context.getServletHandler().getFilters();
+        if (filters != null) {
+            for (FilterHolder filter : filters) {
+                filter.setAsyncSupported(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.Notifier;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.servlet.WireMockHandlerDispatchingServlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parks the requests whose responses contain the internal header of
+ * {@link AsyncResponseDelayTransformer}. The server thread returns as soon
+ * as the request has been parked, and the timer wheel of the servlet hands
+ * the response over to a server thread when the delay has expired. Other
+ * responses are written by WireMock.
+ *
+ * A parked request never waits forever. The container times it out
+ * {@link #TIMEOUT_MARGIN_MILLISECONDS} milliseconds after its delay, and a
+ * request whose timer task fails is completed right away. In both cases
+ * the client gets an empty response that has the status code 500.
+ */
+public class AsyncResponseDelayServlet extends WireMockHandlerDispatchingServlet {
+
+    static final String TICK_DURATION_ATTRIBUTE = AsyncResponseDelayServlet.class.getName() + ".tickDuration";
+    static final long TIMEOUT_MARGIN_MILLISECONDS = 10_000;
+
+    private TimerWheel timerWheel;
+
+    @Override
+    public void init(ServletConfig config) {
+        super.init(config);
+        Long tickDuration = (Long) config.getServletContext().getAttribute(TICK_DURATION_ATTRIBUTE);
+        this.timerWheel = new TimerWheel(tickDuration == null ? AsyncResponseDelays.DEFAULT_TICK_DURATION_MILLISECONDS : tickDuration,
+                TimeUnit.MILLISECONDS,
+                (Notifier) config.getServletContext().getAttribute(Notifier.KEY)
+        );
+    }
+
+    @Override
+    public void destroy() {
+        timerWheel.stop();
+        super.destroy();
+    }
+
+    @Override
+    public void applyResponse(Response response,
+                              HttpServletRequest httpServletRequest,
+                              HttpServletResponse httpServletResponse) {
+        HttpHeader delayHeader = response.getHeaders().getHeader(AsyncResponseDelays.DELAY_HEADER);
+        if (!delayHeader.isPresent()) {
+            super.applyResponse(response, httpServletRequest, httpServletResponse);
+            return;
+        }
+
+        long delay = Long.parseLong(delayHeader.firstValue());
+        Response delayedResponse = removeDelayHeader(response);
+
+        //The delay is measured by the timer wheel. The container times out only the requests that the wheel has lost.
+        AsyncContext asyncContext = httpServletRequest.startAsync();
+        asyncContext.setTimeout(delay + TIMEOUT_MARGIN_MILLISECONDS);
+        ParkedRequest parkedRequest = new ParkedRequest(asyncContext);
+        asyncContext.addListener(parkedRequest);
+        timerWheel.schedule(() -> asyncContext.start(() -> parkedRequest.write(delayedResponse)),
+                parkedRequest::fail,
+                delay,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private static Response removeDelayHeader(Response response) {
+        List<HttpHeader> headers = new ArrayList<>();
+        for (HttpHeader header : response.getHeaders().all()) {
+            if (!header.keyEquals(AsyncResponseDelays.DELAY_HEADER)) {
+                headers.add(header);
+            }
+        }
+
+        return Response.Builder.like(response)
+                .but()
+                .statusMessage(response.getStatusMessage())
+                .headers(new HttpHeaders(headers))
+                .build();
+    }
+
+    /**
+     * Completes a parked request exactly once. Either the delayed response is
+     * written, or the request fails because of a timeout or an error.
+     */
+    private final class ParkedRequest implements AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private ParkedRequest(AsyncContext asyncContext) {
+            this.asyncContext = asyncContext;
+        }
+
+        private void write(Response delayedResponse) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                AsyncResponseDelayServlet.super.applyResponse(delayedResponse,
+                        (HttpServletRequest) asyncContext.getRequest(),
+                        (HttpServletResponse) asyncContext.getResponse()
+                );
+            }
+            finally {
+                asyncContext.complete();
+            }
+        }
+
+        private void fail() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                response.setContentLength(0);
+            }
+            asyncContext.complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            fail();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            fail();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
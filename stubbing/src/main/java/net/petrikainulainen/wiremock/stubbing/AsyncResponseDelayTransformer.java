@@ -0,0 +1,54 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+
+/**
+ * Removes the initial delay from a rendered response and replaces it with
+ * an internal header that contains the delay. Because the response has no
+ * delay, WireMock doesn't put the server thread to sleep before it writes
+ * the response. Instead, {@link AsyncResponseDelayServlet} parks the request
+ * and writes the response after the delay has expired.
+ *
+ * The transformer is applied after WireMock has added the global delays and
+ * sampled the random delay of the stub. That's why the header contains the
+ * same delay that WireMock would wait.
+ *
+ * This transformer must not be used without the servlet. That's why it
+ * should be registered by using {@link AsyncResponseDelays#enable}.
+ */
+public class AsyncResponseDelayTransformer extends ResponseTransformer {
+
+    public static final String NAME = "async-response-delay";
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        if (!canBeDelayedAsynchronously(response)) {
+            return response;
+        }
+
+        long delay = response.getInitialDelay();
+        return Response.Builder.like(response)
+                .but()
+                .statusMessage(response.getStatusMessage())
+                .headers(response.getHeaders().plus(new HttpHeader(AsyncResponseDelays.DELAY_HEADER, Long.toString(delay))))
+                .incrementInitialDelay(-delay)
+                .build();
+    }
+
+    private boolean canBeDelayedAsynchronously(Response response) {
+        return response.wasConfigured() &&
+                response.getInitialDelay() > 0 &&
+                response.getFault() == null &&
+                !response.shouldAddChunkedDribbleDelay();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,65 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+/**
+ * Configures a WireMock server to delay its responses without holding
+ * a server thread. When this mode is enabled, a delayed request is
+ * parked as an asynchronous servlet request, and the server thread is
+ * returned to the thread pool. The response is written by a server
+ * thread after the delay has expired. This means that a small thread
+ * pool can hold thousands of delayed requests at the same time.
+ *
+ * The delays are measured by a timer wheel. A response is written at
+ * most one tick after its delay has expired. Fixed, random, and global
+ * delays are supported. Responses that return a fault or use a chunked
+ * dribble delay are delayed by WireMock as usual. Because the delay is
+ * removed from the rendered response, the journal of the server contains
+ * the internal header that passes the delay to the servlet.
+ *
+ * This mode replaces the HTTP server factory of the configuration. This
+ * means that it cannot be used together with another HTTP server factory
+ * or with {@link MappedBodyFiles}, {@link PreparedResponses}, or
+ * {@link StreamingBodies}.
+ */
+public final class AsyncResponseDelays {
+
+    public static final long DEFAULT_TICK_DURATION_MILLISECONDS = 10;
+
+    /**
+     * The internal header that passes the delay of the response from
+     * {@link AsyncResponseDelayTransformer} to {@link AsyncResponseDelayServlet}.
+     * This header is never sent to the client.
+     */
+    static final String DELAY_HEADER = "X-WireMock-Async-Delay";
+
+    private AsyncResponseDelays() {}
+
+    /**
+     * Enables the asynchronous delay mode by using the default tick
+     * duration and returns the modified configuration.
+     *
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        return enable(options, DEFAULT_TICK_DURATION_MILLISECONDS);
+    }
+
+    /**
+     * Enables the asynchronous delay mode and returns the modified configuration.
+     *
+     * @param tickDurationMilliseconds  The duration of one tick of the timer wheel.
+     *                                  A shorter tick makes the delays more precise,
+     *                                  but it wakes up the timer thread more often.
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options, long tickDurationMilliseconds) {
+        if (tickDurationMilliseconds < 1) {
+            throw new IllegalArgumentException("The tick duration must be positive");
+        }
+        return HttpServerFactories.replaceDefault(options, new AsyncResponseDelayHttpServerFactory(tickDurationMilliseconds))
+                .extensions(new AsyncResponseDelayTransformer());
+    }
+}
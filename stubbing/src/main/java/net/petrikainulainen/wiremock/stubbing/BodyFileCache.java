@@ -0,0 +1,127 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache that stores the content of body files. When the total
+ * size of the cached files exceeds the byte budget of the cache, the cache
+ * evicts the least recently used files. Files that are larger than the byte
+ * budget are never cached.
+ *
+ * Before the cache returns the content of a file, it compares the size and
+ * the last modification time of the file with the values that were read
+ * when the file was cached. If either of them has changed, the cache reads
+ * the file again.
+ */
+public final class BodyFileCache {
+
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024L * 1024L;
+
+    private final long maximumBytes;
+    private final Map<Path, CachedFile> cachedFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private long cachedBytes;
+
+    public BodyFileCache(long maximumBytes) {
+        if (maximumBytes < 1) {
+            throw new IllegalArgumentException("The byte budget must be at least 1. Was: " + maximumBytes);
+        }
+        this.maximumBytes = maximumBytes;
+    }
+
+    public BodyFileCache() {
+        this(DEFAULT_MAXIMUM_BYTES);
+    }
+
+    byte[] read(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        FileTime lastModified = attributes.lastModifiedTime();
+
+        synchronized (this) {
+            CachedFile cachedFile = cachedFiles.get(path);
+            if (cachedFile != null && cachedFile.isCurrent(size, lastModified)) {
+                hitCount.incrementAndGet();
+                return cachedFile.content;
+            }
+        }
+
+        missCount.incrementAndGet();
+        byte[] content = Files.readAllBytes(path);
+
+        //If the size doesn't match, the file was modified while we were reading it.
+        if (content.length == size && size <= maximumBytes) {
+            put(path, new CachedFile(content, lastModified));
+        }
+        return content;
+    }
+
+    private synchronized void put(Path path, CachedFile cachedFile) {
+        CachedFile replaced = cachedFiles.put(path, cachedFile);
+        if (replaced != null) {
+            cachedBytes -= replaced.content.length;
+        }
+        cachedBytes += cachedFile.content.length;
+
+        Iterator<CachedFile> leastRecentlyUsed = cachedFiles.values().iterator();
+        while (cachedBytes > maximumBytes) {
+            cachedBytes -= leastRecentlyUsed.next().content.length;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Returns the number of reads that returned the content of a cached file.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of reads that read the file from the disk.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the total size of the cached files in bytes.
+     */
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Removes all files from the cache and resets the hit and miss counters.
+     */
+    public synchronized void clear() {
+        cachedFiles.clear();
+        cachedBytes = 0;
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    private static final class CachedFile {
+
+        private final byte[] content;
+        private final FileTime lastModified;
+
+        private CachedFile(byte[] content, FileTime lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isCurrent(long size, FileTime lastModified) {
+            return content.length == size && this.lastModified.equals(lastModified);
+        }
+    }
+}
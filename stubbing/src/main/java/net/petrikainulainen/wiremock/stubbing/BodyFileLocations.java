@@ -0,0 +1,52 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves the body files that are written by the filters of the stubbing
+ * modes, and checks that they are found from the <code>__files</code>
+ * directory of the server.
+ */
+final class BodyFileLocations {
+
+    private BodyFileLocations() {}
+
+    /**
+     * Returns the absolute path of the <code>__files</code> directory.
+     */
+    static Path root(FileSource files) {
+        return Paths.get(files.getPath()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves the body file against the root directory. Returns
+     * <code>null</code> if the body file points outside the root directory
+     * or isn't a regular file.
+     */
+    static Path resolve(Path root, String bodyFileName) {
+        Path bodyFile = root.resolve(bodyFileName).normalize();
+        return isInsideRoot(root, bodyFile) ? bodyFile : null;
+    }
+
+    /**
+     * Returns true if the body file is a regular file that is found from
+     * the root directory after symbolic links have been resolved.
+     */
+    static boolean isInsideRoot(Path root, Path bodyFile) {
+        if (!Files.isRegularFile(bodyFile)) {
+            return false;
+        }
+
+        try {
+            return bodyFile.toRealPath().startsWith(root.toRealPath());
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+}
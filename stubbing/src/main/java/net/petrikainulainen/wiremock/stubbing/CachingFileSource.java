@@ -0,0 +1,127 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.TextFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * A file source that reads the body files of the stubbed responses
+ * through a {@link BodyFileCache}. Every child of this file source
+ * uses the same cache. Files that aren't stored in the file system
+ * (for example, files that are read from the classpath) are read
+ * from the wrapped file source.
+ *
+ * We can enable the cache by passing a new caching file source to the
+ * <code>fileSource()</code> method of the WireMock configuration.
+ */
+public class CachingFileSource implements FileSource {
+
+    private static final String FILE_SCHEME = "file";
+
+    private final FileSource delegate;
+    private final BodyFileCache cache;
+
+    public CachingFileSource(FileSource delegate, BodyFileCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public BinaryFile getBinaryFileNamed(String name) {
+        BinaryFile file = delegate.getBinaryFileNamed(name);
+        URI uri = URI.create(file.name());
+        return FILE_SCHEME.equals(uri.getScheme()) ? new CachedBinaryFile(uri, cache) : file;
+    }
+
+    @Override
+    public TextFile getTextFileNamed(String name) {
+        return delegate.getTextFileNamed(name);
+    }
+
+    @Override
+    public void createIfNecessary() {
+        delegate.createIfNecessary();
+    }
+
+    @Override
+    public FileSource child(String subDirectoryName) {
+        return new CachingFileSource(delegate.child(subDirectoryName), cache);
+    }
+
+    @Override
+    public String getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public URI getUri() {
+        return delegate.getUri();
+    }
+
+    @Override
+    public List<TextFile> listFilesRecursively() {
+        return delegate.listFilesRecursively();
+    }
+
+    @Override
+    public void writeTextFile(String name, String contents) {
+        delegate.writeTextFile(name, contents);
+    }
+
+    @Override
+    public void writeBinaryFile(String name, byte[] contents) {
+        delegate.writeBinaryFile(name, contents);
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public void deleteFile(String name) {
+        delegate.deleteFile(name);
+    }
+
+    /**
+     * WireMock reads the body file of a response more than once (for
+     * example, when it records the response in the journal). That's why
+     * this file asks the cache for its content only once.
+     */
+    private static final class CachedBinaryFile extends BinaryFile {
+
+        private final BodyFileCache cache;
+        private byte[] content;
+
+        private CachedBinaryFile(URI uri, BodyFileCache cache) {
+            super(uri);
+            this.cache = cache;
+        }
+
+        @Override
+        public byte[] readContents() {
+            if (content == null) {
+                try {
+                    content = cache.read(Paths.get(getUri()));
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return content;
+        }
+
+        @Override
+        public InputStream getStream() {
+            return new ByteArrayInputStream(readContents());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.jetty9.JettyHttpServerFactory;
+
+/**
+ * Replaces the HTTP server factory of a WireMock configuration.
+ */
+final class HttpServerFactories {
+
+    private HttpServerFactories() {}
+
+    /**
+     * Replaces the default HTTP server factory of the configuration.
+     * Because a configuration has only one HTTP server factory, enabling
+     * a second mode would silently remove the servlet or the filter of the
+     * first mode while its response transformer stays registered. That's
+     * why this method fails if the configuration doesn't use the default
+     * HTTP server factory of WireMock.
+     *
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    static WireMockConfiguration replaceDefault(WireMockConfiguration options, HttpServerFactory factory) {
+        HttpServerFactory current = options.httpServerFactory();
+        if (current.getClass() != JettyHttpServerFactory.class) {
+            throw new IllegalStateException(String.format(
+                    "Cannot use the HTTP server factory %s because the configuration already uses the HTTP server factory %s",
+                    factory.getClass().getSimpleName(),
+                    current.getClass().getName()
+            ));
+        }
+        return options.httpServerFactory(factory);
+    }
+}
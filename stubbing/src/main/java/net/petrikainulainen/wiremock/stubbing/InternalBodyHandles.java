@@ -0,0 +1,75 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes the bodies that are written by a filter from a transformer to the
+ * filter. The transformer registers the body on the server side and writes
+ * only a random key to the internal header of the response definition. The
+ * filter takes the body by using the key.
+ *
+ * Because the internal header never contains a file path, a stub that sets
+ * the internal header itself cannot make the filter read a file. Its key
+ * isn't registered, and the filter rejects the response.
+ *
+ * A key can be taken once. A key that is never taken (for example, because
+ * WireMock returned a fault instead of the response) expires after
+ * {@link #EXPIRATION_MINUTES} minutes.
+ */
+final class InternalBodyHandles<T> {
+
+    static final long EXPIRATION_MINUTES = 10;
+
+    private final Cache<String, T> bodies = CacheBuilder.newBuilder()
+            .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Registers the body and returns the key that is written to the
+     * internal header.
+     */
+    String register(T body) {
+        String key = UUID.randomUUID().toString();
+        bodies.put(key, body);
+        return key;
+    }
+
+    /**
+     * Removes the body that has the given key and returns it, or returns
+     * <code>null</code> if no body has been registered with the key.
+     */
+    T take(String key) {
+        return bodies.asMap().remove(key);
+    }
+
+    /**
+     * Returns a response definition that doesn't have the given internal
+     * header. Only a transformer is allowed to set an internal header.
+     */
+    static ResponseDefinition withoutInternalHeader(ResponseDefinition responseDefinition, String internalHeader) {
+        HttpHeaders headers = responseDefinition.getHeaders();
+        if (headers == null || !headers.getHeader(internalHeader).isPresent()) {
+            return responseDefinition;
+        }
+
+        List<HttpHeader> otherHeaders = new ArrayList<>();
+        for (HttpHeader header : headers.all()) {
+            if (!header.keyEquals(internalHeader)) {
+                otherHeaders.add(header);
+            }
+        }
+        return ResponseDefinitionBuilder.like(responseDefinition)
+                .withHeaders(new HttpHeaders(otherHeaders))
+                .build();
+    }
+}
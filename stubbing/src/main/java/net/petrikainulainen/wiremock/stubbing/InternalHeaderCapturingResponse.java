@@ -0,0 +1,137 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Captures an internal header that is set by WireMock. After the header
+ * has been set, this response discards the body and the body-specific
+ * headers which are written by WireMock and GzipFilter, and it doesn't
+ * let them commit the response. This lets a filter write the body after
+ * WireMock has written the status code and the headers of the response.
+ */
+final class InternalHeaderCapturingResponse extends HttpServletResponseWrapper {
+
+    private final String internalHeader;
+    private String internalHeaderValue;
+
+    InternalHeaderCapturingResponse(HttpServletResponse response, String internalHeader) {
+        super(response);
+        this.internalHeader = internalHeader;
+    }
+
+    /**
+     * Returns the value of the internal header, or <code>null</code> if
+     * the header wasn't set.
+     */
+    String getInternalHeaderValue() {
+        return internalHeaderValue;
+    }
+
+    /**
+     * Replaces the response with an empty 500 response. The response isn't
+     * committed because WireMock wasn't allowed to write its body.
+     */
+    void reject() {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.reset();
+        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        response.setContentLength(0);
+    }
+
+    private boolean isCaptured() {
+        return internalHeaderValue != null;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (internalHeader.equalsIgnoreCase(name)) {
+            internalHeaderValue = value;
+        }
+        else if (!isDiscarded(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (internalHeader.equalsIgnoreCase(name)) {
+            internalHeaderValue = value;
+        }
+        else if (!isDiscarded(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    private boolean isDiscarded(String name) {
+        return isCaptured() &&
+                ("Content-Length".equalsIgnoreCase(name) || "Content-Encoding".equalsIgnoreCase(name));
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        if (!isCaptured()) {
+            super.setContentLength(length);
+        }
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (!isCaptured()) {
+            super.setContentLengthLong(length);
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return isCaptured() ? new DiscardingOutputStream() : super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        return isCaptured() ? new PrintWriter(new DiscardingWriter()) : super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (!isCaptured()) {
+            super.flushBuffer();
+        }
+    }
+
+    private static final class DiscardingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Asynchronous writes are not supported");
+        }
+    }
+
+    private static final class DiscardingWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int off, int len) {}
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
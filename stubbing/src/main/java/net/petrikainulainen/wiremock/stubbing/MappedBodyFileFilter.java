@@ -0,0 +1,117 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the body file whose key is found from the internal header of
+ * {@link MappedBodyFileTransformer} to the socket. The filter lets
+ * WireMock write the status code and the headers of the response, drops
+ * the (empty) body that WireMock writes, and writes the body file from
+ * memory-mapped buffers. The mapped buffers are unmapped when they are
+ * garbage collected.
+ *
+ * If the key isn't registered or the body file isn't found from the files
+ * root, the filter replaces the response with an empty 500 response.
+ *
+ * This filter must be the first filter of the mock service context because
+ * it replaces the body that was written by the filters which follow it.
+ */
+final class MappedBodyFileFilter implements Filter {
+
+    private static final long MAXIMUM_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final InternalBodyHandles<Path> bodyFiles;
+    private final Path filesRoot;
+
+    MappedBodyFileFilter(InternalBodyHandles<Path> bodyFiles, Path filesRoot) {
+        this.bodyFiles = bodyFiles;
+        this.filesRoot = filesRoot;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {}
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        InternalHeaderCapturingResponse capturingResponse = new InternalHeaderCapturingResponse(httpResponse,
+                MappedBodyFiles.BODY_FILE_HEADER
+        );
+        chain.doFilter(request, capturingResponse);
+
+        String bodyFileKey = capturingResponse.getInternalHeaderValue();
+        if (bodyFileKey == null) {
+            return;
+        }
+
+        Path bodyFile = bodyFiles.take(bodyFileKey);
+        if (bodyFile == null || !BodyFileLocations.isInsideRoot(filesRoot, bodyFile)) {
+            capturingResponse.reject();
+            return;
+        }
+        writeBodyFile(bodyFile, (HttpServletRequest) request, httpResponse);
+    }
+
+    private void writeBodyFile(Path bodyFile, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(bodyFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentLengthLong(size);
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+
+            OutputStream out = response.getOutputStream();
+            if (out instanceof HttpOutput) {
+                writeMappedSegments(channel, size, (HttpOutput) out);
+            }
+            else {
+                transfer(channel, size, Channels.newChannel(out));
+            }
+        }
+    }
+
+    /**
+     * Jetty writes a buffer that is larger than its aggregation buffer
+     * directly to the socket. This means that the content of the file
+     * is copied from the page cache to the socket by the kernel.
+     */
+    private void writeMappedSegments(FileChannel channel, long size, HttpOutput out) throws IOException {
+        for (long position = 0; position < size; position += MAXIMUM_SEGMENT_SIZE) {
+            long segmentSize = Math.min(MAXIMUM_SEGMENT_SIZE, size - position);
+            out.write(channel.map(FileChannel.MapMode.READ_ONLY, position, segmentSize));
+        }
+    }
+
+    private void transfer(FileChannel channel, long size, WritableByteChannel target) throws IOException {
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public void destroy() {}
+}
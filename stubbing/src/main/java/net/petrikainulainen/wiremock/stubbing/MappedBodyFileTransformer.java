@@ -0,0 +1,70 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+import java.nio.file.Path;
+
+/**
+ * Removes the body file from a response definition and replaces it with
+ * an internal header that contains the key of the body file. The path of
+ * the body file is kept on the server side, and the internal header is
+ * removed from every response definition that sets it. Because the response
+ * definition has no body file, WireMock doesn't read the file into the heap
+ * when it renders the response or records it in the journal. Instead,
+ * {@link MappedBodyFileFilter} writes the body file to the socket after
+ * WireMock has written the status code and the headers of the response.
+ *
+ * This transformer must not be used without the filter. That's why it
+ * should be registered by using {@link MappedBodyFiles#enable}.
+ */
+public class MappedBodyFileTransformer extends ResponseDefinitionTransformer {
+
+    public static final String NAME = "mapped-body-file";
+
+    private final InternalBodyHandles<Path> bodyFiles;
+
+    MappedBodyFileTransformer(InternalBodyHandles<Path> bodyFiles) {
+        this.bodyFiles = bodyFiles;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request,
+                                        ResponseDefinition responseDefinition,
+                                        FileSource files,
+                                        Parameters parameters) {
+        ResponseDefinition definition = InternalBodyHandles.withoutInternalHeader(responseDefinition,
+                MappedBodyFiles.BODY_FILE_HEADER
+        );
+        if (!canBeMapped(definition)) {
+            return definition;
+        }
+
+        //We let WireMock report missing files and paths which point outside the files root.
+        Path bodyFile = BodyFileLocations.resolve(BodyFileLocations.root(files), definition.getBodyFileName());
+        if (bodyFile == null) {
+            return definition;
+        }
+
+        return ResponseDefinitionBuilder.like(definition)
+                .withBodyFile(null)
+                .withHeader(MappedBodyFiles.BODY_FILE_HEADER, bodyFiles.register(bodyFile))
+                .build();
+    }
+
+    private boolean canBeMapped(ResponseDefinition responseDefinition) {
+        return responseDefinition.specifiesBodyFile() &&
+                responseDefinition.getFault() == null &&
+                responseDefinition.getChunkedDribbleDelay() == null &&
+                !responseDefinition.isProxyResponse();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
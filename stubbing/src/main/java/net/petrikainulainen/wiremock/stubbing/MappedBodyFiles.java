@@ -0,0 +1,46 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+import java.nio.file.Path;
+
+/**
+ * Configures a WireMock server to write the body files of its responses
+ * to the socket from memory-mapped buffers. When this mode is enabled,
+ * the server never copies the content of a body file to the heap. This
+ * means that the journal of the server contains an empty response body
+ * for every response whose body was read from a file.
+ *
+ * Stubs that return a fault, use a chunked dribble delay, or proxy
+ * requests to another server are served by WireMock as usual. Only the
+ * files of the <code>__files</code> directory can be served by this mode.
+ *
+ * This mode replaces the HTTP server factory of the configuration. This
+ * means that it cannot be used together with another HTTP server factory
+ * or with {@link PreparedResponses}, {@link AsyncResponseDelays}, or
+ * {@link StreamingBodies}.
+ */
+public final class MappedBodyFiles {
+
+    /**
+     * The internal header that passes the key of the body file from
+     * {@link MappedBodyFileTransformer} to {@link MappedBodyFileFilter}.
+     * This header is never sent to the client.
+     */
+    static final String BODY_FILE_HEADER = "X-WireMock-Mapped-Body-File";
+
+    private MappedBodyFiles() {}
+
+    /**
+     * Enables the memory-mapped body-file mode and returns the
+     * modified configuration.
+     *
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        InternalBodyHandles<Path> bodyFiles = new InternalBodyHandles<>();
+        return HttpServerFactories.replaceDefault(options, new MappedBodyFileHttpServerFactory(bodyFiles))
+                .extensions(new MappedBodyFileTransformer(bodyFiles));
+    }
+}
@@ -0,0 +1,40 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.FilterMapping;
+import org.eclipse.jetty.servlet.ServletHandler;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import java.util.EnumSet;
+
+/**
+ * Installs filters to the context which serves the stubbed responses.
+ */
+final class MockServiceFilters {
+
+    private MockServiceFilters() {}
+
+    /**
+     * Installs the filter so that it runs before the filters which were
+     * added by WireMock.
+     */
+    static void installFirst(ServletHandler servletHandler, String filterName, Filter filter) {
+        FilterHolder holder = new FilterHolder(filter);
+        holder.setName(filterName);
+        servletHandler.addFilter(holder);
+
+        FilterMapping mapping = new FilterMapping();
+        mapping.setFilterName(filterName);
+        mapping.setPathSpec("/*");
+        mapping.setDispatcherTypes(EnumSet.of(DispatcherType.REQUEST));
+
+        FilterMapping[] existingMappings = servletHandler.getFilterMappings();
+        FilterMapping[] mappings = new FilterMapping[existingMappings == null ? 1 : existingMappings.length + 1];
+        mappings[0] = mapping;
+        if (existingMappings != null) {
+            System.arraycopy(existingMappings, 0, mappings, 1, existingMappings.length);
+        }
+        servletHandler.setFilterMappings(mappings);
+    }
+}
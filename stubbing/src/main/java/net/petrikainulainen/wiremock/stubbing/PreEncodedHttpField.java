@@ -0,0 +1,80 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import org.eclipse.jetty.http.HttpGenerator;
+import org.eclipse.jetty.http.HttpHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A response header whose wire format is encoded when the header is
+ * created. Jetty copies the encoded bytes to the response buffer instead
+ * of encoding the name and the value of the header for every response.
+ *
+ * Jetty encodes only the headers which have a well-known name in advance.
+ * That's why this class extends Jetty's cached header field and replaces
+ * its name and its encoded bytes.
+ */
+public class PreEncodedHttpField extends HttpGenerator.CachedHttpField {
+
+    private static final byte[] COLON_SPACE = {':', ' '};
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final HttpHeader header;
+    private final String name;
+    private final byte[] encoded;
+
+    public PreEncodedHttpField(String name, String value) {
+        this(HttpHeader.CACHE.get(name), name, value);
+    }
+
+    private PreEncodedHttpField(HttpHeader header, String name, String value) {
+        super(header == null ? HttpHeader.UNKNOWN : header, value);
+        this.header = header;
+        this.name = name;
+        this.encoded = encode(header, name, value);
+    }
+
+    /**
+     * Encodes the header in the same way as Jetty does: well-known names are
+     * written in their canonical form, and line breaks are replaced with spaces.
+     */
+    private static byte[] encode(HttpHeader header, String name, String value) {
+        byte[] nameColonSpace = header == null
+                ? concat(sanitise(name), COLON_SPACE)
+                : header.getBytesColonSpace();
+        return concat(concat(nameColonSpace, sanitise(value)), CRLF);
+    }
+
+    private static byte[] sanitise(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\r' || bytes[i] == '\n') {
+                bytes[i] = ' ';
+            }
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    @Override
+    public HttpHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void putTo(ByteBuffer bufferInFillMode) {
+        bufferInFillMode.put(encoded);
+    }
+}
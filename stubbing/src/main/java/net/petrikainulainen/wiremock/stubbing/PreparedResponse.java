@@ -0,0 +1,119 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.server.Response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The serialized form of a static response. The headers are stored as
+ * pre-encoded header fields which are shared by all responses, and the
+ * body is stored in a read-only direct buffer.
+ */
+final class PreparedResponse {
+
+    private final String key;
+    private final ResponseDefinition markedDefinition;
+    private final HttpField[] headers;
+    private final boolean specifiesContentLength;
+    private final byte[] body;
+    private final ByteBuffer directBody;
+
+    PreparedResponse(String key, ResponseDefinition responseDefinition, ResponseDefinition markedDefinition) {
+        this.key = key;
+        this.markedDefinition = markedDefinition;
+        this.headers = createHeaderFields(responseDefinition);
+        this.specifiesContentLength = containsContentLength(headers);
+
+        byte[] body = responseDefinition.specifiesBodyContent() ? responseDefinition.getByteBody() : null;
+        this.body = body == null ? new byte[0] : body.clone();
+
+        ByteBuffer directBody = ByteBuffer.allocateDirect(this.body.length);
+        directBody.put(this.body);
+        //The cast keeps the Java 8 signature of flip() when the class is compiled on a newer JDK.
+        ((Buffer) directBody).flip();
+        this.directBody = directBody.asReadOnlyBuffer();
+    }
+
+    private static HttpField[] createHeaderFields(ResponseDefinition responseDefinition) {
+        List<HttpField> fields = new ArrayList<>();
+        if (responseDefinition.getHeaders() != null) {
+            for (com.github.tomakehurst.wiremock.http.HttpHeader header : responseDefinition.getHeaders().all()) {
+                for (String value : header.values()) {
+                    fields.add(new PreEncodedHttpField(header.key(), value));
+                }
+            }
+        }
+        return fields.toArray(new HttpField[0]);
+    }
+
+    private static boolean containsContentLength(HttpField[] headers) {
+        for (HttpField header : headers) {
+            if (HttpHeader.CONTENT_LENGTH.is(header.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the response definition that is rendered by WireMock. It
+     * contains the status of the response and the internal header which
+     * identifies this response.
+     */
+    ResponseDefinition getMarkedDefinition() {
+        return markedDefinition;
+    }
+
+    /**
+     * Writes the headers and the body of this response. If the response
+     * isn't wrapped by a filter, the shared header fields are added to
+     * the response and the body is written from the direct buffer.
+     * Otherwise, the headers and the body are written by using the
+     * servlet API so that the filter can process them.
+     */
+    void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean unwrapped = response instanceof Response;
+        if (unwrapped) {
+            HttpFields fields = ((Response) response).getHttpFields();
+            for (HttpField header : headers) {
+                fields.add(header);
+            }
+        }
+        else {
+            for (HttpField header : headers) {
+                response.addHeader(header.getName(), header.getValue());
+            }
+        }
+
+        if (!specifiesContentLength && unwrapped) {
+            response.setContentLength(body.length);
+        }
+        if ("HEAD".equals(request.getMethod()) || body.length == 0) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        if (unwrapped && out instanceof HttpOutput) {
+            ((HttpOutput) out).write(directBody.duplicate());
+        }
+        else {
+            out.write(body);
+        }
+    }
+}
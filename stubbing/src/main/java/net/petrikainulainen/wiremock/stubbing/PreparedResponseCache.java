@@ -0,0 +1,63 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Stores the prepared responses of the stubs. WireMock passes the response
+ * definition of a stub to the transformers as is, and that's why the
+ * responses are cached by the identity of their response definitions.
+ * When a stub is removed, its prepared response is garbage collected
+ * together with its response definition.
+ */
+final class PreparedResponseCache {
+
+    private final Cache<ResponseDefinition, PreparedResponse> responsesByDefinition = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+    private final Cache<String, PreparedResponse> responsesByKey = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+
+    /**
+     * Returns the prepared response of the response definition. If the
+     * response definition hasn't been prepared yet, this method prepares it.
+     */
+    PreparedResponse prepare(ResponseDefinition responseDefinition) {
+        try {
+            return responsesByDefinition.get(responseDefinition, () -> {
+                PreparedResponse prepared = createPreparedResponse(responseDefinition);
+                responsesByKey.put(prepared.getKey(), prepared);
+                return prepared;
+            });
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot prepare the response", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the prepared response that has the given key, or <code>null</code>
+     * if the response is no longer used by any stub.
+     */
+    PreparedResponse find(String key) {
+        return responsesByKey.getIfPresent(key);
+    }
+
+    private static PreparedResponse createPreparedResponse(ResponseDefinition responseDefinition) {
+        String key = UUID.randomUUID().toString();
+        ResponseDefinition markedDefinition = new ResponseDefinitionBuilder()
+                .withStatus(responseDefinition.getStatus())
+                .withStatusMessage(responseDefinition.getStatusMessage())
+                .withHeader(PreparedResponses.PREPARED_RESPONSE_HEADER, key)
+                .withFixedDelay(responseDefinition.getFixedDelayMilliseconds())
+                .withRandomDelay(responseDefinition.getDelayDistribution())
+                .build();
+        return new PreparedResponse(key, responseDefinition, markedDefinition);
+    }
+}
@@ -0,0 +1,88 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.servlet.WireMockHandlerDispatchingServlet;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+/**
+ * Writes the prepared response that is identified by the internal header
+ * of {@link PreparedResponseTransformer}. Other responses are written by
+ * WireMock.
+ */
+public class PreparedResponseServlet extends WireMockHandlerDispatchingServlet {
+
+    static final String CACHE_ATTRIBUTE = PreparedResponseCache.class.getName();
+
+    private PreparedResponseCache cache;
+
+    @Override
+    public void init(ServletConfig config) {
+        super.init(config);
+        this.cache = (PreparedResponseCache) config.getServletContext().getAttribute(CACHE_ATTRIBUTE);
+    }
+
+    @Override
+    public void applyResponse(Response response,
+                              HttpServletRequest httpServletRequest,
+                              HttpServletResponse httpServletResponse) {
+        PreparedResponse prepared = findPreparedResponse(response);
+        if (prepared == null) {
+            super.applyResponse(response, httpServletRequest, httpServletResponse);
+            return;
+        }
+
+        setStatus(response, httpServletResponse);
+
+        try {
+            prepared.writeTo(httpServletRequest, httpServletResponse);
+        }
+        catch (IOException e) {
+            throwUnchecked(e);
+        }
+    }
+
+    /**
+     * Sets the status code and the reason phrase of the response. The
+     * servlet API can set the reason phrase only by using a deprecated
+     * method, so the reason phrase is set through the Jetty response that
+     * is wrapped by the filters of the server.
+     */
+    private static void setStatus(Response response, HttpServletResponse httpServletResponse) {
+        httpServletResponse.setStatus(response.getStatus());
+        if (response.getStatusMessage() == null) {
+            return;
+        }
+
+        ServletResponse unwrapped = httpServletResponse;
+        while (unwrapped instanceof ServletResponseWrapper) {
+            unwrapped = ((ServletResponseWrapper) unwrapped).getResponse();
+        }
+        if (unwrapped instanceof org.eclipse.jetty.server.Response) {
+            ((org.eclipse.jetty.server.Response) unwrapped).setStatusWithReason(response.getStatus(),
+                    response.getStatusMessage()
+            );
+        }
+    }
+
+    /**
+     * Returns the prepared response of the rendered response, or <code>null</code>
+     * if the rendered response isn't a prepared response.
+     */
+    private PreparedResponse findPreparedResponse(Response response) {
+        if (cache == null) {
+            return null;
+        }
+
+        HttpHeader header = response.getHeaders().getHeader(PreparedResponses.PREPARED_RESPONSE_HEADER);
+        return header.isPresent() ? cache.find(header.firstValue()) : null;
+    }
+}
@@ -0,0 +1,53 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+/**
+ * Replaces a static response definition with a response definition that
+ * contains only the status of the response and an internal header which
+ * identifies the prepared response. The response is prepared when its stub
+ * serves the first request, and the same response definition is returned
+ * for every request which is served by the stub after that.
+ *
+ * This transformer must not be used without {@link PreparedResponseServlet}.
+ * That's why it should be registered by using {@link PreparedResponses#enable}.
+ */
+public class PreparedResponseTransformer extends ResponseDefinitionTransformer {
+
+    public static final String NAME = "prepared-response";
+
+    private final PreparedResponseCache cache;
+
+    PreparedResponseTransformer(PreparedResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request,
+                                        ResponseDefinition responseDefinition,
+                                        FileSource files,
+                                        Parameters parameters) {
+        if (!isStatic(responseDefinition)) {
+            return responseDefinition;
+        }
+        return cache.prepare(responseDefinition).getMarkedDefinition();
+    }
+
+    private boolean isStatic(ResponseDefinition responseDefinition) {
+        return responseDefinition.wasConfigured() &&
+                !responseDefinition.specifiesBodyFile() &&
+                responseDefinition.getFault() == null &&
+                responseDefinition.getChunkedDribbleDelay() == null &&
+                !responseDefinition.isProxyResponse() &&
+                (responseDefinition.getTransformers() == null || responseDefinition.getTransformers().isEmpty());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
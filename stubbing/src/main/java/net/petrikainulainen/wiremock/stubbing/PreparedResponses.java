@@ -0,0 +1,44 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+/**
+ * Configures a WireMock server to serialize the status, the headers, and
+ * the body of every static stubbed response only once. The serialized
+ * response is reused by every request that is served by the same stub,
+ * and its body is written to the socket from an immutable direct buffer.
+ *
+ * A response is static if it has no body file, fault, chunked dribble
+ * delay, proxy URL, or response transformers. All other responses are
+ * served by WireMock as usual. Because WireMock doesn't render the
+ * headers and the body of a static response, the journal of the server
+ * contains only the status code of these responses.
+ *
+ * This mode replaces the HTTP server factory of the configuration. This
+ * means that it cannot be used together with global response transformers,
+ * another HTTP server factory, or with {@link MappedBodyFiles},
+ * {@link AsyncResponseDelays}, or {@link StreamingBodies}.
+ */
+public final class PreparedResponses {
+
+    /**
+     * The internal header that passes the key of the prepared response
+     * from {@link PreparedResponseTransformer} to {@link PreparedResponseServlet}.
+     * This header is never sent to the client.
+     */
+    static final String PREPARED_RESPONSE_HEADER = "X-WireMock-Prepared-Response";
+
+    private PreparedResponses() {}
+
+    /**
+     * Enables the prepared response mode and returns the modified configuration.
+     *
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        PreparedResponseCache cache = new PreparedResponseCache();
+        return HttpServerFactories.replaceDefault(options, new PreparedResponseHttpServerFactory(cache))
+                .extensions(new PreparedResponseTransformer(cache));
+    }
+}
@@ -0,0 +1,46 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+/**
+ * Configures a WireMock server to stream the bodies that are described
+ * by {@link StreamingBody}. A streamed body is written in chunks by using
+ * the chunked transfer encoding, and the rate of the stream is controlled
+ * by pausing the server thread between the chunks. Because the server
+ * thread blocks when the client doesn't read the response, a slow client
+ * slows down the stream. This means that we can test how our clients
+ * handle backpressure and slow links.
+ *
+ * The server thread is held until the whole body has been written. The
+ * journal of the server contains an empty response body and the internal
+ * header of every streamed response. The internal header contains only a
+ * random key that is valid for one response.
+ *
+ * This mode replaces the HTTP server factory of the configuration. This
+ * means that it cannot be used together with another HTTP server factory
+ * or with {@link MappedBodyFiles}, {@link PreparedResponses}, or
+ * {@link AsyncResponseDelays}.
+ */
+public final class StreamingBodies {
+
+    /**
+     * The internal header that passes the key of the stream from
+     * {@link StreamingBodyTransformer} to {@link StreamingBodyFilter}.
+     * This header is never sent to the client.
+     */
+    static final String STREAMING_BODY_HEADER = "X-WireMock-Streaming-Body";
+
+    private StreamingBodies() {}
+
+    /**
+     * Enables the streaming body mode and returns the modified configuration.
+     *
+     * @throws IllegalStateException    If the configuration already uses
+     *                                  another HTTP server factory.
+     */
+    public static WireMockConfiguration enable(WireMockConfiguration options) {
+        InternalBodyHandles<StreamingBody> bodies = new InternalBodyHandles<>();
+        return HttpServerFactories.replaceDefault(options, new StreamingBodyHttpServerFactory(bodies))
+                .extensions(new StreamingBodyTransformer(bodies));
+    }
+}
@@ -0,0 +1,177 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes a response body that is streamed to the client in chunks.
+ * The content of the body is either read from a body file or generated
+ * by repeating the same content (for example, one NDJSON line or one
+ * server-sent event) a number of times. The chunks are written at the
+ * configured rate, and the whole body is never held in memory.
+ *
+ * A stream is attached to a stubbed response by using the
+ * {@link #applyTo(ResponseDefinitionBuilder)} method. The description
+ * is stored as the parameters of {@link StreamingBodyTransformer}, and
+ * that's why it can be registered to a remote WireMock server as well.
+ */
+public final class StreamingBody {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * The rate which means that the chunks are written as fast as
+     * the client reads them.
+     */
+    public static final long UNLIMITED_RATE = 0;
+
+    static final String BODY_FILE_NAME = "bodyFileName";
+    static final String REPEATED_CONTENT = "repeatedContent";
+    static final String REPEAT_COUNT = "repeatCount";
+    static final String CHUNK_SIZE = "chunkSize";
+    static final String BYTES_PER_SECOND = "bytesPerSecond";
+
+    private final String bodyFileName;
+    private final String repeatedContent;
+    private final long repeatCount;
+    private final int chunkSize;
+    private final long bytesPerSecond;
+
+    private StreamingBody(String bodyFileName,
+                          String repeatedContent,
+                          long repeatCount,
+                          int chunkSize,
+                          long bytesPerSecond) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("The rate must not be negative");
+        }
+        this.bodyFileName = bodyFileName;
+        this.repeatedContent = repeatedContent;
+        this.repeatCount = repeatCount;
+        this.chunkSize = chunkSize;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Creates a stream that reads its content from a file which is found
+     * from the <code>__files</code> directory of the WireMock server.
+     */
+    public static StreamingBody ofBodyFile(String bodyFileName) {
+        if (bodyFileName == null || bodyFileName.isEmpty()) {
+            throw new IllegalArgumentException("The name of the body file must not be empty");
+        }
+        return new StreamingBody(bodyFileName, null, 0, DEFAULT_CHUNK_SIZE, UNLIMITED_RATE);
+    }
+
+    /**
+     * Creates a stream whose content is the given (UTF-8 encoded) content
+     * repeated <code>repeatCount</code> times.
+     */
+    public static StreamingBody ofRepeatedContent(String content, long repeatCount) {
+        if (content == null || content.isEmpty()) {
+            throw new IllegalArgumentException("The repeated content must not be empty");
+        }
+        if (repeatCount < 0) {
+            throw new IllegalArgumentException("The repeat count must not be negative");
+        }
+        return new StreamingBody(null, content, repeatCount, DEFAULT_CHUNK_SIZE, UNLIMITED_RATE);
+    }
+
+    /**
+     * Returns a stream that writes chunks of the given size.
+     */
+    public StreamingBody withChunkSize(int chunkSize) {
+        return new StreamingBody(bodyFileName, repeatedContent, repeatCount, chunkSize, bytesPerSecond);
+    }
+
+    /**
+     * Returns a stream that writes at most <code>bytesPerSecond</code> bytes
+     * per second. The chunks are written at even intervals.
+     */
+    public StreamingBody withBytesPerSecond(long bytesPerSecond) {
+        return new StreamingBody(bodyFileName, repeatedContent, repeatCount, chunkSize, bytesPerSecond);
+    }
+
+    /**
+     * Returns a stream that reads its content from the given body file.
+     */
+    StreamingBody withBodyFileName(String bodyFileName) {
+        return new StreamingBody(bodyFileName, null, 0, chunkSize, bytesPerSecond);
+    }
+
+    /**
+     * Configures the stubbed response to stream this body and returns
+     * the modified response definition builder.
+     */
+    public ResponseDefinitionBuilder applyTo(ResponseDefinitionBuilder response) {
+        response.withTransformers(StreamingBodyTransformer.NAME);
+        for (Map.Entry<String, Object> parameter : toParameters().entrySet()) {
+            response.withTransformerParameter(parameter.getKey(), parameter.getValue());
+        }
+        return response;
+    }
+
+    private Map<String, Object> toParameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (bodyFileName != null) {
+            parameters.put(BODY_FILE_NAME, bodyFileName);
+        }
+        else {
+            parameters.put(REPEATED_CONTENT, repeatedContent);
+            parameters.put(REPEAT_COUNT, repeatCount);
+        }
+        parameters.put(CHUNK_SIZE, chunkSize);
+        parameters.put(BYTES_PER_SECOND, bytesPerSecond);
+        return parameters;
+    }
+
+    /**
+     * Reads the stream from the parameters of {@link StreamingBodyTransformer}.
+     */
+    static StreamingBody fromParameters(Parameters parameters) {
+        StreamingBody body = parameters.containsKey(BODY_FILE_NAME)
+                ? ofBodyFile(parameters.getString(BODY_FILE_NAME))
+                : ofRepeatedContent(parameters.getString(REPEATED_CONTENT), getLong(parameters, REPEAT_COUNT, 0));
+        return body
+                .withChunkSize((int) getLong(parameters, CHUNK_SIZE, DEFAULT_CHUNK_SIZE))
+                .withBytesPerSecond(getLong(parameters, BYTES_PER_SECOND, UNLIMITED_RATE));
+    }
+
+    private static long getLong(Parameters parameters, String key, long defaultValue) {
+        Object value = parameters.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+    }
+
+    boolean isBodyFile() {
+        return bodyFileName != null;
+    }
+
+    String getBodyFileName() {
+        return bodyFileName;
+    }
+
+    String getRepeatedContent() {
+        return repeatedContent;
+    }
+
+    long getRepeatCount() {
+        return repeatCount;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+}
@@ -0,0 +1,177 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the body whose key is found from the internal header of
+ * {@link StreamingBodyTransformer} to the socket. The filter lets WireMock
+ * write the status code and the headers of the response, drops the body
+ * that WireMock writes, and writes the streamed body one chunk at a time.
+ * Every chunk is flushed to the client, and the next chunk is written when
+ * the rate of the stream allows it. Only one chunk is held in memory.
+ *
+ * If the key isn't registered or the body file isn't found from the files
+ * root, the filter replaces the response with an empty 500 response.
+ *
+ * This filter must be the first filter of the mock service context because
+ * it replaces the body that was written by the filters which follow it.
+ */
+final class StreamingBodyFilter implements Filter {
+
+    private final InternalBodyHandles<StreamingBody> bodies;
+    private final Path filesRoot;
+
+    StreamingBodyFilter(InternalBodyHandles<StreamingBody> bodies, Path filesRoot) {
+        this.bodies = bodies;
+        this.filesRoot = filesRoot;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {}
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        InternalHeaderCapturingResponse capturingResponse = new InternalHeaderCapturingResponse(httpResponse,
+                StreamingBodies.STREAMING_BODY_HEADER
+        );
+        chain.doFilter(request, capturingResponse);
+
+        String streamingBodyKey = capturingResponse.getInternalHeaderValue();
+        if (streamingBodyKey == null) {
+            return;
+        }
+
+        StreamingBody body = bodies.take(streamingBodyKey);
+        if (body == null || !isServable(body)) {
+            capturingResponse.reject();
+            return;
+        }
+        if (!"HEAD".equals(((HttpServletRequest) request).getMethod())) {
+            writeStreamingBody(body, httpResponse.getOutputStream());
+        }
+    }
+
+    private boolean isServable(StreamingBody body) {
+        return !body.isBodyFile() || BodyFileLocations.isInsideRoot(filesRoot, Paths.get(body.getBodyFileName()));
+    }
+
+    private void writeStreamingBody(StreamingBody body, OutputStream out) throws IOException {
+        ChunkPacer pacer = new ChunkPacer(body.getBytesPerSecond());
+        if (body.isBodyFile()) {
+            writeBodyFile(body, out, pacer);
+        }
+        else {
+            writeRepeatedContent(body, out, pacer);
+        }
+    }
+
+    private void writeBodyFile(StreamingBody body, OutputStream out, ChunkPacer pacer) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(body.getChunkSize());
+        try (FileChannel channel = FileChannel.open(Paths.get(body.getBodyFileName()), StandardOpenOption.READ)) {
+            while (channel.read(chunk) != -1) {
+                //A short read is completed before the chunk is written.
+                if (chunk.hasRemaining()) {
+                    continue;
+                }
+                writeChunk(chunk, out, pacer);
+            }
+            if (chunk.position() > 0) {
+                writeChunk(chunk, out, pacer);
+            }
+        }
+    }
+
+    private void writeRepeatedContent(StreamingBody body, OutputStream out, ChunkPacer pacer) throws IOException {
+        byte[] content = body.getRepeatedContent().getBytes(StandardCharsets.UTF_8);
+        long remaining = content.length * body.getRepeatCount();
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(body.getChunkSize(), Math.max(remaining, 1)));
+
+        int contentPosition = 0;
+        while (remaining > 0) {
+            int length = (int) Math.min(Math.min(chunk.remaining(), content.length - contentPosition), remaining);
+            chunk.put(content, contentPosition, length);
+            contentPosition = (contentPosition + length) % content.length;
+            remaining -= length;
+
+            if (!chunk.hasRemaining() || remaining == 0) {
+                writeChunk(chunk, out, pacer);
+            }
+        }
+    }
+
+    private void writeChunk(ByteBuffer chunk, OutputStream out, ChunkPacer pacer) throws IOException {
+        pacer.awaitNextChunk();
+        out.write(chunk.array(), 0, chunk.position());
+        out.flush();
+        pacer.chunkWritten(chunk.position());
+        //The cast keeps the Java 8 signature of clear() when the class is compiled on a newer JDK.
+        ((Buffer) chunk).clear();
+    }
+
+    @Override
+    public void destroy() {}
+
+    /**
+     * Paces the chunks so that the stream doesn't exceed its rate. The time
+     * when the next chunk can be written is calculated from the number of
+     * bytes that have been written since the stream was started. This means
+     * that a late chunk doesn't delay the chunks which follow it.
+     */
+    private static final class ChunkPacer {
+
+        private final long bytesPerSecond;
+        private final long startTime = System.nanoTime();
+        private long writtenBytes;
+
+        private ChunkPacer(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        private void awaitNextChunk() throws InterruptedIOException {
+            if (bytesPerSecond == StreamingBody.UNLIMITED_RATE) {
+                return;
+            }
+
+            long nextChunkTime = startTime + (long) ((double) writtenBytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+            long remaining = nextChunkTime - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("The stream was interrupted");
+                }
+            }
+        }
+
+        private void chunkWritten(int length) {
+            writtenBytes += length;
+        }
+    }
+}
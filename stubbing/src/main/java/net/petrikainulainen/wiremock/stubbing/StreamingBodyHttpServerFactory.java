@@ -0,0 +1,53 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.core.WireMockApp;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.jetty9.JettyHttpServer;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+
+import java.nio.file.Path;
+
+/**
+ * Creates a Jetty server that installs {@link StreamingBodyFilter} as
+ * the first filter of the context which serves the stubbed responses.
+ */
+public class StreamingBodyHttpServerFactory implements HttpServerFactory {
+
+    private static final String FILTER_NAME = "streaming-body-filter";
+    private static final String MOCK_SERVICE_CONTEXT_PATH = "/";
+
+    private final InternalBodyHandles<StreamingBody> bodies;
+
+    StreamingBodyHttpServerFactory(InternalBodyHandles<StreamingBody> bodies) {
+        this.bodies = bodies;
+    }
+
+    @Override
+    public HttpServer buildHttpServer(Options options,
+                                      AdminRequestHandler adminRequestHandler,
+                                      StubRequestHandler stubRequestHandler) {
+        return new JettyHttpServer(options, adminRequestHandler, stubRequestHandler) {
+
+            @Override
+            protected HandlerCollection createHandler(Options options,
+                                                      AdminRequestHandler adminRequestHandler,
+                                                      StubRequestHandler stubRequestHandler) {
+                HandlerCollection handlers = super.createHandler(options, adminRequestHandler, stubRequestHandler);
+                Path filesRoot = BodyFileLocations.root(options.filesRoot().child(WireMockApp.FILES_ROOT));
+                for (Handler handler : handlers.getChildHandlersByClass(ServletContextHandler.class)) {
+                    ServletContextHandler context = (ServletContextHandler) handler;
+                    if (MOCK_SERVICE_CONTEXT_PATH.equals(context.getContextPath())) {
+                        MockServiceFilters.installFirst(context.getServletHandler(), FILTER_NAME, new StreamingBodyFilter(bodies, filesRoot));
+                    }
+                }
+                return handlers;
+            }
+        };
+    }
+}
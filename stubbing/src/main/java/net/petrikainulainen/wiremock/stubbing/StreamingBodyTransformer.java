@@ -0,0 +1,70 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+import java.nio.file.Path;
+
+/**
+ * Registers the streamed body on the server side and adds an internal
+ * header that contains the key of the body to a response definition. If
+ * the body is read from a file, the name of the file is resolved before the
+ * body is registered. The internal header never contains the body or the
+ * path of the body file. {@link StreamingBodyFilter} writes
+ * the body after WireMock has written the status code and the headers of
+ * the response. If the stub configures a body as well, that body is discarded.
+ *
+ * This transformer is applied only to the stubs that use it. It must not
+ * be used without the filter. That's why it should be registered by using
+ * {@link StreamingBodies#enable}.
+ */
+public class StreamingBodyTransformer extends ResponseDefinitionTransformer {
+
+    public static final String NAME = "streaming-body";
+
+    private final InternalBodyHandles<StreamingBody> bodies;
+
+    StreamingBodyTransformer(InternalBodyHandles<StreamingBody> bodies) {
+        this.bodies = bodies;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request,
+                                        ResponseDefinition responseDefinition,
+                                        FileSource files,
+                                        Parameters parameters) {
+        StreamingBody body = StreamingBody.fromParameters(parameters);
+        if (body.isBodyFile()) {
+            body = body.withBodyFileName(resolveBodyFile(body.getBodyFileName(), files).toString());
+        }
+
+        ResponseDefinition definition = InternalBodyHandles.withoutInternalHeader(responseDefinition,
+                StreamingBodies.STREAMING_BODY_HEADER
+        );
+        return ResponseDefinitionBuilder.like(definition)
+                .withHeader(StreamingBodies.STREAMING_BODY_HEADER, bodies.register(body))
+                .build();
+    }
+
+    private Path resolveBodyFile(String bodyFileName, FileSource files) {
+        Path bodyFile = BodyFileLocations.resolve(BodyFileLocations.root(files), bodyFileName);
+        if (bodyFile == null) {
+            throw new IllegalArgumentException("The body file was not found: " + bodyFileName);
+        }
+        return bodyFile;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,167 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.Notifier;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel that runs tasks after a delay. The wheel is an array
+ * of buckets, and one thread advances it by one bucket per tick. A task is
+ * put to the bucket of the tick when it expires, and it is run when the
+ * wheel arrives at that bucket for the last time. This means that scheduling
+ * and expiring a task takes constant time no matter how many tasks are
+ * waiting, and that a task is run at most one tick after its delay.
+ *
+ * New tasks are passed to the wheel thread through a lock-free queue. The
+ * buckets are used only by the wheel thread. Because the tasks are run on
+ * the wheel thread, they must not block.
+ *
+ * If a task fails, the wheel logs the failure and runs the failure handler
+ * of the task. This way the owner of the task can release the resources
+ * that the task would have released.
+ */
+final class TimerWheel {
+
+    private static final int BUCKET_COUNT = 512;
+    private static final String THREAD_NAME = "wiremock-timer-wheel";
+
+    private final long tickNanos;
+    private final Notifier notifier;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Timeout>[] buckets = new ArrayDeque[BUCKET_COUNT];
+    private final long startTime;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    TimerWheel(long tickDuration, TimeUnit unit, Notifier notifier) {
+        if (tickDuration < 1) {
+            throw new IllegalArgumentException("The tick duration must be positive");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.notifier = notifier;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            buckets[bucket] = new ArrayDeque<>();
+        }
+        this.startTime = System.nanoTime();
+        this.thread = new Thread(this::run, THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Runs the task on the wheel thread after the delay has expired. If the
+     * task throws an exception, the failure handler is run on the wheel thread.
+     */
+    void schedule(Runnable task, Runnable onFailure, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("The timer wheel has been stopped");
+        }
+        newTimeouts.add(new Timeout(task, onFailure, System.nanoTime() + unit.toNanos(delay)));
+    }
+
+    /**
+     * Stops the wheel thread. The tasks that haven't been run are discarded.
+     */
+    void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                return;
+            }
+            transferNewTimeouts();
+            expireTimeouts(buckets[(int) (tick % BUCKET_COUNT)]);
+            tick++;
+        }
+    }
+
+    private boolean waitForNextTick() {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            long expirationTick = (timeout.deadline - startTime) / tickNanos;
+            timeout.remainingRounds = (expirationTick - tick) / BUCKET_COUNT;
+
+            //A timeout that has already expired is run on the current tick.
+            long bucketTick = Math.max(expirationTick, tick);
+            buckets[(int) (bucketTick % BUCKET_COUNT)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(ArrayDeque<Timeout> bucket) {
+        Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+
+            timeouts.remove();
+            run(timeout);
+        }
+    }
+
+    /**
+     * A failing task must not stop the tasks that expire after it.
+     */
+    private void run(Timeout timeout) {
+        try {
+            timeout.task.run();
+        }
+        catch (RuntimeException e) {
+            notifier.error("A task of the timer wheel failed", e);
+            try {
+                timeout.onFailure.run();
+            }
+            catch (RuntimeException failureHandlerException) {
+                notifier.error("The failure handler of a timer wheel task failed", failureHandlerException);
+            }
+        }
+    }
+
+    private static final class Timeout {
+
+        private final Runnable task;
+        private final Runnable onFailure;
+        private final long deadline;
+        private long remainingRounds;
+
+        private Timeout(Runnable task, Runnable onFailure, long deadline) {
+            this.task = task;
+            this.onFailure = onFailure;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This class demonstrates how we can delay HTTP responses without
+ * holding a server thread for the duration of the delay.
+ */
+@DisplayName("Delay responses asynchronously")
+class AsyncResponseDelayTest {
+
+    private static final int CONTAINER_THREADS = 20;
+    private static final int REQUEST_COUNT = 10_000;
+    private static final int DELAY_MILLISECONDS = 5000;
+    private static final long REQUEST_TIMEOUT_MILLISECONDS = 60_000;
+
+    /**
+     * Every request uses one file descriptor in the client and another one
+     * in the server. The rest is left to the JVM, Jetty, and the other tests.
+     */
+    private static final long REQUIRED_FILE_DESCRIPTORS = 2L * REQUEST_COUNT + 1000;
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(AsyncResponseDelays.enable(options()
+            .dynamicPort()
+            .containerThreads(CONTAINER_THREADS)
+            .jettyAcceptors(1)
+            .jettyAcceptQueueSize(REQUEST_COUNT)
+    ));
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+    }
+
+    @Nested
+    @DisplayName("When we configure a delay")
+    class WhenWeConfigureDelay {
+
+        @Test
+        @DisplayName("Should return the configured HTTP response after the fixed delay")
+        void shouldReturnConfiguredHttpResponseAfterFixedDelay() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Name", "Petri Kainulainen")
+                    .withBody("Hello World!")
+                    .withFixedDelay(500)
+            ));
+
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMilliseconds).isGreaterThanOrEqualTo(500);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().get("Name")).containsExactly("Petri Kainulainen");
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+
+        @Test
+        @DisplayName("Should return the configured HTTP response after the random delay")
+        void shouldReturnConfiguredHttpResponseAfterRandomDelay() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withBody("Hello World!")
+                    .withUniformRandomDelay(200, 300)
+            ));
+
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMilliseconds).isGreaterThanOrEqualTo(200);
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+
+        @Test
+        @DisplayName("Should hide the internal header")
+        void shouldHideInternalHeader() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(100)
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getHeaders().containsKey(AsyncResponseDelays.DELAY_HEADER)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("When we don't configure a delay")
+    class WhenWeDoNotConfigureDelay {
+
+        @Test
+        @DisplayName("Should return the configured HTTP response")
+        void shouldReturnConfiguredHttpResponse() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withBody("Hello World!")
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+    }
+
+    @Nested
+    @DisplayName("When the configuration already uses another HTTP server factory")
+    class WhenConfigurationAlreadyUsesAnotherHttpServerFactory {
+
+        @Test
+        @DisplayName("Should fail instead of replacing the other HTTP server factory")
+        void shouldFailInsteadOfReplacingOtherHttpServerFactory() {
+            assertThatThrownBy(() -> AsyncResponseDelays.enable(PreparedResponses.enable(options())))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(PreparedResponseHttpServerFactory.class.getName());
+        }
+    }
+
+    /**
+     * If the server threads waited for the delays, {@link #CONTAINER_THREADS}
+     * threads would need {@code REQUEST_COUNT / CONTAINER_THREADS * DELAY_MILLISECONDS}
+     * milliseconds (over 40 minutes) to serve these requests. The client opens
+     * one connection per request and waits for all responses on one thread.
+     */
+    @Test
+    @Tag("soak")
+    @DisplayName("Should hold ten thousand concurrent delayed requests with a small thread pool")
+    void shouldHoldTenThousandConcurrentDelayedRequestsWithSmallThreadPool() throws IOException {
+        assumeTrue(maxFileDescriptorCount() >= REQUIRED_FILE_DESCRIPTORS,
+                "The process can open fewer than " + REQUIRED_FILE_DESCRIPTORS + " files"
+        );
+        wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("Hello World!")
+                .withFixedDelay(DELAY_MILLISECONDS)
+        ));
+
+        long start = System.nanoTime();
+        List<Integer> statusCodes = sendConcurrentRequests(REQUEST_COUNT);
+        long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(statusCodes).hasSize(REQUEST_COUNT).containsOnly(200);
+        assertThat(elapsedMilliseconds).isLessThan(3 * DELAY_MILLISECONDS);
+    }
+
+    /**
+     * Sends the requests over non-blocking connections and returns the
+     * status codes of the responses. Every request asks the server to close
+     * the connection after the response has been written. That's why a
+     * response has been read when the server closes the connection.
+     */
+    private List<Integer> sendConcurrentRequests(int requestCount) throws IOException {
+        InetSocketAddress address = new InetSocketAddress("localhost", wireMock.port());
+        byte[] request = String.format("GET /api/message HTTP/1.1\r\nHost: localhost:%d\r\nConnection: close\r\n\r\n",
+                wireMock.port()
+        ).getBytes(StandardCharsets.US_ASCII);
+
+        List<Integer> statusCodes = new ArrayList<>();
+        try (Selector selector = Selector.open()) {
+            for (int index = 0; index < requestCount; index++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, new Exchange(request));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REQUEST_TIMEOUT_MILLISECONDS);
+            while (statusCodes.size() < requestCount && System.nanoTime() < deadline) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Integer statusCode = ((Exchange) key.attachment()).process(key);
+                    if (statusCode != null) {
+                        statusCodes.add(statusCode);
+                    }
+                }
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        }
+        return statusCodes;
+    }
+
+    private static final class Exchange {
+
+        private final ByteBuffer request;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+        private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        private Exchange(byte[] request) {
+            this.request = ByteBuffer.wrap(request);
+        }
+
+        /**
+         * Continues the exchange and returns the status code of the
+         * response, or <code>null</code> if the response hasn't been read.
+         */
+        private Integer process(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            if (key.isConnectable() && channel.finishConnect()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+            else if (key.isWritable()) {
+                channel.write(request);
+                if (!request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            else if (key.isReadable()) {
+                readBuffer.clear();
+                if (channel.read(readBuffer) != -1) {
+                    response.write(readBuffer.array(), 0, readBuffer.position());
+                    return null;
+                }
+
+                channel.close();
+                //The status line starts with "HTTP/1.1 200".
+                String statusLine = new String(response.toByteArray(), StandardCharsets.US_ASCII);
+                return Integer.parseInt(statusLine.substring(9, 12));
+            }
+            return null;
+        }
+    }
+
+    private static long maxFileDescriptorCount() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            return ((com.sun.management.UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
+    }
+}
@@ -1,9 +1,11 @@
 package net.petrikainulainen.wiremock.stubbing;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.http.HttpHeader;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,17 +22,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Configure the returned HTTP headers")
 class HttpHeaderTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -40,7 +41,7 @@ class HttpHeaderTest {
         @Test
         @DisplayName("Should return the configured HTTP header")
         void shouldReturnConfiguredHttpHeader() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                     .withStatus(200)
                     .withHeader("Name", "Petri Kainulainen")
             ));
@@ -63,7 +64,7 @@ class HttpHeaderTest {
             @Test
             @DisplayName("Should return the configured HTTP headers")
             void shouldReturnConfiguredHttpHeaders() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Name", "Petri Kainulainen")
                         .withHeader("Occupation", "Software Developer")
@@ -88,7 +89,7 @@ class HttpHeaderTest {
                         new HttpHeader("Occupation", "Software Developer")
                 );
 
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeaders(headers)
                 ));
@@ -103,11 +104,6 @@ class HttpHeaderTest {
     }
 
     private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
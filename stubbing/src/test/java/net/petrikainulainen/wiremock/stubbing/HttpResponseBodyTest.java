@@ -1,7 +1,12 @@
 package net.petrikainulainen.wiremock.stubbing;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +14,12 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,17 +32,16 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 @DisplayName("Configure the body of the returned HTTP response")
 class HttpResponseBodyTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -45,7 +55,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/json;charset=UTF-8")
                         .withBody("{ \"message\": \"Hello World!\" }")
@@ -66,7 +76,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/xml")
                         .withBody("<message>Hello World!</message>")
@@ -87,7 +97,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "text/plain")
                         .withBody("Hello World!")
@@ -109,7 +119,7 @@ class HttpResponseBodyTest {
         @Test
         @DisplayName("Should return OK response for JSON")
         void shouldReturnOkResponseForJson() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     okJson("{ \"message\": \"Hello World!\" }")
             ));
 
@@ -123,7 +133,7 @@ class HttpResponseBodyTest {
         @Test
         @DisplayName("Should return OK response for XML")
         void shouldReturnOkResponseForXml() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     okXml("<message>Hello World!</message>")
             ));
 
@@ -137,7 +147,7 @@ class HttpResponseBodyTest {
         @Test
         @DisplayName("Should return OK response for Text/XML")
         void shouldReturnOkResponseForTextXml() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     okTextXml("<message>Hello World!</message>")
             ));
 
@@ -160,7 +170,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/json;charset=UTF-8")
                         .withBodyFile("json/hello.json")
@@ -181,7 +191,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/xml")
                         .withBodyFile("xml/hello.xml")
@@ -202,7 +212,7 @@ class HttpResponseBodyTest {
             @Test
             @DisplayName("Should return the configured HTTP response")
             void shouldReturnHttpConfiguredHttpResponse() {
-                givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "text/plain")
                         .withBodyFile("text/hello.txt")
@@ -217,12 +227,92 @@ class HttpResponseBodyTest {
         }
     }
 
-    private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
+    /**
+     * These tests read the body files through the caching file source
+     * in the same way as WireMock does when it writes a response. The
+     * files are written to a temporary files root, so the tests don't
+     * modify the shared test fixtures.
+     */
+    @Nested
+    @DisplayName("When we read the response body from a cached file")
+    class WhenWeReadResponseBodyFromCachedFile {
+
+        @TempDir
+        Path filesRoot;
+
+        private BodyFileCache cache;
+        private FileSource bodyFiles;
+
+        @BeforeEach
+        void createCachingFileSource() throws IOException {
+            Files.createDirectories(filesRoot.resolve("__files").resolve("text"));
+            this.cache = new BodyFileCache();
+            this.bodyFiles = new CachingFileSource(new SingleRootFileSource(filesRoot.toString()), cache).child("__files");
+        }
+
+        @Test
+        @DisplayName("Should read the file from the disk only once")
+        void shouldReadFileFromDiskOnlyOnce() throws IOException {
+            writeBodyFile("text/hello.txt", "Hello World!");
+
+            assertThat(readBodyFile("text/hello.txt")).isEqualTo("Hello World!");
+            assertThat(readBodyFile("text/hello.txt")).isEqualTo("Hello World!");
+
+            assertThat(cache.missCount()).isEqualTo(1);
+            assertThat(cache.hitCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should read the file again after it has been modified")
+        void shouldReadFileAgainAfterItHasBeenModified() throws IOException {
+            writeBodyFile("text/modified.txt", "Hello World!");
+            assertThat(readBodyFile("text/modified.txt")).isEqualTo("Hello World!");
+
+            writeBodyFile("text/modified.txt", "Hello Modified World!");
+            assertThat(readBodyFile("text/modified.txt")).isEqualTo("Hello Modified World!");
+            assertThat(readBodyFile("text/modified.txt")).isEqualTo("Hello Modified World!");
+
+            assertThat(cache.missCount()).isEqualTo(2);
+            assertThat(cache.hitCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently used file when the byte budget is exceeded")
+        void shouldEvictLeastRecentlyUsedFileWhenByteBudgetIsExceeded() throws IOException {
+            Path json = writeBodyFile("text/hello.json", "{ \"message\": \"Hello World!\" }");
+            Path text = writeBodyFile("text/hello.txt", "Hello World!");
+            BodyFileCache smallCache = new BodyFileCache(Files.size(json) + Files.size(text) - 1);
+
+            smallCache.read(json);
+            smallCache.read(text);
+            assertThat(smallCache.cachedBytes()).isEqualTo(Files.size(text));
+
+            smallCache.read(text);
+            smallCache.read(json);
+            assertThat(smallCache.hitCount()).isEqualTo(1);
+            assertThat(smallCache.missCount()).isEqualTo(3);
+        }
+
+        private String readBodyFile(String name) {
+            return new String(bodyFiles.getBinaryFileNamed(name).readContents(), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Moves the modification time forward because the file system
+         * might store it with a precision of one second.
+         */
+        private Path writeBodyFile(String name, String content) throws IOException {
+            Path bodyFile = filesRoot.resolve("__files").resolve(name);
+            FileTime previousModificationTime = Files.exists(bodyFile)
+                    ? Files.getLastModifiedTime(bodyFile)
+                    : FileTime.fromMillis(0);
+            Files.write(bodyFile, content.getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(bodyFile, FileTime.fromMillis(previousModificationTime.toMillis() + 2000));
+            return bodyFile;
+        }
     }
 
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
@@ -1,7 +1,9 @@
 package net.petrikainulainen.wiremock.stubbing;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
@@ -20,17 +22,16 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 @DisplayName("Configure the returned HTTP status code")
 class HttpStatusCodeTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -40,7 +41,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code OK")
         void shouldReturnHttpStatusCodeOk() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                     .withStatus(200)
             ));
 
@@ -57,7 +58,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code OK")
         void shouldReturnHttpStatusCodeOk() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(ok()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(ok()));
 
             String serverUrl = buildApiMethodUrl();
             ResponseEntity<String> response = restTemplate.getForEntity(serverUrl, String.class);
@@ -67,7 +68,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code created")
         void shouldReturnHttpStatusCodeCreated() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(created()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(created()));
 
             String serverUrl = buildApiMethodUrl();
             ResponseEntity<String> response = restTemplate.getForEntity(serverUrl, String.class);
@@ -77,7 +78,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code no content")
         void shouldReturnHttpStatusCodeNoContent() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(noContent()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(noContent()));
 
             String serverUrl = buildApiMethodUrl();
             ResponseEntity<String> response = restTemplate.getForEntity(serverUrl, String.class);
@@ -87,7 +88,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code bad request")
         void shouldReturnHttpStatusCodeBadRequest() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(badRequest()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(badRequest()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -99,7 +100,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code forbidden")
         void shouldReturnHttpStatusCodeForbidden() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(forbidden()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(forbidden()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -111,7 +112,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code internal server error")
         void shouldReturnHttpStatusCodeServerError() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(serverError()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(serverError()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -123,7 +124,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code not found")
         void shouldReturnHttpStatusCodeNotFound() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(notFound()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(notFound()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -135,7 +136,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code service unavailable")
         void shouldReturnHttpStatusCodeServiceUnavailable() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(serviceUnavailable()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(serviceUnavailable()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -147,7 +148,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code unauthorized")
         void shouldReturnHttpStatusCodeUnauthorized() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(unauthorized()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(unauthorized()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -159,7 +160,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code unprocessable entity")
         void shouldReturnHttpStatusCodeUnprocessableEntity() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(badRequestEntity()));
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(badRequestEntity()));
 
             String serverUrl = buildApiMethodUrl();
             Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(serverUrl, String.class));
@@ -176,7 +177,7 @@ class HttpStatusCodeTest {
         @Test
         @DisplayName("Should return the HTTP status code internal server error and the correct message")
         void shouldReturnHttpStatusCodeOk() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
                     .withStatus(500)
                     .withStatusMessage("I am sorry")
             ));
@@ -190,11 +191,6 @@ class HttpStatusCodeTest {
     }
 
     private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
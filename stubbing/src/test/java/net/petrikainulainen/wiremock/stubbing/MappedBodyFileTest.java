@@ -0,0 +1,274 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class demonstrates how we can write the body files of the
+ * returned HTTP responses to the socket from memory-mapped buffers.
+ */
+@DisplayName("Serve the response body from a memory-mapped file")
+class MappedBodyFileTest {
+
+    private static final String FILES_ROOT = "target/test-classes";
+    private static final String SERVER_THREAD_NAME = "mapped-body-file-server";
+    private static final long LARGE_FILE_SIZE = 1024L * 1024L * 1024L;
+    private static final int CLIENT_COUNT = 4;
+    private static final long MAXIMUM_ALLOCATED_BYTES = 64L * 1024L * 1024L;
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(MappedBodyFiles.enable(options()
+            .dynamicPort()
+            .usingFilesUnderDirectory(FILES_ROOT)
+            .threadPoolFactory(options -> {
+                QueuedThreadPool threadPool = new QueuedThreadPool(options.containerThreads());
+                threadPool.setName(SERVER_THREAD_NAME);
+                return threadPool;
+            })
+    ));
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+    }
+
+    @Nested
+    @DisplayName("When we read the response body from a file")
+    class WhenWeReadResponseBodyFromFile {
+
+        @Test
+        @DisplayName("Should return the JSON document")
+        void shouldReturnJsonDocument() {
+            givenBodyFile("application/json;charset=UTF-8", "json/hello.json");
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_UTF8);
+            assertThat(response.getBody()).isEqualTo("{ \"message\": \"Hello World!\" }");
+        }
+
+        @Test
+        @DisplayName("Should return the XML document")
+        void shouldReturnXmlDocument() {
+            givenBodyFile("application/xml", "xml/hello.xml");
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_XML);
+            assertThat(response.getBody()).isEqualTo("<message>Hello World!</message>");
+        }
+
+        @Test
+        @DisplayName("Should return the plain text string")
+        void shouldReturnPlainTextString() {
+            givenBodyFile("text/plain", "text/hello.txt");
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+
+        @Test
+        @DisplayName("Should set the content length and hide the internal header")
+        void shouldSetContentLengthAndHideInternalHeader() {
+            givenBodyFile("text/plain", "text/hello.txt");
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getHeaders().getContentLength()).isEqualTo("Hello World!".length());
+            assertThat(response.getHeaders().containsKey(MappedBodyFiles.BODY_FILE_HEADER)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should return an uncompressed body when the client accepts gzip")
+        void shouldReturnUncompressedBodyWhenClientAcceptsGzip() throws IOException {
+            givenBodyFile("text/plain", "text/hello.txt");
+
+            HttpURLConnection connection = openConnection();
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(connection.getHeaderField("Content-Encoding")).isNull();
+                assertThat(readFully(body)).isEqualTo("Hello World!");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When a stub sets the internal header")
+    class WhenStubSetsInternalHeader {
+
+        @Test
+        @DisplayName("Should return the body of the stub instead of the file that is named by the header")
+        void shouldReturnBodyOfStubInsteadOfFileThatIsNamedByHeader() {
+            Path outsideFile = Paths.get(FILES_ROOT, "__files", "text", "hello.txt").toAbsolutePath();
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader(MappedBodyFiles.BODY_FILE_HEADER, outsideFile.toUri().toString())
+                    .withBody("Stub body")
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo("Stub body");
+            assertThat(response.getHeaders().containsKey(MappedBodyFiles.BODY_FILE_HEADER)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("When the configuration already uses another HTTP server factory")
+    class WhenConfigurationAlreadyUsesAnotherHttpServerFactory {
+
+        @Test
+        @DisplayName("Should fail instead of replacing the other HTTP server factory")
+        void shouldFailInsteadOfReplacingOtherHttpServerFactory() {
+            assertThatThrownBy(() -> MappedBodyFiles.enable(StreamingBodies.enable(options())))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(StreamingBodyHttpServerFactory.class.getName());
+        }
+    }
+
+    @Nested
+    @Tag("soak")
+    @DisplayName("When we serve a large file to concurrent clients")
+    class WhenWeServeLargeFileToConcurrentClients {
+
+        private Path largeFile;
+
+        /**
+         * The file is sparse, so it doesn't take 1 GB of disk space.
+         */
+        @BeforeEach
+        void createLargeFile() throws IOException {
+            largeFile = Paths.get(FILES_ROOT, "__files", "large", "large.bin");
+            Files.createDirectories(largeFile.getParent());
+            try (RandomAccessFile file = new RandomAccessFile(largeFile.toFile(), "rw")) {
+                file.setLength(LARGE_FILE_SIZE);
+            }
+        }
+
+        @AfterEach
+        void deleteLargeFile() throws IOException {
+            Files.deleteIfExists(largeFile);
+        }
+
+        @Test
+        @DisplayName("Should return the whole file to every client without copying it to the heap")
+        void shouldReturnWholeFileToEveryClientWithoutCopyingItToHeap() throws Exception {
+            givenBodyFile("application/octet-stream", "large/large.bin");
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENT_COUNT);
+            try {
+                Map<Long, Long> allocatedBytesBefore = allocatedBytesByServerThreads();
+
+                List<Future<Long>> receivedBytes = new ArrayList<>();
+                for (int client = 0; client < CLIENT_COUNT; client++) {
+                    receivedBytes.add(clients.submit(MappedBodyFileTest.this::countReceivedBytes));
+                }
+                for (Future<Long> received : receivedBytes) {
+                    assertThat(received.get()).isEqualTo(LARGE_FILE_SIZE);
+                }
+
+                long allocatedBytes = allocatedBytesSince(allocatedBytesBefore);
+                assertThat(allocatedBytes).isLessThan(MAXIMUM_ALLOCATED_BYTES);
+            }
+            finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    private void givenBodyFile(String contentType, String bodyFileName) {
+        wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", contentType)
+                .withBodyFile(bodyFileName)
+        ));
+    }
+
+    private long countReceivedBytes() throws IOException {
+        HttpURLConnection connection = openConnection();
+        byte[] buffer = new byte[64 * 1024];
+        long receivedBytes = 0;
+        try (InputStream body = connection.getInputStream()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                receivedBytes += read;
+            }
+        }
+        return receivedBytes;
+    }
+
+    private HttpURLConnection openConnection() throws IOException {
+        return (HttpURLConnection) new URL(buildApiMethodUrl()).openConnection();
+    }
+
+    private String readFully(InputStream in) throws IOException {
+        byte[] buffer = new byte[1024];
+        StringBuilder content = new StringBuilder();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            content.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        return content.toString();
+    }
+
+    /**
+     * Returns the number of bytes every server thread has allocated on the
+     * heap. The other test classes run in this JVM at the same time, so we
+     * must ignore the threads that don't belong to our server.
+     */
+    private Map<Long, Long> allocatedBytesByServerThreads() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocatedBytesByThread = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(SERVER_THREAD_NAME)) {
+                allocatedBytesByThread.put(thread.getId(), threads.getThreadAllocatedBytes(thread.getId()));
+            }
+        }
+        return allocatedBytesByThread;
+    }
+
+    private long allocatedBytesSince(Map<Long, Long> allocatedBytesBefore) {
+        long allocatedBytes = 0;
+        for (Map.Entry<Long, Long> thread : allocatedBytesByServerThreads().entrySet()) {
+            allocatedBytes += thread.getValue() - allocatedBytesBefore.getOrDefault(thread.getKey(), 0L);
+        }
+        return allocatedBytes;
+    }
+
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
+    }
+}
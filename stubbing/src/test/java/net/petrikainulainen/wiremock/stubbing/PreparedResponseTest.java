@@ -0,0 +1,277 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * This class demonstrates how we can serialize static HTTP responses
+ * only once and write their bodies to the socket from an immutable buffer.
+ */
+@DisplayName("Serve static responses from prepared buffers")
+class PreparedResponseTest {
+
+    private static final String SERVER_THREAD_NAME = "prepared-response-server";
+    private static final int LARGE_BODY_SIZE = 256 * 1024;
+    private static final int MEASURED_REQUEST_COUNT = 500;
+    private static final long MAXIMUM_BODY_ALLOCATION_PER_REQUEST = 16 * 1024;
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(PreparedResponses.enable(options()
+            .dynamicPort()
+            .usingFilesUnderDirectory("target/test-classes")
+            .threadPoolFactory(options -> {
+                QueuedThreadPool threadPool = new QueuedThreadPool(options.containerThreads());
+                threadPool.setName(SERVER_THREAD_NAME);
+                return threadPool;
+            })
+    ));
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void configureSystemUnderTest() {
+        this.restTemplate = TestHttpClient.restTemplate();
+    }
+
+    @Nested
+    @DisplayName("When we return a static response")
+    class WhenWeReturnStaticResponse {
+
+        @Test
+        @DisplayName("Should return the configured HTTP response")
+        void shouldReturnConfiguredHttpResponse() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json;charset=UTF-8")
+                    .withBody("{ \"message\": \"Hello World!\" }")
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_UTF8);
+            assertThat(response.getBody()).isEqualTo("{ \"message\": \"Hello World!\" }");
+        }
+
+        @Test
+        @DisplayName("Should return the configured HTTP headers and hide the internal header")
+        void shouldReturnConfiguredHttpHeadersAndHideInternalHeader() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Name", "Petri Kainulainen")
+                    .withHeader("Occupation", "Software Developer")
+                    .withBody("Hello World!")
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getHeaders().get("Name")).containsExactly("Petri Kainulainen");
+            assertThat(response.getHeaders().get("Occupation")).containsExactly("Software Developer");
+            assertThat(response.getHeaders().getContentLength()).isEqualTo("Hello World!".length());
+            assertThat(response.getHeaders().containsKey(PreparedResponses.PREPARED_RESPONSE_HEADER)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should return the HTTP headers that are configured at the same time")
+        void shouldReturnHttpHeadersThatAreConfiguredAtSameTime() {
+            HttpHeaders headers = new HttpHeaders(new HttpHeader("Name", "Petri Kainulainen"),
+                    new HttpHeader("Occupation", "Software Developer"),
+                    new HttpHeader("Cache-Control", "no-cache", "no-store")
+            );
+
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeaders(headers)
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getHeaders().get("Name")).containsExactly("Petri Kainulainen");
+            assertThat(response.getHeaders().get("Occupation")).containsExactly("Software Developer");
+            assertThat(response.getHeaders().get("Cache-Control")).containsExactly("no-cache", "no-store");
+        }
+
+        @Test
+        @DisplayName("Should return the configured HTTP status code")
+        void shouldReturnConfiguredHttpStatusCode() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(serviceUnavailable()));
+
+            Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(buildApiMethodUrl(), String.class));
+            assertThat(thrown).isExactlyInstanceOf(HttpServerErrorException.class);
+            assertThat(((HttpServerErrorException) thrown).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        @Test
+        @DisplayName("Should return the configured HTTP status code and status message")
+        void shouldReturnConfiguredHttpStatusCodeAndStatusMessage() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(500)
+                    .withStatusMessage("I am sorry")
+            ));
+
+            Throwable thrown = catchThrowable(() -> restTemplate.getForEntity(buildApiMethodUrl(), String.class));
+            assertThat(thrown)
+                    .isExactlyInstanceOf(HttpServerErrorException.class)
+                    .hasMessage("500 I am sorry");
+        }
+
+        @Test
+        @DisplayName("Should return the new response when the stub is replaced")
+        void shouldReturnNewResponseWhenStubIsReplaced() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse().withBody("Hello World!")));
+            assertThat(restTemplate.getForObject(buildApiMethodUrl(), String.class)).isEqualTo("Hello World!");
+
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse().withBody("Hello Again!")));
+            assertThat(restTemplate.getForObject(buildApiMethodUrl(), String.class)).isEqualTo("Hello Again!");
+        }
+
+        @Test
+        @DisplayName("Should return the configured body when the client accepts gzip")
+        void shouldReturnConfiguredBodyWhenClientAcceptsGzip() throws IOException {
+            String body = createBody(4 * 1024);
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse().withBody(body)));
+
+            HttpURLConnection connection = (HttpURLConnection) new URL(buildApiMethodUrl()).openConnection();
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            try (InputStream in = connection.getInputStream()) {
+                InputStream content = "gzip".equals(connection.getHeaderField("Content-Encoding"))
+                        ? new GZIPInputStream(in)
+                        : in;
+                assertThat(new String(readFully(content), StandardCharsets.UTF_8)).isEqualTo(body);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When we return a response that isn't static")
+    class WhenWeReturnResponseThatIsNotStatic {
+
+        @Test
+        @DisplayName("Should return the response body that is read from a file")
+        void shouldReturnResponseBodyThatIsReadFromFile() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "text/plain")
+                    .withBodyFile("text/hello.txt")
+            ));
+
+            ResponseEntity<String> response = restTemplate.getForEntity(buildApiMethodUrl(), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo("Hello World!");
+        }
+    }
+
+    @Nested
+    @DisplayName("When the configuration already uses another HTTP server factory")
+    class WhenConfigurationAlreadyUsesAnotherHttpServerFactory {
+
+        @Test
+        @DisplayName("Should fail instead of replacing the other HTTP server factory")
+        void shouldFailInsteadOfReplacingOtherHttpServerFactory() {
+            Throwable thrown = catchThrowable(() -> PreparedResponses.enable(MappedBodyFiles.enable(options())));
+            assertThat(thrown)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(MappedBodyFileHttpServerFactory.class.getName());
+        }
+    }
+
+    /**
+     * WireMock allocates memory for matching, logging, and journaling every
+     * request. That's why we compare the memory that is allocated by the
+     * server threads when they serve a small and a large response body.
+     * If WireMock wrote the body, the difference would be several times
+     * larger than the body.
+     */
+    @Test
+    @DisplayName("Should not allocate heap memory for the response body")
+    void shouldNotAllocateHeapMemoryForResponseBody() {
+        wireMock.givenThat(get(urlEqualTo("/api/small")).willReturn(aResponse().withBody("Hello World!")));
+        wireMock.givenThat(get(urlEqualTo("/api/large")).willReturn(aResponse().withBody(createBody(LARGE_BODY_SIZE))));
+
+        //Let the JIT compiler compile the code that serves the requests.
+        measureAllocatedBytesPerRequest("/api/small");
+        measureAllocatedBytesPerRequest("/api/large");
+
+        long smallBodyAllocation = measureAllocatedBytesPerRequest("/api/small");
+        long largeBodyAllocation = measureAllocatedBytesPerRequest("/api/large");
+
+        assertThat(largeBodyAllocation - smallBodyAllocation).isLessThan(MAXIMUM_BODY_ALLOCATION_PER_REQUEST);
+    }
+
+    private long measureAllocatedBytesPerRequest(String path) {
+        String url = String.format("http://localhost:%d%s", wireMock.port(), path);
+        Map<Long, Long> allocatedBytesBefore = allocatedBytesByServerThreads();
+        for (int request = 0; request < MEASURED_REQUEST_COUNT; request++) {
+            restTemplate.getForObject(url, byte[].class);
+        }
+        return allocatedBytesSince(allocatedBytesBefore) / MEASURED_REQUEST_COUNT;
+    }
+
+    /**
+     * Returns the number of bytes every server thread has allocated on the
+     * heap. An idle server thread can exit while we are sending requests,
+     * so we must compare the allocations of each thread separately.
+     */
+    private Map<Long, Long> allocatedBytesByServerThreads() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocatedBytesByThread = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(SERVER_THREAD_NAME)) {
+                allocatedBytesByThread.put(thread.getId(), threads.getThreadAllocatedBytes(thread.getId()));
+            }
+        }
+        return allocatedBytesByThread;
+    }
+
+    private long allocatedBytesSince(Map<Long, Long> allocatedBytesBefore) {
+        long allocatedBytes = 0;
+        for (Map.Entry<Long, Long> thread : allocatedBytesByServerThreads().entrySet()) {
+            allocatedBytes += thread.getValue() - allocatedBytesBefore.getOrDefault(thread.getKey(), 0L);
+        }
+        return allocatedBytes;
+    }
+
+    private String createBody(int length) {
+        char[] body = new char[length];
+        Arrays.fill(body, 'a');
+        return new String(body);
+    }
+
+    private byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
+    }
+}
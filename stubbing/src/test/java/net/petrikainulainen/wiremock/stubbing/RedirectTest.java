@@ -1,9 +1,11 @@
 package net.petrikainulainen.wiremock.stubbing;
 
-import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.http.HttpHeader;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import net.petrikainulainen.wiremock.testing.TestHttpClient;
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -18,17 +20,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("Configure a redirect with wiremock")
 class RedirectTest {
 
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(options()
+            .dynamicPort()
+    );
+
     private RestTemplate restTemplate;
-    private WireMockServer wireMockServer;
 
     @BeforeEach
     void configureSystemUnderTest() {
-        this.restTemplate = new RestTemplate();
-        this.wireMockServer = new WireMockServer(options()
-                .dynamicPort()
-        );
-        this.wireMockServer.start();
-        configureFor("localhost", this.wireMockServer.port());
+        this.restTemplate = TestHttpClient.restTemplate();
     }
 
     @Nested
@@ -38,7 +39,7 @@ class RedirectTest {
         @Test
         @DisplayName("Should issue a permanent redirect")
         void shouldIssuePermanentRedirect() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     permanentRedirect("https://www.testwithspring.com")
             ));
 
@@ -56,7 +57,7 @@ class RedirectTest {
         @Test
         @DisplayName("Should issue a temporary redirect")
         void shouldIssueTemporaryRedirect() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     temporaryRedirect("https://www.testwithspring.com")
             ));
 
@@ -74,7 +75,7 @@ class RedirectTest {
         @Test
         @DisplayName("Should issue a see other redirect")
         void shouldIssueSeeOtherRedirect() {
-            givenThat(get(urlEqualTo("/api/message")).willReturn(
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(
                     seeOther("https://www.testwithspring.com")
             ));
 
@@ -86,11 +87,6 @@ class RedirectTest {
     }
 
     private String buildApiMethodUrl() {
-        return String.format("http://localhost:%d/api/message", this.wireMockServer.port());
-    }
-
-    @AfterEach
-    void stopWireMockServer() {
-        this.wireMockServer.stop();
+        return String.format("http://localhost:%d/api/message", wireMock.port());
     }
 }
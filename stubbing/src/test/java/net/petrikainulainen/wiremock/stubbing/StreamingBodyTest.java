@@ -0,0 +1,251 @@
+package net.petrikainulainen.wiremock.stubbing;
+
+import net.petrikainulainen.wiremock.testing.WireMockExtension;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class demonstrates how we can stream the body of the returned
+ * HTTP response in chunks at a configured rate.
+ */
+@DisplayName("Stream the body of the returned HTTP response")
+class StreamingBodyTest {
+
+    private static final String SERVER_THREAD_NAME = "streaming-body-server";
+    private static final String NDJSON_LINE = "{ \"message\": \"Hello World!\" }\n";
+    private static final long LARGE_BODY_SIZE = 256L * 1024L * 1024L;
+    private static final long MAXIMUM_ALLOCATED_BYTES = 16L * 1024L * 1024L;
+
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension(StreamingBodies.enable(options()
+            .dynamicPort()
+            .usingFilesUnderDirectory("target/test-classes")
+            .threadPoolFactory(options -> {
+                QueuedThreadPool threadPool = new QueuedThreadPool(options.containerThreads());
+                threadPool.setName(SERVER_THREAD_NAME);
+                return threadPool;
+            })
+    ));
+
+    @Nested
+    @DisplayName("When we stream generated content")
+    class WhenWeStreamGeneratedContent {
+
+        @Test
+        @DisplayName("Should return the repeated content by using the chunked transfer encoding")
+        void shouldReturnRepeatedContentByUsingChunkedTransferEncoding() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(StreamingBody
+                    .ofRepeatedContent(NDJSON_LINE, 1000)
+                    .withChunkSize(256)
+                    .applyTo(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/x-ndjson")
+                    )
+            ));
+
+            HttpURLConnection connection = openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(connection.getResponseCode()).isEqualTo(200);
+                assertThat(connection.getHeaderField("Content-Type")).isEqualTo("application/x-ndjson");
+                assertThat(connection.getHeaderField("Transfer-Encoding")).isEqualTo("chunked");
+                assertThat(connection.getHeaderField(StreamingBodies.STREAMING_BODY_HEADER)).isNull();
+                assertThat(readFully(body)).isEqualTo(repeat(NDJSON_LINE, 1000));
+            }
+        }
+
+        @Test
+        @DisplayName("Should return an empty body when the repeat count is zero")
+        void shouldReturnEmptyBodyWhenRepeatCountIsZero() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(StreamingBody
+                    .ofRepeatedContent(NDJSON_LINE, 0)
+                    .applyTo(aResponse().withStatus(200))
+            ));
+
+            HttpURLConnection connection = openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(readFully(body)).isEmpty();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When we stream a body file")
+    class WhenWeStreamBodyFile {
+
+        @Test
+        @DisplayName("Should return the content of the body file")
+        void shouldReturnContentOfBodyFile() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(StreamingBody
+                    .ofBodyFile("text/hello.txt")
+                    .withChunkSize(5)
+                    .applyTo(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "text/plain")
+                    )
+            ));
+
+            HttpURLConnection connection = openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(connection.getHeaderField("Transfer-Encoding")).isEqualTo("chunked");
+                assertThat(readFully(body)).isEqualTo("Hello World!");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When a stub sets the internal header")
+    class WhenStubSetsInternalHeader {
+
+        @Test
+        @DisplayName("Should return 500 without reading the file that is named by the header")
+        void shouldReturn500WithoutReadingFileThatIsNamedByHeader() throws IOException {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader(StreamingBodies.STREAMING_BODY_HEADER, "bodyFileName=%2Fetc%2Fpasswd")
+                    .withBody("Stub body")
+            ));
+
+            HttpURLConnection connection = openConnection();
+            assertThat(connection.getResponseCode()).isEqualTo(500);
+            assertThat(connection.getContentLengthLong()).isZero();
+            assertThat(connection.getHeaderField(StreamingBodies.STREAMING_BODY_HEADER)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("When we limit the rate of the stream")
+    class WhenWeLimitRateOfStream {
+
+        private static final int CHUNK_SIZE = 1024;
+        private static final int CHUNK_COUNT = 10;
+        private static final long BYTES_PER_SECOND = 10 * 1024;
+
+        @BeforeEach
+        void givenRateLimitedStream() {
+            wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(StreamingBody
+                    .ofRepeatedContent("a", CHUNK_SIZE * CHUNK_COUNT)
+                    .withChunkSize(CHUNK_SIZE)
+                    .withBytesPerSecond(BYTES_PER_SECOND)
+                    .applyTo(aResponse().withStatus(200))
+            ));
+        }
+
+        /**
+         * The first chunk is written immediately, and every other chunk
+         * is written 100 milliseconds after the previous chunk. The server
+         * waits before it writes a chunk, so the elapsed time can only be
+         * longer than the minimum, never shorter.
+         */
+        @Test
+        @DisplayName("Should not return the body faster than the configured rate")
+        void shouldNotReturnBodyFasterThanConfiguredRate() throws IOException {
+            long start = System.nanoTime();
+            HttpURLConnection connection = openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(readFully(body)).hasSize(CHUNK_SIZE * CHUNK_COUNT);
+            }
+            long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMilliseconds).isGreaterThanOrEqualTo((CHUNK_COUNT - 1) * 1000L * CHUNK_SIZE / BYTES_PER_SECOND);
+        }
+    }
+
+    @Nested
+    @DisplayName("When the configuration already uses another HTTP server factory")
+    class WhenConfigurationAlreadyUsesAnotherHttpServerFactory {
+
+        @Test
+        @DisplayName("Should fail instead of replacing the other HTTP server factory")
+        void shouldFailInsteadOfReplacingOtherHttpServerFactory() {
+            assertThatThrownBy(() -> StreamingBodies.enable(AsyncResponseDelays.enable(options())))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(AsyncResponseDelayHttpServerFactory.class.getName());
+        }
+    }
+
+    /**
+     * If the server held the whole body in memory, the server threads
+     * would allocate at least {@link #LARGE_BODY_SIZE} bytes.
+     */
+    @Test
+    @DisplayName("Should stream a large body without holding it in memory")
+    void shouldStreamLargeBodyWithoutHoldingItInMemory() throws IOException {
+        wireMock.givenThat(get(urlEqualTo("/api/message")).willReturn(StreamingBody
+                .ofRepeatedContent(NDJSON_LINE, LARGE_BODY_SIZE / NDJSON_LINE.length())
+                .withChunkSize(64 * 1024)
+                .applyTo(aResponse().withStatus(200))
+        ));
+
+        long allocatedBytesBefore = allocatedBytesByServerThreads();
+        long receivedBytes = countReceivedBytes();
+        long allocatedBytes = allocatedBytesByServerThreads() - allocatedBytesBefore;
+
+        assertThat(receivedBytes).isEqualTo(LARGE_BODY_SIZE / NDJSON_LINE.length() * NDJSON_LINE.length());
+        assertThat(allocatedBytes).isLessThan(MAXIMUM_ALLOCATED_BYTES);
+    }
+
+    private long countReceivedBytes() throws IOException {
+        HttpURLConnection connection = openConnection();
+        byte[] buffer = new byte[64 * 1024];
+        long receivedBytes = 0;
+        try (InputStream body = connection.getInputStream()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                receivedBytes += read;
+            }
+        }
+        return receivedBytes;
+    }
+
+    private long allocatedBytesByServerThreads() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBytes = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(SERVER_THREAD_NAME)) {
+                allocatedBytes += threads.getThreadAllocatedBytes(thread.getId());
+            }
+        }
+        return allocatedBytes;
+    }
+
+    private HttpURLConnection openConnection() throws IOException {
+        return (HttpURLConnection) new URL(buildApiMethodUrl()).openConnection();
+    }
+
+    private String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String repeat(String content, int count) {
+        StringBuilder repeated = new StringBuilder();
+        for (int index = 0; index < count; index++) {
+            repeated.append(content);
+        }
+        return repeated.toString();
+    }
+
+    private String buildApiMethodUrl() {
+        return String.format("http://localhost:%d/api/message", wireMock.port());
+    }
+}
@@ -0,0 +1,60 @@
+package net.petrikainulainen.wiremock.testing;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the {@link RestTemplate} that is used by our tests. All tests
+ * share the same Apache HTTP client which keeps the connections open and
+ * reuses them. This means that the tests can send thousands of requests
+ * without opening a new connection for every request.
+ *
+ * The client doesn't follow redirects, decompress responses, or store
+ * cookies because the tests assert the responses returned by WireMock.
+ * Also, the shared {@link RestTemplate} must not be modified by the tests.
+ */
+public final class TestHttpClient {
+
+    private static final int MAX_CONNECTIONS = 200;
+
+    /**
+     * A stopped WireMock server leaves closed connections to the pool.
+     * They are detected before they are reused if they have been idle
+     * for longer than this.
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLISECONDS = 100;
+
+    private static final RestTemplate REST_TEMPLATE = new RestTemplate(
+            new HttpComponentsClientHttpRequestFactory(createHttpClient())
+    );
+
+    private TestHttpClient() {}
+
+    /**
+     * Returns the {@link RestTemplate} that sends requests by using
+     * the shared connection pool.
+     */
+    public static RestTemplate restTemplate() {
+        return REST_TEMPLATE;
+    }
+
+    private static CloseableHttpClient createHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLISECONDS);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .disableRedirectHandling()
+                .disableContentCompression()
+                .disableCookieManagement()
+                .build();
+    }
+}
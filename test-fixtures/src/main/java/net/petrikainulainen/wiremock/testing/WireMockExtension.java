@@ -0,0 +1,97 @@
+package net.petrikainulainen.wiremock.testing;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * This extension starts one WireMock server before the tests of
+ * a test class are run and stops it after all tests of the test
+ * class (including the tests of its nested classes) have been run.
+ *
+ * Because all tests use the same server, this extension removes
+ * the stubs and the requests of the previous test before a test
+ * method is run.
+ *
+ * Every extension has its own WireMock client that is bound to
+ * the started server. This means that test classes which register
+ * their stubs by using the {@link #givenThat(MappingBuilder)} method
+ * don't use the global WireMock configuration, and they can be
+ * run in parallel.
+ */
+public class WireMockExtension implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback {
+
+    private static final String ANY_ADDRESS = "0.0.0.0";
+
+    private final Options options;
+    private WireMockServer wireMockServer;
+    private WireMock wireMock;
+    private String ownerId;
+
+    public WireMockExtension() {
+        this(options());
+    }
+
+    public WireMockExtension(Options options) {
+        this.options = options;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        //This callback is invoked for every nested class as well,
+        //but we want to start the server only once per test class.
+        if (this.wireMockServer == null) {
+            this.wireMockServer = new WireMockServer(this.options);
+            this.wireMockServer.start();
+            this.wireMock = new WireMock(host(), port());
+            this.ownerId = context.getUniqueId();
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        this.wireMockServer.resetAll();
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if (context.getUniqueId().equals(this.ownerId)) {
+            this.wireMockServer.stop();
+            this.wireMockServer = null;
+            this.wireMock = null;
+            this.ownerId = null;
+        }
+    }
+
+    /**
+     * Registers a new stub by using the WireMock client that is bound
+     * to the started WireMock server.
+     */
+    public StubMapping givenThat(MappingBuilder mappingBuilder) {
+        return this.wireMock.register(mappingBuilder);
+    }
+
+    /**
+     * Returns the host name that is used to send requests to the
+     * started WireMock server.
+     */
+    public String host() {
+        String bindAddress = this.options.bindAddress();
+        return ANY_ADDRESS.equals(bindAddress) ? "localhost" : bindAddress;
+    }
+
+    /**
+     * Returns the HTTP port of the started WireMock server.
+     */
+    public int port() {
+        return this.wireMockServer.port();
+    }
+}